@@ -0,0 +1,74 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Resolve latency of {@link LocationCatalog} against the linear scan it replaced, for hits and
+ * misses at 10k and 100k locations.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=LocationCatalogBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationCatalogBenchmark {
+
+  @Param({"10000", "100000"})
+  int size;
+
+  private List<Location> locations;
+  private LocationCatalog catalog;
+  private String[] identifiers;
+
+  @Setup
+  public void setup() {
+    locations = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      locations.add(new Location("LOC-" + i, 1 + i % 5, 40 + i % 60));
+    }
+    catalog = LocationCatalog.of(locations);
+
+    // Pre-built so the benchmark measures lookups, not string concatenation
+    identifiers = new String[1024];
+    for (int i = 0; i < identifiers.length; i++) {
+      identifiers[i] = "LOC-" + ThreadLocalRandom.current().nextInt(size);
+    }
+  }
+
+  @Benchmark
+  public Location catalogHit() {
+    return catalog.find(identifiers[ThreadLocalRandom.current().nextInt(identifiers.length)]);
+  }
+
+  @Benchmark
+  public Location catalogMiss() {
+    return catalog.find("UNKNOWN-001");
+  }
+
+  @Benchmark
+  public Location linearScanHit() {
+    String identifier = identifiers[ThreadLocalRandom.current().nextInt(identifiers.length)];
+    return locations.stream()
+        .filter(location -> location.identifier().equals(identifier))
+        .findFirst()
+        .orElse(null);
+  }
+}
@@ -0,0 +1,70 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.NearestWarehouse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of a k-nearest query over 100k warehouses spread across 20k locations in the
+ * Netherlands, with and without a free-capacity filter.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=NearestWarehouseBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearestWarehouseBenchmark {
+
+  @Param({"100000"})
+  int warehouses;
+
+  @Param({"0", "80"})
+  int minFreeCapacity;
+
+  private LocationSpatialIndex locations;
+  private WarehouseProximityIndex index;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(7);
+    int locationCount = warehouses / 5;
+    List<Location> catalog = new ArrayList<>(locationCount);
+    for (int i = 0; i < locationCount; i++) {
+      catalog.add(new Location("LOC-" + i, 5, 500,
+          50.75 + random.nextDouble() * 2.8, 3.35 + random.nextDouble() * 3.9));
+    }
+    locations = LocationCatalog.of(catalog).spatialIndex();
+
+    index = new WarehouseProximityIndex();
+    for (int i = 0; i < warehouses; i++) {
+      int capacity = 20 + random.nextInt(81);
+      index.put(new WarehouseProximityIndex.Slot("WH-" + i, "LOC-" + (i % locationCount),
+          capacity, random.nextInt(capacity + 1)));
+    }
+  }
+
+  @Benchmark
+  public List<NearestWarehouse> nearestTen() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    return index.nearest(locations, 50.75 + random.nextDouble() * 2.8,
+        3.35 + random.nextDouble() * 3.9, 10, minFreeCapacity);
+  }
+}
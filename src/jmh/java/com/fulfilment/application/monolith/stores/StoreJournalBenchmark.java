@@ -0,0 +1,79 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Store syncs per second through {@link StoreJournal} with one fsync per batch, at the outbox's
+ * batch sizes, against the temp-file transport it replaces.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=StoreJournalBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StoreJournalBenchmark {
+
+  @Param({"1", "10", "100"})
+  int batchSize;
+
+  private Path directory;
+  private StoreJournal journal;
+  private Store store;
+  private LegacyStoreManagerGateway tempFileGateway;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("store-journal-benchmark");
+    journal = new StoreJournal(directory, 64 << 20);
+    store = new Store("Benchmark store");
+    store.id = 42L;
+    store.quantityProductsInStock = 10;
+    tempFileGateway = new LegacyStoreManagerGateway();
+    tempFileGateway.transport = "tempfile";
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    journal.close();
+    try (Stream<Path> files = Files.walk(directory)) {
+      files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+    }
+  }
+
+  /** One operation is one batch; multiply by the batch size for syncs per second. */
+  @Benchmark
+  public void journalBatch() {
+    for (int i = 0; i < batchSize; i++) {
+      journal.append(StoreJournalRecord.of(StoreJournalRecord.Type.UPDATED, store));
+    }
+    journal.flush();
+  }
+
+  @Benchmark
+  public void tempFileBatch() {
+    for (int i = 0; i < batchSize; i++) {
+      tempFileGateway.updateStoreOnLegacySystem(store);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package com.fulfilment.application.monolith.common;
+
+import jakarta.ws.rs.WebApplicationException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Request body stream that answers 413 once more than {@code maxBytes} have been read, for bodies
+ * whose size is only known as they are read (e.g. chunked uploads).
+ */
+public class BoundedInputStream extends FilterInputStream {
+
+  private final long maxBytes;
+  private long read;
+
+  public BoundedInputStream(InputStream in, long maxBytes) {
+    super(in);
+    this.maxBytes = maxBytes;
+  }
+
+  /** @throws WebApplicationException with 413 if a declared body length is over the limit */
+  public static void checkDeclaredLength(long length, long maxBytes) {
+    if (length > maxBytes) {
+      throw tooLarge(maxBytes);
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    int b = super.read();
+    if (b >= 0) {
+      count(1);
+    }
+    return b;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int length) throws IOException {
+    int n = super.read(buffer, offset, length);
+    if (n > 0) {
+      count(n);
+    }
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = super.skip(n);
+    count(skipped);
+    return skipped;
+  }
+
+  // Marks would let bytes be read twice and counted twice
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  private void count(long n) {
+    read += n;
+    if (read > maxBytes) {
+      throw tooLarge(maxBytes);
+    }
+  }
+
+  private static WebApplicationException tooLarge(long maxBytes) {
+    return new WebApplicationException(
+        "Request body is larger than " + maxBytes + " bytes", 413);
+  }
+}
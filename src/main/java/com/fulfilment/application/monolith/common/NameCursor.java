@@ -0,0 +1,41 @@
+package com.fulfilment.application.monolith.common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for lists ordered by name, then id: the (name, id) of the last row
+ * returned. Null names sort last, as the Postgres index on the name column orders them.
+ */
+public record NameCursor(String name, long id) {
+
+  private static final String SEPARATOR = "|";
+
+  public String encode() {
+    // The id goes first and a marker tells a null name from an empty one, so any name round-trips
+    String raw = id + SEPARATOR + (name == null ? "-" : "+" + name);
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** @throws IllegalArgumentException if the token is malformed */
+  public static NameCursor decode(String token) {
+    String[] parts;
+    try {
+      parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+          .split("\\" + SEPARATOR, 2);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Cursor is malformed");
+    }
+    if (parts.length != 2 || parts[1].isEmpty()
+        || (parts[1].charAt(0) != '+' && !parts[1].equals("-"))) {
+      throw new IllegalArgumentException("Cursor is malformed");
+    }
+    try {
+      long id = Long.parseLong(parts[0]);
+      return new NameCursor(parts[1].equals("-") ? null : parts[1].substring(1), id);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Cursor is malformed");
+    }
+  }
+}
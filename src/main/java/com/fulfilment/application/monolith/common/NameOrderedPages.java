@@ -0,0 +1,141 @@
+package com.fulfilment.application.monolith.common;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Function;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+/**
+ * Name-ordered reads of an entity with a {@code name} and an {@code id}, for list endpoints that
+ * must stay bounded however large the table grows: keyset pages with a {@link NameCursor}
+ * continuation token, and an NDJSON export that scrolls the table with a forward-only cursor.
+ */
+public final class NameOrderedPages {
+
+  /** Response header carrying the continuation token of a cursor-mode list. */
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  /** Newline-delimited JSON: one object per line. */
+  public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+  public static final int MAX_PAGE_SIZE = 100;
+
+  static final int EXPORT_FETCH_SIZE = 500;
+
+  /** A page of entities and the cursor of the next page, or {@code null} on the last page. */
+  public record Page<T>(List<T> items, String nextCursor) {}
+
+  private NameOrderedPages() {}
+
+  /**
+   * The page that follows {@code cursor}, or the first page when it is {@code null} or blank.
+   *
+   * @throws IllegalArgumentException if the cursor is malformed
+   */
+  public static <T> Page<T> page(EntityManager entityManager, Class<T> entity,
+      Function<T, NameCursor> position, String cursor, int pageSize) {
+    NameCursor after = cursor == null || cursor.isBlank() ? null : NameCursor.decode(cursor);
+    int size = Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE);
+
+    // Seek past the last row instead of skipping rows, so every page costs the same and rows
+    // inserted or deleted meanwhile do not shift the pages. Names are unique but may be null.
+    StringBuilder jpql = new StringBuilder("FROM ").append(entity.getSimpleName()).append(" e");
+    if (after != null && after.name() == null) {
+      jpql.append(" WHERE e.name IS NULL AND e.id > :afterId");
+    } else if (after != null) {
+      jpql.append(" WHERE e.name > :afterName OR (e.name = :afterName AND e.id > :afterId)")
+          .append(" OR e.name IS NULL");
+    }
+    jpql.append(" ORDER BY e.name NULLS LAST, e.id");
+
+    // One extra row tells whether there is a next page
+    TypedQuery<T> query = entityManager.createQuery(jpql.toString(), entity)
+        .setMaxResults(size + 1);
+    if (after != null) {
+      query.setParameter("afterId", after.id());
+      if (after.name() != null) {
+        query.setParameter("afterName", after.name());
+      }
+    }
+    List<T> rows = query.getResultList();
+    if (rows.size() <= size) {
+      return new Page<>(rows, null);
+    }
+    rows = rows.subList(0, size);
+    return new Page<>(rows, position.apply(rows.get(size - 1)).encode());
+  }
+
+  /**
+   * The response of a cursor-mode list: the {@link #page} that follows {@code cursor} as the body,
+   * and the cursor of the page after it, if any, in the {@value #NEXT_CURSOR_HEADER} header.
+   *
+   * @throws WebApplicationException with status 400 if the cursor is malformed
+   */
+  public static <T> Response pageResponse(EntityManager entityManager, Class<T> entity,
+      Function<T, NameCursor> position, String cursor, int pageSize) {
+    Page<T> page;
+    try {
+      page = page(entityManager, entity, position, cursor, pageSize);
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException(e.getMessage(), 400);
+    }
+    Response.ResponseBuilder response = Response.ok(page.items());
+    if (page.nextCursor() != null) {
+      response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+    }
+    return response.build();
+  }
+
+  /**
+   * Streams all rows of {@code entity} in name order as NDJSON. Rows are written as they are read
+   * and dropped from the session every {@value #EXPORT_FETCH_SIZE} rows, so neither the response
+   * nor the server's heap grows with the table.
+   */
+  public static <T> StreamingOutput export(EntityManager entityManager, Class<T> entity,
+      ObjectMapper objectMapper) {
+    ObjectWriter writer = objectMapper.writerFor(entity)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    // The body is written after the resource method returns, so the scroll needs its own
+    // transaction
+    return output -> QuarkusTransaction.requiringNew().run(() -> {
+      Session session = entityManager.unwrap(Session.class);
+      try (JsonGenerator json = objectMapper.getFactory().createGenerator(output);
+          ScrollableResults<T> rows = session
+              .createSelectionQuery("FROM " + entity.getSimpleName()
+                  + " e ORDER BY e.name NULLS LAST, e.id", entity)
+              .setReadOnly(true)
+              .setFetchSize(EXPORT_FETCH_SIZE)
+              .setCacheMode(CacheMode.IGNORE)
+              .scroll(ScrollMode.FORWARD_ONLY)) {
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Lines are separated by newlines only, not by Jackson's default root value separator
+        json.setRootValueSeparator(null);
+        int written = 0;
+        while (rows.next()) {
+          writer.writeValue(json, rows.get());
+          json.writeRaw('\n');
+          if (++written % EXPORT_FETCH_SIZE == 0) {
+            json.flush();
+            session.clear();
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+}
@@ -0,0 +1,54 @@
+package com.fulfilment.application.monolith.common;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import io.vertx.core.http.HttpServerRequest;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+
+/**
+ * Limits request bodies to {@code http.max-body-size}: a larger declared length is refused before
+ * the body is read, and a body without one is cut off with 413 once it grows past the limit.
+ *
+ * <p>{@code quarkus.http.limits.max-body-size} is raised to what {@code POST /store/import}
+ * takes, which streams its body and enforces {@code store.import.max-body-size} itself (see
+ * {@code StoreImporter}); these filters keep every other endpoint at the regular limit.
+ */
+public class RequestBodyLimit {
+
+  private static final String STORE_IMPORT_PATH = "store/import";
+
+  private final long maxBodySize;
+
+  public RequestBodyLimit(
+      @ConfigProperty(name = "http.max-body-size", defaultValue = "10M") MemorySize maxBodySize) {
+    this.maxBodySize = maxBodySize.asLongValue();
+  }
+
+  @ServerRequestFilter(preMatching = true)
+  public void limit(ContainerRequestContext request) {
+    if (!request.hasEntity() || isStoreImport(request)) {
+      return;
+    }
+    BoundedInputStream.checkDeclaredLength(request.getLength(), maxBodySize);
+    request.setEntityStream(new BoundedInputStream(request.getEntityStream(), maxBodySize));
+  }
+
+  // The rest of a refused body is never read, so the connection cannot serve another request;
+  // closing it also stops the client from sending the rest, as Quarkus' own limit does
+  @ServerResponseFilter
+  public void closeIfRefused(ContainerResponseContext response, HttpServerRequest request) {
+    if (response.getStatus() == 413) {
+      response.getHeaders().putSingle("Connection", "close");
+      request.response().endHandler(v -> request.connection().close());
+    }
+  }
+
+  private static boolean isStoreImport(ContainerRequestContext request) {
+    String path = request.getUriInfo().getPath();
+    return "POST".equals(request.getMethod())
+        && STORE_IMPORT_PATH.equals(path.startsWith("/") ? path.substring(1) : path);
+  }
+}
@@ -0,0 +1,301 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * {@link LocationResolver} decorator that caches what {@link LocationGateway} answers, including
+ * "unknown" answers, so a slow or remote catalog is consulted at most once per identifier and TTL.
+ *
+ * <p>Known locations are kept for {@code location.cache.ttl}, unknown identifiers for the shorter
+ * {@code location.cache.negative-ttl}, so a newly added location becomes valid soon. At most
+ * {@code location.cache.max-size} answers are kept; when full, the least recently used one goes.
+ *
+ * <p>Concurrent misses for the same identifier share one catalog call. Calls run on at most
+ * {@code location.cache.max-concurrent-lookups} threads, with a short queue behind them, and are
+ * bounded by {@code location.cache.resolve-timeout}; a call that times out is interrupted, fails
+ * the request rather than reporting the location as invalid, and is not cached. A lookup that
+ * finds the queue full fails the same way.
+ *
+ * <p>Disabled by default ({@code location.cache.enabled}): the bundled catalog is an in-memory
+ * hash lookup that a cache cannot speed up. When disabled it is a plain pass-through.
+ */
+@ApplicationScoped
+@Alternative
+@Priority(1)
+public class CachingLocationResolver implements LocationResolver {
+
+  private static final int MAX_QUEUED_LOOKUPS = 100;
+
+  private final LocationGateway delegate;
+  private final boolean enabled;
+  private final long ttlNanos;
+  private final long negativeTtlNanos;
+  private final Duration resolveTimeout;
+
+  // Access-ordered, so the eldest entry is the least recently used one
+  private final Map<String, Entry> entries;
+  private final Map<String, CompletableFuture<Location>> inFlight = new ConcurrentHashMap<>();
+  private final ThreadPoolExecutor executor;
+
+  private final Counter hits;
+  private final Counter negativeHits;
+  private final Counter misses;
+  private final Counter timeouts;
+  private final Counter rejections;
+  private final Timer resolveTimer;
+
+  // A cached answer; location is null for an identifier the catalog does not know
+  private record Entry(Location location, long expiresAt) {}
+
+  public CachingLocationResolver(
+      LocationGateway delegate,
+      MeterRegistry meterRegistry,
+      @ConfigProperty(name = "location.cache.enabled", defaultValue = "false") boolean enabled,
+      @ConfigProperty(name = "location.cache.ttl", defaultValue = "10m") Duration ttl,
+      @ConfigProperty(name = "location.cache.negative-ttl", defaultValue = "30s")
+          Duration negativeTtl,
+      @ConfigProperty(name = "location.cache.resolve-timeout", defaultValue = "2s")
+          Duration resolveTimeout,
+      @ConfigProperty(name = "location.cache.max-size", defaultValue = "100000") int maxSize,
+      @ConfigProperty(name = "location.cache.max-concurrent-lookups", defaultValue = "8")
+          int maxConcurrentLookups) {
+    this.delegate = delegate;
+    this.enabled = enabled;
+    this.ttlNanos = ttl.toNanos();
+    this.negativeTtlNanos = negativeTtl.toNanos();
+    this.resolveTimeout = resolveTimeout;
+    this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > maxSize;
+      }
+    });
+    if (enabled) {
+      int threads = Math.max(maxConcurrentLookups, 1);
+      this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+          new ArrayBlockingQueue<>(MAX_QUEUED_LOOKUPS), r -> {
+            Thread thread = new Thread(r, "location-resolver");
+            thread.setDaemon(true);
+            return thread;
+          });
+      this.executor.allowCoreThreadTimeOut(true);
+    } else {
+      this.executor = null;
+    }
+
+    this.hits = Counter.builder("location.cache.lookups").tag("result", "hit")
+        .register(meterRegistry);
+    this.negativeHits = Counter.builder("location.cache.lookups").tag("result", "negative-hit")
+        .register(meterRegistry);
+    this.misses = Counter.builder("location.cache.lookups").tag("result", "miss")
+        .register(meterRegistry);
+    this.timeouts = Counter.builder("location.resolve.timeouts")
+        .description("Catalog calls abandoned after location.cache.resolve-timeout")
+        .register(meterRegistry);
+    this.rejections = Counter.builder("location.resolve.rejections")
+        .description("Catalog calls refused because every lookup thread and queue slot was busy")
+        .register(meterRegistry);
+    this.resolveTimer = Timer.builder("location.resolve")
+        .description("Latency of calls to the location catalog behind the cache")
+        .register(meterRegistry);
+    Gauge.builder("location.cache.size", entries, Map::size).register(meterRegistry);
+  }
+
+  @Override
+  public Location resolveByIdentifier(String identifier) {
+    if (!enabled || identifier == null) {
+      return delegate.resolveByIdentifier(identifier);
+    }
+    Entry entry = cached(identifier);
+    if (entry != null) {
+      return entry.location();
+    }
+    return load(List.of(identifier), lookup -> {
+      Map<String, Location> found = new HashMap<>();
+      found.put(identifier, delegate.resolveByIdentifier(identifier));
+      return found;
+    }).get(identifier);
+  }
+
+  @Override
+  public Map<String, Location> resolveAll(Collection<String> identifiers) {
+    if (!enabled) {
+      return delegate.resolveAll(identifiers);
+    }
+    Map<String, Location> resolved = new HashMap<>();
+    Set<String> missing = new LinkedHashSet<>();
+    for (String identifier : identifiers) {
+      if (identifier == null || resolved.containsKey(identifier) || missing.contains(identifier)) {
+        continue;
+      }
+      Entry entry = cached(identifier);
+      if (entry == null) {
+        missing.add(identifier);
+      } else if (entry.location() != null) {
+        resolved.put(identifier, entry.location());
+      }
+    }
+    if (!missing.isEmpty()) {
+      // One catalog call for everything the cache could not answer
+      load(missing, delegate::resolveAll).forEach((identifier, location) -> {
+        if (location != null) {
+          resolved.put(identifier, location);
+        }
+      });
+    }
+    return resolved;
+  }
+
+  /** Drops every cached answer, known and unknown. */
+  public void invalidateAll() {
+    entries.clear();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  private Entry cached(String identifier) {
+    Entry entry = entries.get(identifier);
+    if (entry != null && entry.expiresAt() - System.nanoTime() <= 0) {
+      entries.remove(identifier, entry);
+      entry = null;
+    }
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    (entry.location() != null ? hits : negativeHits).increment();
+    return entry;
+  }
+
+  /**
+   * Answers for {@code identifiers}, null for unknown ones. Identifiers another caller is already
+   * loading wait for that call; the rest are loaded with one call to {@code lookup}.
+   */
+  private Map<String, Location> load(Collection<String> identifiers,
+      Function<List<String>, Map<String, Location>> lookup) {
+    Map<String, CompletableFuture<Location>> pending = new LinkedHashMap<>();
+    Map<String, CompletableFuture<Location>> owned = new LinkedHashMap<>();
+    for (String identifier : identifiers) {
+      CompletableFuture<Location> future = new CompletableFuture<>();
+      CompletableFuture<Location> loading = inFlight.putIfAbsent(identifier, future);
+      if (loading == null) {
+        owned.put(identifier, future);
+        loading = future;
+      }
+      pending.put(identifier, loading);
+    }
+
+    Future<?> call = owned.isEmpty() ? null : submit(owned, lookup);
+    long deadline = System.nanoTime() + resolveTimeout.toNanos();
+    Map<String, Location> loaded = new HashMap<>();
+    try {
+      for (Map.Entry<String, CompletableFuture<Location>> entry : pending.entrySet()) {
+        long remaining = deadline - System.nanoTime();
+        loaded.put(entry.getKey(), entry.getValue().get(remaining, TimeUnit.NANOSECONDS));
+      }
+      return loaded;
+    } catch (TimeoutException e) {
+      timeouts.increment();
+      IllegalStateException failure = new IllegalStateException(
+          "Location catalog did not answer within " + resolveTimeout.toMillis() + " ms", e);
+      // Fail the waiters before interrupting the call, so an answer it returns anyway is dropped
+      abandon(owned, failure);
+      if (call != null) {
+        call.cancel(true);
+      }
+      throw failure;
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof RuntimeException runtime
+          ? runtime
+          : new IllegalStateException("Location catalog failed", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      abandon(owned, new IllegalStateException("Interrupted while resolving locations", e));
+      if (call != null) {
+        call.cancel(true);
+      }
+      throw new IllegalStateException("Interrupted while resolving locations", e);
+    }
+  }
+
+  private Future<?> submit(Map<String, CompletableFuture<Location>> owned,
+      Function<List<String>, Map<String, Location>> lookup) {
+    List<String> identifiers = new ArrayList<>(owned.keySet());
+    try {
+      return executor.submit(() -> {
+        long start = System.nanoTime();
+        try {
+          Map<String, Location> found = lookup.apply(identifiers);
+          owned.forEach((identifier, future) -> {
+            Location location = found.get(identifier);
+            // Cached before waiters wake up, and dropped again if they gave up; see load
+            Entry entry = store(identifier, location);
+            if (!future.complete(location)) {
+              entries.remove(identifier, entry);
+            }
+          });
+        } catch (RuntimeException e) {
+          owned.values().forEach(future -> future.completeExceptionally(e));
+        } finally {
+          resolveTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+          owned.forEach(inFlight::remove);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      rejections.increment();
+      IllegalStateException failure =
+          new IllegalStateException("Too many concurrent location catalog lookups", e);
+      abandon(owned, failure);
+      throw failure;
+    }
+  }
+
+  private void abandon(Map<String, CompletableFuture<Location>> owned, RuntimeException failure) {
+    owned.forEach((identifier, future) -> {
+      future.completeExceptionally(failure);
+      inFlight.remove(identifier, future);
+    });
+  }
+
+  private Entry store(String identifier, Location location) {
+    long ttl = location != null ? ttlNanos : negativeTtlNanos;
+    Entry entry = new Entry(location, System.nanoTime() + ttl);
+    entries.put(identifier, entry);
+    return entry;
+  }
+}
@@ -0,0 +1,139 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable set of known locations, indexed by identifier. A catalog is fully built before anyone
+ * can see it and never changes afterwards, so it can be shared between threads without locking.
+ */
+public final class LocationCatalog {
+
+  // Last line of a complete catalog file, followed by the number of locations above it
+  static final String END_TRAILER = "#end,";
+
+  private final Map<String, Location> byIdentifier;
+  private final LocationSpatialIndex spatialIndex;
+
+  private LocationCatalog(Map<String, Location> byIdentifier) {
+    this.byIdentifier = byIdentifier;
+    this.spatialIndex = LocationSpatialIndex.of(byIdentifier.values());
+  }
+
+  public static LocationCatalog of(Collection<Location> locations) {
+    Map<String, Location> index = new HashMap<>(Math.max(16, locations.size() * 4 / 3 + 1));
+    for (Location location : locations) {
+      if (index.putIfAbsent(location.identifier(), location) != null) {
+        throw new IllegalArgumentException(
+            "Location '" + location.identifier() + "' is defined more than once");
+      }
+    }
+    return new LocationCatalog(index);
+  }
+
+  /**
+   * Reads a catalog in the {@code identifier,maxNumberOfWarehouses,maxCapacity[,latitude,longitude]}
+   * line format. Blank lines and lines starting with {@code #} are ignored, except an optional
+   * {@code #end,<count>} trailer, which must be the last line and match the number of locations.
+   *
+   * @throws IllegalArgumentException if a line is malformed or an identifier repeats
+   */
+  public static LocationCatalog parse(Reader source) throws IOException {
+    return parse(source, false);
+  }
+
+  /**
+   * Like {@link #parse(Reader)}, for a file that may be cut short: the last line must be an
+   * {@code #end,<count>} trailer that matches the number of locations, so a truncated or partly
+   * written file is rejected instead of yielding a smaller catalog.
+   *
+   * @throws IllegalArgumentException if a line is malformed, an identifier repeats, or the
+   *     trailer is missing or does not match
+   */
+  public static LocationCatalog parseComplete(Reader source) throws IOException {
+    return parse(source, true);
+  }
+
+  private static LocationCatalog parse(Reader source, boolean requireTrailer) throws IOException {
+    List<Location> locations = new ArrayList<>();
+    BufferedReader reader = new BufferedReader(source);
+    String line;
+    int lineNumber = 0;
+    Integer declared = null;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      line = line.strip();
+      if (line.isEmpty()) {
+        continue;
+      }
+      if (declared != null) {
+        throw new IllegalArgumentException("Line " + lineNumber + ": content after the trailer");
+      }
+      if (line.startsWith(END_TRAILER)) {
+        try {
+          declared = Integer.parseInt(line.substring(END_TRAILER.length()).strip());
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Line " + lineNumber + ": malformed trailer", e);
+        }
+        continue;
+      }
+      if (line.startsWith("#")) {
+        continue;
+      }
+      String[] fields = line.split(",");
+      if (fields.length != 3 && fields.length != 5) {
+        throw new IllegalArgumentException("Line " + lineNumber
+            + ": expected identifier,maxNumberOfWarehouses,maxCapacity[,latitude,longitude]");
+      }
+      try {
+        String identifier = fields[0].strip();
+        int maxNumberOfWarehouses = Integer.parseInt(fields[1].strip());
+        int maxCapacity = Integer.parseInt(fields[2].strip());
+        if (fields.length == 3) {
+          locations.add(new Location(identifier, maxNumberOfWarehouses, maxCapacity));
+          continue;
+        }
+        double latitude = Double.parseDouble(fields[3].strip());
+        double longitude = Double.parseDouble(fields[4].strip());
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+          throw new IllegalArgumentException(
+              "Line " + lineNumber + ": coordinates out of range");
+        }
+        locations.add(
+            new Location(identifier, maxNumberOfWarehouses, maxCapacity, latitude, longitude));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+      }
+    }
+    if (requireTrailer && declared == null) {
+      throw new IllegalArgumentException("Catalog is incomplete: no " + END_TRAILER
+          + "<count> trailer after line " + lineNumber);
+    }
+    if (declared != null && declared != locations.size()) {
+      throw new IllegalArgumentException("Catalog is incomplete: trailer declares " + declared
+          + " locations, found " + locations.size());
+    }
+    return of(locations);
+  }
+
+  /** The location with this identifier, or {@code null} if there is none. */
+  public Location find(String identifier) {
+    return identifier == null ? null : byIdentifier.get(identifier);
+  }
+
+  /** Index over the locations that have coordinates. */
+  public LocationSpatialIndex spatialIndex() {
+    return spatialIndex;
+  }
+
+  public int size() {
+    return byIdentifier.size();
+  }
+}
@@ -2,33 +2,163 @@ package com.fulfilment.application.monolith.location;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
-import java.util.ArrayList;
-import java.util.List;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
+/**
+ * {@link LocationResolver} backed by a {@link LocationCatalog}.
+ *
+ * <p>The catalog is read from {@code location.catalog.path} when set, otherwise from the bundled
+ * {@code location/locations.csv}. A configured file is polled for changes; a changed file is
+ * parsed into a complete new catalog, which then replaces the current one with a single volatile
+ * write. Lookups only read that field, so they never lock and never see a half-loaded catalog.
+ *
+ * <p>A configured file must end with an {@code #end,<count>} trailer (see
+ * {@link LocationCatalog#parseComplete}), and must not change while it is read; otherwise it is
+ * taken to be still in the making. A file that is incomplete or fails to parse is logged, the
+ * current catalog stays in place, and the next poll tries again.
+ */
 @ApplicationScoped
 public class LocationGateway implements LocationResolver {
 
-  private static final List<Location> locations = new ArrayList<>();
+  private static final Logger LOGGER = Logger.getLogger(LocationGateway.class.getName());
 
-  static {
-    locations.add(new Location("ZWOLLE-001", 1, 40));
-    locations.add(new Location("ZWOLLE-002", 2, 50));
-    locations.add(new Location("AMSTERDAM-001", 5, 100));
-    locations.add(new Location("AMSTERDAM-002", 3, 75));
-    locations.add(new Location("TILBURG-001", 1, 40));
-    locations.add(new Location("HELMOND-001", 1, 45));
-    locations.add(new Location("EINDHOVEN-001", 2, 70));
-    locations.add(new Location("VETSBY-001", 1, 90));
+  static final String BUNDLED_CATALOG = "location/locations.csv";
+
+  private final Path source;
+
+  private volatile LocationCatalog catalog;
+  // Last loaded version of the source file; only touched by reload()
+  private SourceStamp sourceStamp;
+
+  private record SourceStamp(long lastModifiedMillis, long size) {}
+
+  /** Gateway over the bundled catalog only. */
+  public LocationGateway() {
+    this(Optional.empty());
+  }
+
+  @Inject
+  public LocationGateway(
+      @ConfigProperty(name = "location.catalog.path") Optional<String> path) {
+    this.source = path.map(Path::of).orElse(null);
+    if (source == null) {
+      this.catalog = loadBundled();
+    } else {
+      this.sourceStamp = stamp(source);
+      this.catalog = loadFile(source, sourceStamp);
+    }
   }
 
   @Override
   public Location resolveByIdentifier(String identifier) {
-    // Simple repository pattern: search through the predefined locations
-    // Returns the location if found, or null if not found
-    return locations.stream()
-        .filter(location -> location.identifier().equals(identifier))
-        .findFirst()
-        .orElse(null);
+    return catalog.find(identifier);
+  }
+
+  @Override
+  public Map<String, Location> resolveAll(Collection<String> identifiers) {
+    // One catalog for the whole call, even if a reload swaps it meanwhile
+    LocationCatalog current = catalog;
+    Map<String, Location> resolved = new HashMap<>();
+    for (String identifier : identifiers) {
+      Location location = current.find(identifier);
+      if (location != null) {
+        resolved.put(identifier, location);
+      }
+    }
+    return resolved;
+  }
+
+  /** The current catalog; hold on to it to work with one consistent version. */
+  public LocationCatalog catalog() {
+    return catalog;
+  }
+
+  /** Number of locations in the current catalog. */
+  public int size() {
+    return catalog.size();
+  }
+
+  /**
+   * Reloads the configured file if it changed since the last load.
+   *
+   * @return {@code true} if a new catalog was swapped in
+   */
+  public synchronized boolean reload() {
+    if (source == null) {
+      return false;
+    }
+    try {
+      SourceStamp stamp = stamp(source);
+      if (stamp.equals(sourceStamp)) {
+        return false;
+      }
+      LocationCatalog loaded = loadFile(source, stamp);
+      sourceStamp = stamp;
+      catalog = loaded;
+      LOGGER.infof("Location catalog reloaded from %s (%d locations)", source, loaded.size());
+      return true;
+    } catch (RuntimeException e) {
+      LOGGER.warnf(e, "Location catalog %s could not be reloaded; keeping the current one", source);
+      return false;
+    }
+  }
+
+  @Scheduled(
+      every = "${location.catalog.reload-interval:30s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void scheduledReload() {
+    reload();
+  }
+
+  private static LocationCatalog loadBundled() {
+    InputStream in = LocationGateway.class.getClassLoader().getResourceAsStream(BUNDLED_CATALOG);
+    if (in == null) {
+      throw new IllegalStateException("Bundled location catalog " + BUNDLED_CATALOG + " is missing");
+    }
+    try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+      return LocationCatalog.parse(reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // Parses the file as it was when stamped; a writer still at work shows up as a new stamp
+  private static LocationCatalog loadFile(Path file, SourceStamp stamp) {
+    LocationCatalog loaded;
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      loaded = LocationCatalog.parseComplete(reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read location catalog " + file, e);
+    }
+    if (!stamp(file).equals(stamp)) {
+      throw new IllegalStateException("Location catalog " + file + " changed while being read");
+    }
+    return loaded;
+  }
+
+  private static SourceStamp stamp(Path file) {
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+      return new SourceStamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read location catalog " + file, e);
+    }
   }
 }
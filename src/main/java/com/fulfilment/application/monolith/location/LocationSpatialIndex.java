@@ -0,0 +1,161 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable k-d tree over the locations that have coordinates, answering "locations in order of
+ * distance from a point".
+ *
+ * <p>Points are stored as unit vectors on the sphere, so the straight-line (chord) distance the
+ * tree works with orders locations exactly as the great-circle distance does, without special
+ * cases at the poles or the antimeridian. Traversal is best-first: subtrees are expanded in order of
+ * the distance to their bounding box, so a query touches only the part of the tree it returns plus
+ * a thin boundary around it.
+ */
+public final class LocationSpatialIndex {
+
+  static final double EARTH_RADIUS_KM = 6371.0088;
+
+  /** Receives locations in order of distance; returns {@code false} to stop the traversal. */
+  @FunctionalInterface
+  public interface Visitor {
+    boolean visit(Location location, double distanceKm);
+  }
+
+  private static final class Node {
+    final Location location;
+    final double[] point;
+    final double[] min;
+    final double[] max;
+    Node left;
+    Node right;
+
+    Node(Location location, double[] point) {
+      this.location = location;
+      this.point = point;
+      this.min = point.clone();
+      this.max = point.clone();
+    }
+  }
+
+  // A subtree still to expand, or a single location still to report (point == true)
+  private record Candidate(double distance2, Node node, boolean point) {}
+
+  private final Node root;
+  private final int size;
+
+  private LocationSpatialIndex(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  static LocationSpatialIndex of(Collection<Location> locations) {
+    List<Node> nodes = new ArrayList<>(locations.size());
+    for (Location location : locations) {
+      if (location.hasCoordinates()) {
+        nodes.add(new Node(location, toPoint(location.latitude(), location.longitude())));
+      }
+    }
+    return new LocationSpatialIndex(build(nodes, 0), nodes.size());
+  }
+
+  /** Number of indexed locations. */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Visits indexed locations in order of increasing distance from the given point until the
+   * visitor returns {@code false} or every location has been visited.
+   */
+  public void forEachNearest(double latitude, double longitude, Visitor visitor) {
+    if (root == null) {
+      return;
+    }
+    double[] query = toPoint(latitude, longitude);
+    PriorityQueue<Candidate> queue =
+        new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance2));
+    queue.add(new Candidate(boxDistance2(query, root), root, false));
+
+    while (!queue.isEmpty()) {
+      Candidate next = queue.poll();
+      Node node = next.node();
+      if (next.point()) {
+        if (!visitor.visit(node.location, toKilometres(next.distance2()))) {
+          return;
+        }
+        continue;
+      }
+      queue.add(new Candidate(pointDistance2(query, node.point), node, true));
+      if (node.left != null) {
+        queue.add(new Candidate(boxDistance2(query, node.left), node.left, false));
+      }
+      if (node.right != null) {
+        queue.add(new Candidate(boxDistance2(query, node.right), node.right, false));
+      }
+    }
+  }
+
+  /** Great-circle distance between two points given in decimal degrees. */
+  public static double distanceKm(double latitude1, double longitude1, double latitude2,
+      double longitude2) {
+    return toKilometres(pointDistance2(toPoint(latitude1, longitude1),
+        toPoint(latitude2, longitude2)));
+  }
+
+  // Median split on the axes in turn; each node records the bounding box of its subtree
+  private static Node build(List<Node> nodes, int depth) {
+    if (nodes.isEmpty()) {
+      return null;
+    }
+    int axis = depth % 3;
+    nodes.sort(Comparator.comparingDouble(n -> n.point[axis]));
+    int median = nodes.size() / 2;
+    Node node = nodes.get(median);
+    node.left = build(new ArrayList<>(nodes.subList(0, median)), depth + 1);
+    node.right = build(new ArrayList<>(nodes.subList(median + 1, nodes.size())), depth + 1);
+    for (Node child : new Node[] {node.left, node.right}) {
+      if (child != null) {
+        for (int i = 0; i < 3; i++) {
+          node.min[i] = Math.min(node.min[i], child.min[i]);
+          node.max[i] = Math.max(node.max[i], child.max[i]);
+        }
+      }
+    }
+    return node;
+  }
+
+  private static double[] toPoint(double latitude, double longitude) {
+    double lat = Math.toRadians(latitude);
+    double lon = Math.toRadians(longitude);
+    double cosLat = Math.cos(lat);
+    return new double[] {cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat)};
+  }
+
+  private static double pointDistance2(double[] a, double[] b) {
+    double dx = a[0] - b[0];
+    double dy = a[1] - b[1];
+    double dz = a[2] - b[2];
+    return dx * dx + dy * dy + dz * dz;
+  }
+
+  private static double boxDistance2(double[] p, Node node) {
+    double sum = 0;
+    for (int i = 0; i < 3; i++) {
+      double d = p[i] < node.min[i] ? node.min[i] - p[i] : p[i] > node.max[i] ? p[i] - node.max[i] : 0;
+      sum += d * d;
+    }
+    return sum;
+  }
+
+  // Chord length on the unit sphere to arc length on the earth
+  private static double toKilometres(double chord2) {
+    double chord = Math.sqrt(chord2);
+    return 2 * Math.asin(Math.min(1, chord / 2)) * EARTH_RADIUS_KM;
+  }
+}
@@ -0,0 +1,128 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.NearestWarehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.ports.NearestWarehouseFinder;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import java.util.List;
+import org.jboss.logging.Logger;
+
+/**
+ * {@link NearestWarehouseFinder} over an in-memory {@link WarehouseProximityIndex}, located through
+ * the catalog's {@link LocationSpatialIndex}.
+ *
+ * <p>The index is loaded from the store on first use and then kept current incrementally from
+ * {@link WarehouseChangedEvent}s of committed transactions. Changes that bypass the store are
+ * picked up by the periodic {@link #rebuild()}.
+ */
+@ApplicationScoped
+public class NearestWarehouseLocator implements NearestWarehouseFinder {
+
+  private static final Logger LOGGER = Logger.getLogger(NearestWarehouseLocator.class.getName());
+
+  // Loads discarded because a change raced them before a rebuild gives up
+  private static final int MAX_REBUILD_ATTEMPTS = 5;
+
+  private final LocationGateway locations;
+  private final WarehouseStore warehouseStore;
+
+  private volatile WarehouseProximityIndex index;
+  // Bumped by every applied change; a load that raced with a change is discarded and retried
+  private long generation;
+
+  public NearestWarehouseLocator(LocationGateway locations, WarehouseStore warehouseStore) {
+    this.locations = locations;
+    this.warehouseStore = warehouseStore;
+  }
+
+  @Override
+  public List<NearestWarehouse> findNearest(double latitude, double longitude, int limit,
+      int minFreeCapacity) {
+    if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+      throw new IllegalArgumentException("Coordinates out of range");
+    }
+    return index().nearest(locations.catalog().spatialIndex(), latitude, longitude, limit,
+        minFreeCapacity);
+  }
+
+  void onWarehouseChanged(
+      @Observes(during = TransactionPhase.AFTER_SUCCESS) WarehouseChangedEvent event) {
+    apply(event);
+  }
+
+  /**
+   * Replaces the index with a fresh load of all active warehouses.
+   *
+   * @throws IllegalStateException if changes kept racing the load
+   */
+  public void rebuild() {
+    for (int attempt = 1; attempt <= MAX_REBUILD_ATTEMPTS; attempt++) {
+      long startGeneration;
+      synchronized (this) {
+        startGeneration = generation;
+      }
+      WarehouseProximityIndex loaded = load();
+      synchronized (this) {
+        if (generation == startGeneration) {
+          index = loaded;
+          return;
+        }
+      }
+    }
+    throw new IllegalStateException("Nearest-warehouse index could not be rebuilt: changes raced"
+        + " all " + MAX_REBUILD_ATTEMPTS + " attempts");
+  }
+
+  @Scheduled(
+      every = "${warehouse.nearest.rebuild-interval:10m}",
+      delayed = "${warehouse.nearest.rebuild-interval:10m}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void scheduledRebuild() {
+    if (index != null) {
+      rebuild();
+    }
+  }
+
+  private WarehouseProximityIndex index() {
+    WarehouseProximityIndex current = index;
+    if (current == null) {
+      rebuild();
+      current = index;
+    }
+    return current;
+  }
+
+  private synchronized void apply(WarehouseChangedEvent event) {
+    generation++;
+    if (index == null) {
+      return;
+    }
+    if (event.active() && event.capacity() != null) {
+      index.put(new WarehouseProximityIndex.Slot(event.businessUnitCode(), event.location(),
+          event.capacity(), event.stock() != null ? event.stock() : 0));
+    } else {
+      index.remove(event.businessUnitCode());
+    }
+  }
+
+  private WarehouseProximityIndex load() {
+    WarehouseProximityIndex loaded = new WarehouseProximityIndex();
+    // Own transaction: only committed warehouses may end up in the index
+    QuarkusTransaction.requiringNew().run(() -> warehouseStore.forEachActive(w -> add(loaded, w)));
+    LOGGER.debugf("Loaded %d warehouses into the proximity index", loaded.size());
+    return loaded;
+  }
+
+  private static void add(WarehouseProximityIndex index, Warehouse warehouse) {
+    if (warehouse.capacity != null) {
+      index.put(new WarehouseProximityIndex.Slot(warehouse.businessUnitCode, warehouse.location,
+          warehouse.capacity, warehouse.stock != null ? warehouse.stock : 0));
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.NearestWarehouse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Active warehouses grouped by location, for proximity queries over a {@link LocationSpatialIndex}.
+ *
+ * <p>Each location holds an immutable array of its warehouses, largest free capacity first, that is
+ * replaced as a whole on change; a change copies the array once, placing the warehouse by binary
+ * search. Queries read those arrays without locking; changes are serialized by the owner (see
+ * {@link NearestWarehouseLocator}).
+ */
+final class WarehouseProximityIndex {
+
+  record Slot(String businessUnitCode, String location, int capacity, int stock) {
+    int freeCapacity() {
+      return capacity - stock;
+    }
+  }
+
+  private static final Slot[] NONE = new Slot[0];
+  // Codes are unique, so every slot has exactly one position in this order
+  private static final Comparator<Slot> LARGEST_FREE_FIRST =
+      Comparator.comparingInt(Slot::freeCapacity).reversed()
+          .thenComparing(Slot::businessUnitCode);
+
+  private final Map<String, Slot[]> byLocation = new ConcurrentHashMap<>();
+  // Writer-side only: where each warehouse currently sits
+  private final Map<String, Slot> byCode = new HashMap<>();
+
+  /** Adds the warehouse, or moves it if it is already indexed. */
+  void put(Slot slot) {
+    Slot previous = byCode.put(slot.businessUnitCode(), slot);
+    Slot[] current = byLocation.getOrDefault(slot.location(), NONE);
+    if (previous != null) {
+      if (previous.location().equals(slot.location())) {
+        // Moves within the location in the same copy, so readers never miss the warehouse
+        current = without(current, previous);
+      } else {
+        removeFromLocation(previous);
+      }
+    }
+    byLocation.put(slot.location(), with(current, slot));
+  }
+
+  void remove(String businessUnitCode) {
+    Slot slot = byCode.remove(businessUnitCode);
+    if (slot != null) {
+      removeFromLocation(slot);
+    }
+  }
+
+  int size() {
+    return byCode.size();
+  }
+
+  private void removeFromLocation(Slot slot) {
+    Slot[] updated = without(byLocation.getOrDefault(slot.location(), NONE), slot);
+    if (updated.length == 0) {
+      byLocation.remove(slot.location());
+    } else {
+      byLocation.put(slot.location(), updated);
+    }
+  }
+
+  private static Slot[] with(Slot[] slots, Slot slot) {
+    int at = Arrays.binarySearch(slots, slot, LARGEST_FREE_FIRST);
+    int insertAt = at < 0 ? -(at + 1) : at;
+    Slot[] updated = new Slot[slots.length + 1];
+    System.arraycopy(slots, 0, updated, 0, insertAt);
+    updated[insertAt] = slot;
+    System.arraycopy(slots, insertAt, updated, insertAt + 1, slots.length - insertAt);
+    return updated;
+  }
+
+  private static Slot[] without(Slot[] slots, Slot slot) {
+    int at = Arrays.binarySearch(slots, slot, LARGEST_FREE_FIRST);
+    if (at < 0) {
+      return slots;
+    }
+    Slot[] updated = new Slot[slots.length - 1];
+    System.arraycopy(slots, 0, updated, 0, at);
+    System.arraycopy(slots, at + 1, updated, at, slots.length - at - 1);
+    return updated;
+  }
+
+  List<NearestWarehouse> nearest(LocationSpatialIndex locations, double latitude,
+      double longitude, int limit, int minFreeCapacity) {
+    List<NearestWarehouse> found = new ArrayList<>(Math.min(limit, 64));
+    if (limit <= 0) {
+      return found;
+    }
+    locations.forEachNearest(latitude, longitude, (location, distanceKm) -> {
+      for (Slot slot : byLocation.getOrDefault(location.identifier(), NONE)) {
+        if (slot.freeCapacity() < minFreeCapacity) {
+          // Sorted by free capacity, so the rest of this location has even less
+          break;
+        }
+        found.add(new NearestWarehouse(slot.businessUnitCode(), slot.location(), slot.capacity(),
+            slot.stock(), slot.freeCapacity(), distanceKm));
+        if (found.size() == limit) {
+          return false;
+        }
+      }
+      return true;
+    });
+    return found;
+  }
+}
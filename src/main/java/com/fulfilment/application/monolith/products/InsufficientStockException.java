@@ -0,0 +1,9 @@
+package com.fulfilment.application.monolith.products;
+
+/** A reservation asked for more units of a product than are available. Nothing was reserved. */
+public class InsufficientStockException extends IllegalStateException {
+
+  public InsufficientStockException(String message) {
+    super(message);
+  }
+}
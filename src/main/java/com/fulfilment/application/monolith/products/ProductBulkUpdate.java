@@ -0,0 +1,42 @@
+package com.fulfilment.application.monolith.products;
+
+import java.math.BigDecimal;
+
+/**
+ * A change applied to every product that matches {@code filter}: the price changed by {@code
+ * pricePercent} percent or set to {@code price}, and/or the stock set to {@code stock}. Rules left
+ * null leave the field alone; a null filter matches all products.
+ */
+public record ProductBulkUpdate(
+    Filter filter,
+    BigDecimal pricePercent,
+    BigDecimal price,
+    Integer stock) {
+
+  /** Products to change; every bound left null is not applied. */
+  public record Filter(
+      String namePrefix,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minStock,
+      Integer maxStock) {}
+
+  /** @throws IllegalArgumentException unless this changes something, and sensibly */
+  void validate() {
+    if (pricePercent == null && price == null && stock == null) {
+      throw new IllegalArgumentException("At least one of pricePercent, price or stock is needed");
+    }
+    if (pricePercent != null && price != null) {
+      throw new IllegalArgumentException("pricePercent and price cannot be combined");
+    }
+    if (pricePercent != null && pricePercent.compareTo(BigDecimal.valueOf(-100)) < 0) {
+      throw new IllegalArgumentException("pricePercent cannot be below -100");
+    }
+    if (price != null && price.signum() < 0) {
+      throw new IllegalArgumentException("price cannot be negative");
+    }
+    if (stock != null && stock < 0) {
+      throw new IllegalArgumentException("stock cannot be negative");
+    }
+  }
+}
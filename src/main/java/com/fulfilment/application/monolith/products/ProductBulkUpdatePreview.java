@@ -0,0 +1,14 @@
+package com.fulfilment.application.monolith.products;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * What a {@link ProductBulkUpdate} would do, without doing it: how many products match and the
+ * first of them, by id, with their values before and after.
+ */
+public record ProductBulkUpdatePreview(long matched, List<Change> sample) {
+
+  public record Change(Long id, String name, BigDecimal price, BigDecimal newPrice, int stock,
+      int newStock) {}
+}
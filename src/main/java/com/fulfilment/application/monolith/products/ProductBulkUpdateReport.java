@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.products;
+
+/**
+ * Progress or outcome of a bulk product update. {@code updated} products have been changed and
+ * committed, in {@code chunks} transactions; a failed update keeps the chunks committed before
+ * the failure.
+ */
+public record ProductBulkUpdateReport(
+    String id,
+    Status status,
+    long updated,
+    long chunks,
+    long elapsedMillis,
+    double productsPerSecond,
+    String error) {
+
+  public enum Status { RUNNING, FINISHED, FAILED }
+}
@@ -0,0 +1,69 @@
+package com.fulfilment.application.monolith.products;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import java.net.URI;
+
+/**
+ * Bulk price and stock changes (see {@link ProductBulkUpdater}). {@code dryRun=true} previews an
+ * update; {@code async=true} starts it in the background and answers 202 with the location of its
+ * progress report.
+ */
+@Path("product/bulk-update")
+@ApplicationScoped
+@Produces("application/json")
+@Consumes("application/json")
+public class ProductBulkUpdateResource {
+
+  @Inject ProductBulkUpdater bulkUpdater;
+
+  @POST
+  public Response update(
+      ProductBulkUpdate update,
+      @QueryParam("dryRun") @DefaultValue("false") boolean dryRun,
+      @QueryParam("async") @DefaultValue("false") boolean async) {
+    if (update == null) {
+      throw new WebApplicationException("Bulk update was not set on request.", 422);
+    }
+    try {
+      if (dryRun) {
+        return Response.ok(bulkUpdater.preview(update)).build();
+      }
+      if (bulkUpdater.isRunning()) {
+        throw new WebApplicationException("A bulk product update is already running.", 409);
+      }
+      if (async) {
+        ProductBulkUpdateReport report = bulkUpdater.start(update);
+        return Response.accepted(report)
+            .location(URI.create("/product/bulk-update/" + report.id()))
+            .build();
+      }
+      return Response.ok(bulkUpdater.run(update)).build();
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException(e.getMessage(), 422);
+    } catch (IllegalStateException e) {
+      // Another update started between the check and ours
+      throw new WebApplicationException(e.getMessage(), 409);
+    }
+  }
+
+  @GET
+  @Path("{id}")
+  public ProductBulkUpdateReport progress(@PathParam("id") String id) {
+    ProductBulkUpdateReport report = bulkUpdater.progress(id);
+    if (report == null) {
+      throw new WebApplicationException("No bulk product update with id " + id + ".", 404);
+    }
+    return report;
+  }
+}
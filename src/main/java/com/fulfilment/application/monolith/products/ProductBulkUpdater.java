@@ -0,0 +1,309 @@
+package com.fulfilment.application.monolith.products;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Query;
+import jakarta.transaction.Transactional;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Applies a {@link ProductBulkUpdate} to all matching products with set-based statements: the
+ * matching products are locked {@code product.bulk-update.chunk-size} at a time in id order, and
+ * each chunk is changed by one {@code UPDATE} in its own transaction. Walking the ids keeps a chunk
+ * from ever seeing a product again, even when the change moves it out of or into the filter, and
+ * keeps locks and undo small, so a large repricing neither blocks the catalog nor has to be
+ * redone from the start when it fails halfway.
+ *
+ * <p>Updates run on the calling thread ({@link #run}) or in the background ({@link #start}), one
+ * at a time; {@link #progress} reports on either while it runs and afterwards.
+ */
+@ApplicationScoped
+public class ProductBulkUpdater {
+
+  private static final Logger LOGGER = Logger.getLogger(ProductBulkUpdater.class.getName());
+
+  static final int PREVIEW_SIZE = 20;
+  private static final int KEPT_REPORTS = 50;
+
+  private final ProductRepository productRepository;
+  private final ProductStock productStock;
+  private final ProductCatalogVersion catalogVersion;
+  private final int chunkSize;
+
+  private final AtomicBoolean running = new AtomicBoolean();
+  private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "product-bulk-update");
+    thread.setDaemon(true);
+    return thread;
+  });
+  // Most recent updates by id, oldest first
+  private final Map<String, Run> runs = new LinkedHashMap<>();
+
+  // Counts of one bulk update, updated by the thread running it
+  private static final class Run {
+    final String id = UUID.randomUUID().toString();
+    final long startedAt = System.nanoTime();
+    final AtomicLong updated = new AtomicLong();
+    final AtomicLong chunks = new AtomicLong();
+    volatile long finishedAt;
+    volatile ProductBulkUpdateReport.Status status = ProductBulkUpdateReport.Status.RUNNING;
+    volatile String error;
+
+    ProductBulkUpdateReport report() {
+      long end = status == ProductBulkUpdateReport.Status.RUNNING ? System.nanoTime() : finishedAt;
+      long elapsedNanos = end - startedAt;
+      long count = updated.get();
+      double perSecond = elapsedNanos > 0 ? count * 1e9 / elapsedNanos : 0;
+      return new ProductBulkUpdateReport(id, status, count, chunks.get(),
+          TimeUnit.NANOSECONDS.toMillis(elapsedNanos), perSecond, error);
+    }
+  }
+
+  public ProductBulkUpdater(
+      ProductRepository productRepository,
+      ProductStock productStock,
+      ProductCatalogVersion catalogVersion,
+      @ConfigProperty(name = "product.bulk-update.chunk-size", defaultValue = "1000")
+          int chunkSize) {
+    this.productRepository = productRepository;
+    this.productStock = productStock;
+    this.catalogVersion = catalogVersion;
+    this.chunkSize = chunkSize;
+  }
+
+  public boolean isRunning() {
+    return running.get();
+  }
+
+  /** Counts the products an update would change and shows the first ones; changes nothing. */
+  @Transactional
+  public ProductBulkUpdatePreview preview(ProductBulkUpdate update) {
+    update.validate();
+    ProductBulkUpdate.Filter filter = filter(update);
+    Query count = em().createQuery("SELECT COUNT(p) FROM Product p" + where(filter));
+    bindFilter(count, filter, Long.MIN_VALUE);
+    long matched = (Long) count.getSingleResult();
+
+    var first = em().createQuery("FROM Product p" + where(filter) + " ORDER BY p.id",
+            Product.class)
+        .setMaxResults(PREVIEW_SIZE);
+    bindFilter(first, filter, Long.MIN_VALUE);
+    List<ProductBulkUpdatePreview.Change> sample = first.getResultList().stream()
+        .map(product -> new ProductBulkUpdatePreview.Change(product.id, product.name,
+            product.price, newPrice(update, product.price), product.stock,
+            update.stock() != null ? update.stock() : product.stock))
+        .toList();
+    return new ProductBulkUpdatePreview(matched, sample);
+  }
+
+  /** Applies an update on the calling thread and returns its outcome. */
+  public ProductBulkUpdateReport run(ProductBulkUpdate update) {
+    update.validate();
+    Run run = begin();
+    execute(update, run);
+    return run.report();
+  }
+
+  /** Applies an update in the background; the report returned is that of its start. */
+  public ProductBulkUpdateReport start(ProductBulkUpdate update) {
+    update.validate();
+    Run run = begin();
+    try {
+      executor.execute(() -> execute(update, run));
+    } catch (RuntimeException e) {
+      running.set(false);
+      throw e;
+    }
+    return run.report();
+  }
+
+  /** Progress or outcome of the update with this id; null if unknown or long gone. */
+  public ProductBulkUpdateReport progress(String id) {
+    synchronized (runs) {
+      Run run = runs.get(id);
+      return run != null ? run.report() : null;
+    }
+  }
+
+  void shutdown(@Observes ShutdownEvent event) throws InterruptedException {
+    // A running update stops after its current chunk; chunks already committed stay applied
+    executor.shutdownNow();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  private Run begin() {
+    if (!running.compareAndSet(false, true)) {
+      throw new IllegalStateException("A bulk product update is already running");
+    }
+    Run run = new Run();
+    synchronized (runs) {
+      runs.put(run.id, run);
+      if (runs.size() > KEPT_REPORTS) {
+        runs.remove(runs.keySet().iterator().next());
+      }
+    }
+    return run;
+  }
+
+  private void execute(ProductBulkUpdate update, Run run) {
+    ProductBulkUpdateReport.Status outcome = ProductBulkUpdateReport.Status.FAILED;
+    try {
+      long after = Long.MIN_VALUE;
+      while (!Thread.currentThread().isInterrupted()) {
+        long last = after;
+        Long next = QuarkusTransaction.requiringNew().call(() -> applyChunk(update, last, run));
+        if (next == null) {
+          outcome = ProductBulkUpdateReport.Status.FINISHED;
+          break;
+        }
+        after = next;
+      }
+      if (outcome != ProductBulkUpdateReport.Status.FINISHED) {
+        run.error = "Interrupted";
+      }
+    } catch (RuntimeException e) {
+      LOGGER.error("Bulk product update " + run.id + " failed", e);
+      run.error = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+    } finally {
+      run.finishedAt = System.nanoTime();
+      run.status = outcome;
+      running.set(false);
+    }
+    ProductBulkUpdateReport report = run.report();
+    LOGGER.infof("Bulk product update %s %s: %d products in %d chunks, %d ms", report.id(),
+        report.status(), report.updated(), report.chunks(), report.elapsedMillis());
+  }
+
+  // Changes the next chunk after the given id; returns the chunk's last id, null when done
+  private Long applyChunk(ProductBulkUpdate update, long after, Run run) {
+    ProductBulkUpdate.Filter filter = filter(update);
+    // Locked until the chunk commits, so the products still match when they are changed and the
+    // stripes below are reset for exactly the products whose stock was set
+    var select = em().createQuery("SELECT p.id FROM Product p" + where(filter)
+            + " ORDER BY p.id", Long.class)
+        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+        .setMaxResults(chunkSize);
+    bindFilter(select, filter, after);
+    List<Long> ids = select.getResultList();
+    if (ids.isEmpty()) {
+      return null;
+    }
+
+    Query change = em().createQuery("UPDATE Product p SET " + assignments(update)
+        + " WHERE p.id IN :ids");
+    change.setParameter("ids", ids);
+    if (update.pricePercent() != null) {
+      change.setParameter("factor", factor(update.pricePercent()));
+    }
+    if (update.price() != null) {
+      change.setParameter("price", update.price());
+    }
+    if (update.stock() != null) {
+      change.setParameter("stock", update.stock());
+    }
+    int updated = change.executeUpdate();
+    if (update.stock() != null) {
+      // Reserved products keep their available stock in stripes; spread the new stock there too
+      productStock.setAll(ids, update.stock());
+    }
+    catalogVersion.changed();
+
+    run.updated.addAndGet(updated);
+    run.chunks.incrementAndGet();
+    return ids.get(ids.size() - 1);
+  }
+
+  private static String assignments(ProductBulkUpdate update) {
+    StringBuilder set = new StringBuilder();
+    if (update.pricePercent() != null) {
+      set.append("p.price = ROUND(p.price * :factor, 2)");
+    } else if (update.price() != null) {
+      set.append("p.price = :price");
+    }
+    if (update.stock() != null) {
+      set.append(set.isEmpty() ? "" : ", ").append("p.stock = :stock");
+    }
+    return set.toString();
+  }
+
+  private static String where(ProductBulkUpdate.Filter filter) {
+    StringBuilder where = new StringBuilder(" WHERE p.id > :after");
+    if (filter.namePrefix() != null) {
+      where.append(" AND p.name LIKE :namePrefix ESCAPE '\\'");
+    }
+    if (filter.minPrice() != null) {
+      where.append(" AND p.price >= :minPrice");
+    }
+    if (filter.maxPrice() != null) {
+      where.append(" AND p.price <= :maxPrice");
+    }
+    if (filter.minStock() != null) {
+      where.append(" AND p.stock >= :minStock");
+    }
+    if (filter.maxStock() != null) {
+      where.append(" AND p.stock <= :maxStock");
+    }
+    return where.toString();
+  }
+
+  private static void bindFilter(Query query, ProductBulkUpdate.Filter filter, long after) {
+    query.setParameter("after", after);
+    if (filter.namePrefix() != null) {
+      query.setParameter("namePrefix", filter.namePrefix().replace("\\", "\\\\")
+          .replace("%", "\\%").replace("_", "\\_") + "%");
+    }
+    if (filter.minPrice() != null) {
+      query.setParameter("minPrice", filter.minPrice());
+    }
+    if (filter.maxPrice() != null) {
+      query.setParameter("maxPrice", filter.maxPrice());
+    }
+    if (filter.minStock() != null) {
+      query.setParameter("minStock", filter.minStock());
+    }
+    if (filter.maxStock() != null) {
+      query.setParameter("maxStock", filter.maxStock());
+    }
+  }
+
+  private static ProductBulkUpdate.Filter filter(ProductBulkUpdate update) {
+    return update.filter() != null
+        ? update.filter()
+        : new ProductBulkUpdate.Filter(null, null, null, null, null);
+  }
+
+  // The price the UPDATE computes, for previews
+  private static BigDecimal newPrice(ProductBulkUpdate update, BigDecimal price) {
+    if (update.price() != null) {
+      return update.price();
+    }
+    if (update.pricePercent() == null || price == null) {
+      return price;
+    }
+    return price.multiply(factor(update.pricePercent())).setScale(2, RoundingMode.HALF_UP);
+  }
+
+  private static BigDecimal factor(BigDecimal percent) {
+    return BigDecimal.ONE.add(percent.movePointLeft(2));
+  }
+
+  private EntityManager em() {
+    return productRepository.getEntityManager();
+  }
+}
@@ -0,0 +1,92 @@
+package com.fulfilment.application.monolith.products;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.ws.rs.core.EntityTag;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the product catalog, changed by every transaction that creates, updates or deletes
+ * products, so that product responses can carry strong ETags and conditional GETs can be answered
+ * without a database read.
+ *
+ * <p>Works like a sequence lock: a changing transaction bumps the version when it starts to commit
+ * and again once it has completed, and no version is handed out while a commit is under way. A
+ * response built between two reads of the same version therefore holds exactly the data of that
+ * version. Tags include a per-process id, so they do not survive a restart.
+ *
+ * <p>The version lives in memory: changes made by other nodes or directly in the database are not
+ * seen, so run with a single node, or do not rely on the tags there.
+ */
+@ApplicationScoped
+public class ProductCatalogVersion {
+
+  private final String instance = Long.toHexString(ThreadLocalRandom.current().nextLong());
+  private final AtomicLong version = new AtomicLong();
+  private final AtomicInteger committing = new AtomicInteger();
+
+  private final TransactionSynchronizationRegistry transactions;
+
+  public ProductCatalogVersion(TransactionSynchronizationRegistry transactions) {
+    this.transactions = transactions;
+  }
+
+  /**
+   * Marks the current transaction as changing the catalog. Outside a transaction the change is
+   * taken as already committed.
+   */
+  public void changed() {
+    if (transactions.getTransactionStatus() != Status.STATUS_ACTIVE) {
+      version.incrementAndGet();
+      return;
+    }
+    // Once per transaction, however many products it touches
+    if (transactions.getResource(ProductCatalogVersion.class) != null) {
+      return;
+    }
+    transactions.putResource(ProductCatalogVersion.class, Boolean.TRUE);
+    transactions.registerInterposedSynchronization(new Synchronization() {
+      // beforeCompletion is skipped when the transaction rolls back without trying to commit
+      private boolean started;
+
+      @Override
+      public void beforeCompletion() {
+        started = true;
+        committing.incrementAndGet();
+        version.incrementAndGet();
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        version.incrementAndGet();
+        if (started) {
+          committing.decrementAndGet();
+        }
+      }
+    });
+  }
+
+  /** The current version, or -1 while a change is being committed. */
+  public long current() {
+    return committing.get() > 0 ? -1 : version.get();
+  }
+
+  /** Whether the catalog is still at {@code version}, so data read since then belongs to it. */
+  public boolean unchangedSince(long version) {
+    return version >= 0 && committing.get() == 0 && this.version.get() == version;
+  }
+
+  /** Tag of the whole product list at {@code version}. */
+  public EntityTag listTag(long version) {
+    return new EntityTag(instance + "-" + version);
+  }
+
+  /** Tag of one product at {@code version}. */
+  public EntityTag productTag(long version, Long id) {
+    return new EntityTag(instance + "-" + version + "-" + id);
+  }
+}
@@ -0,0 +1,16 @@
+package com.fulfilment.application.monolith.products;
+
+/**
+ * A product was created, changed or deleted; fired inside the changing transaction. Carries the
+ * searchable fields as of the change, or only the id for a deleted product.
+ */
+public record ProductChangedEvent(Long id, String name, String description, boolean deleted) {
+
+  public static ProductChangedEvent of(Product product) {
+    return new ProductChangedEvent(product.id, product.name, product.description, false);
+  }
+
+  public static ProductChangedEvent deleted(Long id) {
+    return new ProductChangedEvent(id, null, null, true);
+  }
+}
@@ -0,0 +1,41 @@
+package com.fulfilment.application.monolith.products;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Units of a product held for a buyer. The units leave the available stock when the hold is
+ * taken; committing keeps them out for good, releasing or expiring returns them.
+ */
+@Entity
+@Table(name = "product_reservation",
+    indexes = @Index(name = "idx_product_reservation_due", columnList = "status, expiresAt"))
+public class ProductReservation {
+
+  public enum Status { HELD, COMMITTED, RELEASED, EXPIRED }
+
+  @Id @GeneratedValue public Long id;
+
+  public Long productId;
+
+  public int quantity;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  public Status status;
+
+  public LocalDateTime createdAt;
+
+  // A hold still HELD at this time is expired and its units returned
+  @Column(nullable = false)
+  public LocalDateTime expiresAt;
+
+  public ProductReservation() {}
+}
@@ -0,0 +1,94 @@
+package com.fulfilment.application.monolith.products;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.time.Duration;
+
+/**
+ * Stock reservations of a product (see {@link ProductStock}): {@code POST} holds units, {@code
+ * POST .../{id}/commit} makes the hold final and {@code DELETE .../{id}} gives the units back.
+ */
+@Path("product/{productId}/reservation")
+@ApplicationScoped
+@Produces("application/json")
+@Consumes("application/json")
+public class ProductReservationResource {
+
+  /** {@code holdSeconds} is optional; without it the configured default hold applies. */
+  public record ReserveRequest(int quantity, Long holdSeconds) {}
+
+  @Inject ProductRepository productRepository;
+
+  @Inject ProductStock productStock;
+
+  @POST
+  public Response reserve(@PathParam("productId") Long productId, ReserveRequest request) {
+    if (request == null || request.quantity() < 1) {
+      throw new WebApplicationException("Quantity must be at least 1.", 422);
+    }
+    if (request.holdSeconds() != null && request.holdSeconds() < 1) {
+      throw new WebApplicationException("holdSeconds must be at least 1.", 422);
+    }
+    if (productRepository.findById(productId) == null) {
+      throw new WebApplicationException(
+          "Product with id of " + productId + " does not exist.", 404);
+    }
+    Duration hold =
+        request.holdSeconds() != null ? Duration.ofSeconds(request.holdSeconds()) : null;
+    try {
+      return Response.status(201)
+          .entity(productStock.reserve(productId, request.quantity(), hold))
+          .build();
+    } catch (InsufficientStockException e) {
+      throw new WebApplicationException(e.getMessage(), 409);
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException(e.getMessage(), 422);
+    }
+  }
+
+  @GET
+  @Path("{id}")
+  public ProductReservation get(@PathParam("productId") Long productId, @PathParam("id") Long id) {
+    return reservation(productId, id);
+  }
+
+  @POST
+  @Path("{id}/commit")
+  @Consumes(MediaType.WILDCARD)
+  public ProductReservation commit(
+      @PathParam("productId") Long productId, @PathParam("id") Long id) {
+    reservation(productId, id);
+    if (!productStock.commit(id)) {
+      throw new WebApplicationException("Reservation " + id + " is no longer held.", 409);
+    }
+    return productStock.find(id);
+  }
+
+  @DELETE
+  @Path("{id}")
+  public Response release(@PathParam("productId") Long productId, @PathParam("id") Long id) {
+    reservation(productId, id);
+    if (!productStock.release(id)) {
+      throw new WebApplicationException("Reservation " + id + " is no longer held.", 409);
+    }
+    return Response.status(204).build();
+  }
+
+  private ProductReservation reservation(Long productId, Long id) {
+    ProductReservation reservation = productStock.find(id);
+    if (reservation == null || !reservation.productId.equals(productId)) {
+      throw new WebApplicationException("Reservation with id of " + id + " does not exist.", 404);
+    }
+    return reservation;
+  }
+}
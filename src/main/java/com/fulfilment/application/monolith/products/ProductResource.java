@@ -2,19 +2,28 @@ package com.fulfilment.application.monolith.products;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fulfilment.application.monolith.common.NameCursor;
+import com.fulfilment.application.monolith.common.NameOrderedPages;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
 import java.util.List;
@@ -28,21 +37,87 @@ public class ProductResource {
 
   @Inject ProductRepository productRepository;
 
+  @Inject ProductCatalogVersion catalogVersion;
+
+  @Inject ProductSearch productSearch;
+
+  @Inject ProductStock productStock;
+
+  @Inject ObjectMapper objectMapper;
+
+  @Inject Event<ProductChangedEvent> productChanged;
+
   private static final Logger LOGGER = Logger.getLogger(ProductResource.class.getName());
 
+  /**
+   * All products by name. Tagged with the catalog version, so a client that sends the tag back in
+   * {@code If-None-Match} gets a 304 without a database read until the catalog changes.
+   *
+   * <p>With {@code cursor} (empty for the first page) this returns one page of at most {@code
+   * pageSize} products instead, and the cursor of the next page in the {@code X-Next-Cursor}
+   * header; large catalogs should be read this way or with {@code GET /product/export}.
+   */
+  @GET
+  public Response get(@Context Request request, @QueryParam("cursor") String cursor,
+      @QueryParam("pageSize") @DefaultValue("20") int pageSize) {
+    if (cursor != null) {
+      return NameOrderedPages.pageResponse(productRepository.getEntityManager(), Product.class,
+          product -> new NameCursor(product.name, product.id), cursor, pageSize);
+    }
+    long version = catalogVersion.current();
+    if (version >= 0) {
+      Response.ResponseBuilder notModified =
+          request.evaluatePreconditions(catalogVersion.listTag(version));
+      if (notModified != null) {
+        return notModified.build();
+      }
+    }
+    List<Product> products = productRepository.listAll(Sort.by("name"));
+    return tagged(Response.ok(products), version, catalogVersion.listTag(version));
+  }
+
+  /** Streams all products by name as NDJSON, one product per line. */
   @GET
-  public List<Product> get() {
-    return productRepository.listAll(Sort.by("name"));
+  @Path("export")
+  @Produces(NameOrderedPages.APPLICATION_NDJSON)
+  public StreamingOutput export() {
+    return NameOrderedPages.export(
+        productRepository.getEntityManager(), Product.class, objectMapper);
+  }
+
+  /** Products by name prefix first, then by similarity of name or description, so typos match. */
+  @GET
+  @Path("search")
+  public ProductSearchResult search(
+      @QueryParam("q") String query,
+      @QueryParam("page") @DefaultValue("0") int page,
+      @QueryParam("size") @DefaultValue("20") int size) {
+    if (query == null || query.isBlank()) {
+      throw new WebApplicationException("Search query q was not set on request.", 400);
+    }
+    if (page < 0 || size < 1 || size > ProductSearch.MAX_PAGE_SIZE) {
+      throw new WebApplicationException(
+          "page must be >= 0 and size between 1 and " + ProductSearch.MAX_PAGE_SIZE + ".", 400);
+    }
+    return productSearch.search(query, page, size);
   }
 
   @GET
   @Path("{id}")
-  public Product getSingle(Long id) {
+  public Response getSingle(Long id, @Context Request request) {
+    long version = catalogVersion.current();
+    if (version >= 0) {
+      Response.ResponseBuilder notModified =
+          request.evaluatePreconditions(catalogVersion.productTag(version, id));
+      if (notModified != null) {
+        return notModified.build();
+      }
+    }
     Product entity = productRepository.findById(id);
     if (entity == null) {
       throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
     }
-    return entity;
+    return tagged(Response.ok(entity), version, catalogVersion.productTag(version, id));
   }
 
   @POST
@@ -53,6 +128,8 @@ public class ProductResource {
     }
 
     productRepository.persist(product);
+    catalogVersion.changed();
+    productChanged.fire(ProductChangedEvent.of(product));
     return Response.ok(product).status(201).build();
   }
 
@@ -76,6 +153,9 @@ public class ProductResource {
     entity.stock = product.stock;
 
     productRepository.persist(entity);
+    productStock.set(id, entity.stock);
+    catalogVersion.changed();
+    productChanged.fire(ProductChangedEvent.of(entity));
 
     return entity;
   }
@@ -89,9 +169,20 @@ public class ProductResource {
       throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
     }
     productRepository.delete(entity);
+    productStock.forget(id);
+    catalogVersion.changed();
+    productChanged.fire(ProductChangedEvent.deleted(id));
     return Response.status(204).build();
   }
 
+  // Only data read while the catalog stayed at one version may carry that version's tag
+  private Response tagged(Response.ResponseBuilder response, long version, EntityTag tag) {
+    if (catalogVersion.unchangedSince(version)) {
+      response.tag(tag);
+    }
+    return response.build();
+  }
+
   @Provider
   public static class ErrorMapper implements ExceptionMapper<Exception> {
 
@@ -0,0 +1,184 @@
+package com.fulfilment.application.monolith.products;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.transaction.Transactional;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.jboss.logging.Logger;
+
+/**
+ * Prefix and typo-tolerant search over product names and descriptions.
+ *
+ * <p>Names starting with the query rank first, in name order. Then come products whose name, or
+ * at half weight whose description, has a word similarity to the query of at least
+ * {@code product.search.min-similarity}, best first. On Postgres this is one query served by the
+ * {@code pg_trgm} GIN indexes of {@code db/product-search-postgresql.sql}. Elsewhere it uses a
+ * {@link ProductSearchIndex} that is loaded on first use and kept current from
+ * {@link ProductChangedEvent}s of committed transactions.
+ */
+@ApplicationScoped
+public class ProductSearch {
+
+  private static final Logger LOGGER = Logger.getLogger(ProductSearch.class.getName());
+
+  public static final int MAX_PAGE_SIZE = 100;
+
+  private static final String POSTGRES_QUERY = """
+      SELECT id, name, description, price, stock, rank FROM (
+        SELECT p.*,
+               CASE WHEN p.name ILIKE :prefix ESCAPE '\\' THEN 1.0
+                    ELSE GREATEST(word_similarity(:query, p.name),
+                                  0.5 * word_similarity(:query, coalesce(p.description, '')))
+               END AS rank,
+               p.name ILIKE :prefix ESCAPE '\\' AS prefixed
+        FROM product p
+        WHERE p.name ILIKE :prefix ESCAPE '\\' OR :query <% p.name OR :query <% p.description
+      ) matches
+      ORDER BY prefixed DESC, rank DESC, name, id
+      LIMIT :limit OFFSET :offset""";
+
+  private final ProductRepository productRepository;
+  private final double minSimilarity;
+
+  private volatile ProductSearchIndex index;
+  // Bumped by every applied change; a load that raced with a change is discarded and retried
+  private long generation;
+
+  public ProductSearch(
+      ProductRepository productRepository,
+      @ConfigProperty(name = "product.search.min-similarity", defaultValue = "0.6")
+          double minSimilarity) {
+    this.productRepository = productRepository;
+    this.minSimilarity = minSimilarity;
+  }
+
+  @Transactional
+  public ProductSearchResult search(String query, int page, int size) {
+    if (query == null || query.isBlank()) {
+      throw new IllegalArgumentException("Search query must not be empty");
+    }
+    if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException(
+          "page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+    }
+    String trimmed = query.trim();
+    int offset = page * size;
+    // One extra row tells whether there is a next page
+    List<ProductSearchResult.Hit> hits = isPostgres()
+        ? searchPostgres(trimmed, offset, size + 1)
+        : searchIndex(trimmed, offset, size + 1);
+    boolean hasMore = hits.size() > size;
+    return new ProductSearchResult(hasMore ? hits.subList(0, size) : hits, page, size, hasMore);
+  }
+
+  void onProductChanged(
+      @Observes(during = TransactionPhase.AFTER_SUCCESS) ProductChangedEvent event) {
+    synchronized (this) {
+      generation++;
+      if (index == null) {
+        return;
+      }
+      if (event.deleted()) {
+        index.remove(event.id());
+      } else {
+        index.put(event.id(), event.name(), event.description());
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<ProductSearchResult.Hit> searchPostgres(String query, int offset, int limit) {
+    productRepository.getEntityManager()
+        .createNativeQuery("SELECT set_config('pg_trgm.word_similarity_threshold', :threshold, true)")
+        .setParameter("threshold", String.valueOf(minSimilarity))
+        .getSingleResult();
+    List<Object[]> rows = productRepository.getEntityManager()
+        .createNativeQuery(POSTGRES_QUERY)
+        .setParameter("prefix", escapeLike(query) + "%")
+        .setParameter("query", query)
+        .setParameter("limit", limit)
+        .setParameter("offset", offset)
+        .getResultList();
+    List<ProductSearchResult.Hit> hits = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      hits.add(new ProductSearchResult.Hit(((Number) row[0]).longValue(), (String) row[1],
+          (String) row[2], (BigDecimal) row[3], ((Number) row[4]).intValue(),
+          ((Number) row[5]).doubleValue()));
+    }
+    return hits;
+  }
+
+  private List<ProductSearchResult.Hit> searchIndex(String query, int offset, int limit) {
+    List<ProductSearchIndex.Match> matches = index().search(query, offset, limit, minSimilarity);
+    if (matches.isEmpty()) {
+      return List.of();
+    }
+    List<Long> ids = matches.stream().map(ProductSearchIndex.Match::id).toList();
+    Map<Long, Product> products = productRepository.list("id in ?1", ids).stream()
+        .collect(Collectors.toMap(product -> product.id, Function.identity()));
+    List<ProductSearchResult.Hit> hits = new ArrayList<>(matches.size());
+    for (ProductSearchIndex.Match match : matches) {
+      Product product = products.get(match.id());
+      // Deleted since the index answered; the page comes out one short rather than stale
+      if (product != null) {
+        hits.add(new ProductSearchResult.Hit(product.id, product.name, product.description,
+            product.price, product.stock, match.score()));
+      }
+    }
+    return hits;
+  }
+
+  private ProductSearchIndex index() {
+    ProductSearchIndex current = index;
+    if (current != null) {
+      return current;
+    }
+    while (true) {
+      long startGeneration;
+      synchronized (this) {
+        if (index != null) {
+          return index;
+        }
+        startGeneration = generation;
+      }
+      ProductSearchIndex loaded = load();
+      synchronized (this) {
+        if (generation == startGeneration) {
+          index = loaded;
+          return loaded;
+        }
+      }
+    }
+  }
+
+  private ProductSearchIndex load() {
+    ProductSearchIndex loaded = new ProductSearchIndex();
+    // Own transaction: only committed products may end up in the index
+    QuarkusTransaction.requiringNew().run(() -> productRepository.getEntityManager()
+        .createQuery("SELECT p.id, p.name, p.description FROM Product p", Object[].class)
+        .getResultStream()
+        .forEach(row -> loaded.put((Long) row[0], (String) row[1], (String) row[2])));
+    LOGGER.debugf("Loaded %d products into the search index", loaded.size());
+    return loaded;
+  }
+
+  private boolean isPostgres() {
+    return productRepository.getEntityManager().getEntityManagerFactory()
+        .unwrap(SessionFactoryImplementor.class).getJdbcServices()
+        .getDialect() instanceof PostgreSQLDialect;
+  }
+
+  private static String escapeLike(String text) {
+    return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+}
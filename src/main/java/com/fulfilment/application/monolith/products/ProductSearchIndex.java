@@ -0,0 +1,179 @@
+package com.fulfilment.application.monolith.products;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over product names and descriptions, the search backend where the
+ * database has no trigram support (H2 in tests and dev).
+ *
+ * <p>Matches and ranking follow the Postgres query of {@link ProductSearch}: names starting with
+ * the query come first, in name order; then products whose name or description contains most of
+ * the query's trigrams, the way {@code pg_trgm}'s word similarity does, best first, with
+ * description matches weighted at half. Trigrams are taken per word, padded with two spaces in
+ * front and one behind, as {@code pg_trgm} does, so a typo costs only the few trigrams around it.
+ *
+ * <p>Thread-safe: searches share a read lock, changes take the write lock.
+ */
+final class ProductSearchIndex {
+
+  static final double DESCRIPTION_WEIGHT = 0.5;
+
+  record Match(long id, double score) {}
+
+  private record Doc(long id, String name, Set<String> nameTrigrams,
+      Set<String> descriptionTrigrams) {}
+
+  private final Map<Long, Doc> docs = new HashMap<>();
+  // Normalized name -> ids, for prefix matches in name order
+  private final NavigableMap<String, Set<Long>> byName = new TreeMap<>();
+  private final Map<String, Set<Long>> namePostings = new HashMap<>();
+  private final Map<String, Set<Long>> descriptionPostings = new HashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  void put(long id, String name, String description) {
+    Doc doc = new Doc(id, normalize(name), trigrams(name), trigrams(description));
+    lock.writeLock().lock();
+    try {
+      removeLocked(id);
+      docs.put(id, doc);
+      byName.computeIfAbsent(doc.name(), k -> new HashSet<>()).add(id);
+      doc.nameTrigrams()
+          .forEach(t -> namePostings.computeIfAbsent(t, k -> new HashSet<>()).add(id));
+      doc.descriptionTrigrams()
+          .forEach(t -> descriptionPostings.computeIfAbsent(t, k -> new HashSet<>()).add(id));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  void remove(long id) {
+    lock.writeLock().lock();
+    try {
+      removeLocked(id);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  int size() {
+    lock.readLock().lock();
+    try {
+      return docs.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Up to {@code limit} matches, skipping the first {@code offset}, in rank order. */
+  List<Match> search(String query, int offset, int limit, double minSimilarity) {
+    String prefix = normalize(query);
+    if (prefix.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+    Set<String> queryTrigrams = trigrams(query);
+    List<Match> page = new ArrayList<>(limit);
+    lock.readLock().lock();
+    try {
+      // Prefix matches, already in name order
+      int skipped = 0;
+      for (Set<Long> ids : byName.subMap(prefix, true, prefix + Character.MAX_VALUE, false)
+          .values()) {
+        for (Long id : ids.stream().sorted().toList()) {
+          if (skipped++ >= offset && page.size() < limit) {
+            page.add(new Match(id, 1.0));
+          }
+        }
+      }
+      if (page.size() == limit || queryTrigrams.isEmpty()) {
+        return page;
+      }
+
+      // Similar names and descriptions, excluding the prefix matches above
+      Map<Long, Integer> nameHits = count(namePostings, queryTrigrams);
+      Map<Long, Integer> descriptionHits = count(descriptionPostings, queryTrigrams);
+      Set<Long> candidates = new LinkedHashSet<>(nameHits.keySet());
+      candidates.addAll(descriptionHits.keySet());
+      List<Match> similar = new ArrayList<>();
+      double total = queryTrigrams.size();
+      for (Long id : candidates) {
+        if (docs.get(id).name().startsWith(prefix)) {
+          continue;
+        }
+        double nameScore = nameHits.getOrDefault(id, 0) / total;
+        double descriptionScore = descriptionHits.getOrDefault(id, 0) / total;
+        double score = Math.max(nameScore >= minSimilarity ? nameScore : 0,
+            descriptionScore >= minSimilarity ? DESCRIPTION_WEIGHT * descriptionScore : 0);
+        if (score > 0) {
+          similar.add(new Match(id, score));
+        }
+      }
+      similar.sort(Comparator.comparingDouble(Match::score).reversed()
+          .thenComparing(match -> docs.get(match.id()).name())
+          .thenComparingLong(Match::id));
+      int from = Math.max(offset - skipped, 0);
+      for (int i = from; i < similar.size() && page.size() < limit; i++) {
+        page.add(similar.get(i));
+      }
+      return page;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void removeLocked(long id) {
+    Doc doc = docs.remove(id);
+    if (doc == null) {
+      return;
+    }
+    removePosting(byName, doc.name(), id);
+    doc.nameTrigrams().forEach(t -> removePosting(namePostings, t, id));
+    doc.descriptionTrigrams().forEach(t -> removePosting(descriptionPostings, t, id));
+  }
+
+  private static void removePosting(Map<String, Set<Long>> postings, String key, long id) {
+    Set<Long> ids = postings.get(key);
+    if (ids != null && ids.remove(id) && ids.isEmpty()) {
+      postings.remove(key);
+    }
+  }
+
+  private static Map<Long, Integer> count(Map<String, Set<Long>> postings, Set<String> trigrams) {
+    Map<Long, Integer> hits = new HashMap<>();
+    for (String trigram : trigrams) {
+      for (Long id : postings.getOrDefault(trigram, Set.of())) {
+        hits.merge(id, 1, Integer::sum);
+      }
+    }
+    return hits;
+  }
+
+  static String normalize(String text) {
+    return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+  }
+
+  static Set<String> trigrams(String text) {
+    Set<String> trigrams = new HashSet<>();
+    for (String word : normalize(text).split("[^\\p{L}\\p{N}]+")) {
+      if (word.isEmpty()) {
+        continue;
+      }
+      String padded = "  " + word + " ";
+      for (int i = 0; i + 3 <= padded.length(); i++) {
+        trigrams.add(padded.substring(i, i + 3));
+      }
+    }
+    return trigrams;
+  }
+}
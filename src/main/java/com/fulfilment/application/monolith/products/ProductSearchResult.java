@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.products;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/** One page of product search results, best match first. */
+public record ProductSearchResult(List<Hit> hits, int page, int size, boolean hasMore) {
+
+  /** A matching product; {@code score} is 1 for a name prefix match, else the similarity. */
+  public record Hit(Long id, String name, String description, BigDecimal price, int stock,
+      double score) {}
+}
@@ -0,0 +1,464 @@
+package com.fulfilment.application.monolith.products;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.PessimisticLockException;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.LockMode;
+import org.hibernate.Session;
+import org.hibernate.exception.LockAcquisitionException;
+import org.jboss.logging.Logger;
+
+/**
+ * Stock reservations: a buyer holds units of a product, then commits or releases the hold; holds
+ * not committed in time expire and their units return to the stock.
+ *
+ * <p>On its first reservation a product's stock is split over {@code product.stock.stripes}
+ * {@link ProductStockStripe} rows. A reservation takes its units from one stripe, starting at a
+ * random one, with a conditional decrement ({@code available = available - n WHERE available >=
+ * n}), so concurrent buyers of one product mostly lock different rows and stock never goes
+ * negative. Only when no single stripe holds enough, typically when the product is nearly sold
+ * out, does a reservation lock the product and then all of its stripes and take from several. A
+ * reservation that deadlocks with another one anyway is retried in a new transaction.
+ *
+ * <p>{@link Product#stock} is the available stock: from the first reservation on it is the sum of
+ * the stripes, written back every {@code product.stock.roll-up-interval} for the products that
+ * changed, not by every reservation, so that the product row does not become the hot spot. Setting
+ * the stock of a product with {@code PUT /product/{id}} sets its available stock and spreads it
+ * over the stripes again; units on hold at that time come back on top of it if released.
+ */
+@ApplicationScoped
+public class ProductStock {
+
+  private static final Logger LOGGER = Logger.getLogger(ProductStock.class.getName());
+
+  private static final int ROLL_UP_CHUNK = 500;
+  private static final int MAX_RESERVE_ATTEMPTS = 5;
+
+  private final ProductRepository productRepository;
+  private final ProductCatalogVersion catalogVersion;
+  private final TransactionSynchronizationRegistry transactions;
+  private final int stripes;
+  private final Duration defaultHold;
+  private final Duration maxHold;
+  private final int expiryBatchSize;
+
+  // Products with stripes, by stripe count
+  private final Map<Long, Integer> stripeCounts = new ConcurrentHashMap<>();
+  // Products whose stripes changed since their stock was last rolled up
+  private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+
+  private final Counter heldCounter;
+  private final Counter rejectedCounter;
+  private final Counter committedCounter;
+  private final Counter releasedCounter;
+  private final Counter expiredCounter;
+
+  public ProductStock(
+      ProductRepository productRepository,
+      ProductCatalogVersion catalogVersion,
+      TransactionSynchronizationRegistry transactions,
+      MeterRegistry meterRegistry,
+      @ConfigProperty(name = "product.stock.stripes", defaultValue = "16") int stripes,
+      @ConfigProperty(name = "product.reservation.hold", defaultValue = "10m") Duration defaultHold,
+      @ConfigProperty(name = "product.reservation.max-hold", defaultValue = "1h") Duration maxHold,
+      @ConfigProperty(name = "product.reservation.expiry-batch-size", defaultValue = "500")
+          int expiryBatchSize) {
+    if (stripes < 1) {
+      throw new IllegalArgumentException("product.stock.stripes must be at least 1");
+    }
+    this.productRepository = productRepository;
+    this.catalogVersion = catalogVersion;
+    this.transactions = transactions;
+    this.stripes = stripes;
+    this.defaultHold = defaultHold;
+    this.maxHold = maxHold;
+    this.expiryBatchSize = expiryBatchSize;
+
+    this.heldCounter = Counter.builder("product.reservations").tag("result", "held")
+        .register(meterRegistry);
+    this.rejectedCounter = Counter.builder("product.reservations").tag("result", "rejected")
+        .description("Reservations refused for lack of stock")
+        .register(meterRegistry);
+    this.committedCounter = Counter.builder("product.reservations").tag("result", "committed")
+        .register(meterRegistry);
+    this.releasedCounter = Counter.builder("product.reservations").tag("result", "released")
+        .register(meterRegistry);
+    this.expiredCounter = Counter.builder("product.reservations").tag("result", "expired")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Holds {@code quantity} units of a product for {@code hold}, or the configured default hold
+   * when null. Runs in a transaction of its own, retried when it loses a deadlock to a concurrent
+   * reservation of the same product.
+   *
+   * @throws InsufficientStockException if fewer units are available
+   */
+  public ProductReservation reserve(Long productId, int quantity, Duration hold) {
+    if (quantity < 1) {
+      throw new IllegalArgumentException("Quantity must be at least 1");
+    }
+    Duration duration = hold != null ? hold : defaultHold;
+    if (duration.isNegative() || duration.isZero() || duration.compareTo(maxHold) > 0) {
+      throw new IllegalArgumentException("Hold must be positive and at most " + maxHold);
+    }
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return QuarkusTransaction.requiringNew()
+            .call(() -> reserveOnce(productId, quantity, duration));
+      } catch (RuntimeException e) {
+        if (attempt >= MAX_RESERVE_ATTEMPTS || !isLockConflict(e)) {
+          throw e;
+        }
+        LOGGER.debugf("Reservation of product %d lost a lock conflict, attempt %d", productId,
+            Integer.valueOf(attempt));
+        try {
+          Thread.sleep(ThreadLocalRandom.current().nextInt(1, 10 * attempt + 1));
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          throw e;
+        }
+      }
+    }
+  }
+
+  private ProductReservation reserveOnce(Long productId, int quantity, Duration duration) {
+    int count = stripesOf(productId);
+    int start = ThreadLocalRandom.current().nextInt(count);
+    boolean taken = false;
+    for (int i = 0; i < count && !taken; i++) {
+      taken = em().createQuery("UPDATE ProductStockStripe s"
+              + " SET s.available = s.available - :quantity"
+              + " WHERE s.productId = :productId AND s.stripe = :stripe"
+              + " AND s.available >= :quantity")
+          .setParameter("quantity", quantity)
+          .setParameter("productId", productId)
+          .setParameter("stripe", (start + i) % count)
+          .executeUpdate() == 1;
+    }
+    if (!taken) {
+      takeAcrossStripes(productId, quantity);
+    }
+
+    ProductReservation reservation = new ProductReservation();
+    reservation.productId = productId;
+    reservation.quantity = quantity;
+    reservation.status = ProductReservation.Status.HELD;
+    reservation.createdAt = LocalDateTime.now();
+    reservation.expiresAt = reservation.createdAt.plus(duration);
+    em().persist(reservation);
+    stripesChanged(productId);
+    heldCounter.increment();
+    return reservation;
+  }
+
+  @Transactional
+  public ProductReservation find(Long reservationId) {
+    return em().find(ProductReservation.class, reservationId);
+  }
+
+  /** Makes a hold final; false if it is no longer held (or its time is up). */
+  @Transactional
+  public boolean commit(Long reservationId) {
+    int updated = em().createQuery("UPDATE ProductReservation r SET r.status = :committed"
+            + " WHERE r.id = :id AND r.status = :held AND r.expiresAt > :now")
+        .setParameter("committed", ProductReservation.Status.COMMITTED)
+        .setParameter("id", reservationId)
+        .setParameter("held", ProductReservation.Status.HELD)
+        .setParameter("now", LocalDateTime.now())
+        .executeUpdate();
+    if (updated == 0) {
+      return false;
+    }
+    committedCounter.increment();
+    return true;
+  }
+
+  /** Gives the units of a hold back; false if it is no longer held. */
+  @Transactional
+  public boolean release(Long reservationId) {
+    ProductReservation reservation = em().find(ProductReservation.class, reservationId);
+    if (reservation == null) {
+      return false;
+    }
+    // Conditional, so a concurrent commit, release or expiry wins or loses as a whole
+    int updated = em().createQuery("UPDATE ProductReservation r SET r.status = :released"
+            + " WHERE r.id = :id AND r.status = :held")
+        .setParameter("released", ProductReservation.Status.RELEASED)
+        .setParameter("id", reservationId)
+        .setParameter("held", ProductReservation.Status.HELD)
+        .executeUpdate();
+    if (updated == 0) {
+      return false;
+    }
+    giveBack(reservation.productId, reservation.quantity);
+    releasedCounter.increment();
+    return true;
+  }
+
+  /** Spreads a new available stock over the stripes of a product that has them. */
+  @Transactional(TxType.MANDATORY)
+  public void set(Long productId, int available) {
+    int count = existingStripes(productId);
+    if (count == 0) {
+      // No reservations yet: Product.stock alone holds the stock
+      return;
+    }
+    spreadOver(List.of(productId), count, available);
+  }
+
+  /** {@link #set} for many products at once, one statement per stripe count in use. */
+  @Transactional(TxType.MANDATORY)
+  public void setAll(List<Long> productIds, int available) {
+    Map<Integer, List<Long>> byStripeCount = new HashMap<>();
+    em().createQuery("SELECT s.productId, COUNT(s) FROM ProductStockStripe s"
+            + " WHERE s.productId IN :productIds GROUP BY s.productId", Object[].class)
+        .setParameter("productIds", productIds)
+        .getResultList()
+        .forEach(row -> byStripeCount
+            .computeIfAbsent(((Number) row[1]).intValue(), k -> new ArrayList<>())
+            .add((Long) row[0]));
+    byStripeCount.forEach((count, ids) -> spreadOver(ids, count, available));
+  }
+
+  /** Removes the stripes and reservations of a deleted product. */
+  @Transactional(TxType.MANDATORY)
+  public void forget(Long productId) {
+    em().createQuery("DELETE FROM ProductStockStripe s WHERE s.productId = :productId")
+        .setParameter("productId", productId)
+        .executeUpdate();
+    em().createQuery("DELETE FROM ProductReservation r WHERE r.productId = :productId")
+        .setParameter("productId", productId)
+        .executeUpdate();
+    stripeCounts.remove(productId);
+  }
+
+  /** Returns the units of holds whose time is up, in batches of one transaction each. */
+  @Scheduled(
+      every = "${product.reservation.expiry-interval:5s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void expireHolds() {
+    try {
+      while (QuarkusTransaction.requiringNew().call(this::expireBatch) == expiryBatchSize) {
+        // Next batch
+      }
+    } catch (RuntimeException e) {
+      LOGGER.error("Expiring product reservations failed; retrying on the next run", e);
+    }
+  }
+
+  /**
+   * Writes the stripe totals of the products that changed to {@link Product#stock}. Runs every
+   * {@code product.stock.roll-up-interval}.
+   */
+  @Scheduled(
+      every = "${product.stock.roll-up-interval:1s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  synchronized void rollUp() {
+    if (changed.isEmpty()) {
+      return;
+    }
+    List<Long> ids = new ArrayList<>(changed);
+    changed.removeAll(ids);
+    try {
+      QuarkusTransaction.requiringNew().run(() -> {
+        for (int from = 0; from < ids.size(); from += ROLL_UP_CHUNK) {
+          em().createQuery("UPDATE Product p SET p.stock = (SELECT COALESCE(SUM(s.available), 0)"
+                  + " FROM ProductStockStripe s WHERE s.productId = p.id)"
+                  + " WHERE p.id IN :ids"
+                  + " AND EXISTS (SELECT 1 FROM ProductStockStripe s WHERE s.productId = p.id)")
+              .setParameter("ids", ids.subList(from, Math.min(from + ROLL_UP_CHUNK, ids.size())))
+              .executeUpdate();
+        }
+        catalogVersion.changed();
+      });
+    } catch (RuntimeException e) {
+      changed.addAll(ids);
+      LOGGER.warn("Rolling up product stock failed; retrying on the next run", e);
+    }
+  }
+
+  private int expireBatch() {
+    List<ProductReservation> due = em().unwrap(Session.class)
+        .createSelectionQuery("FROM ProductReservation r"
+            + " WHERE r.status = :held AND r.expiresAt <= :now ORDER BY r.expiresAt",
+            ProductReservation.class)
+        .setParameter("held", ProductReservation.Status.HELD)
+        .setParameter("now", LocalDateTime.now())
+        .setHibernateLockMode(LockMode.UPGRADE_SKIPLOCKED)
+        .setMaxResults(expiryBatchSize)
+        .getResultList();
+    Map<Long, Integer> returned = new HashMap<>();
+    for (ProductReservation reservation : due) {
+      reservation.status = ProductReservation.Status.EXPIRED;
+      returned.merge(reservation.productId, reservation.quantity, Integer::sum);
+    }
+    // One increment per product, however many of its holds expired
+    returned.forEach(this::giveBack);
+    expiredCounter.increment(due.size());
+    return due.size();
+  }
+
+  // The rare path: no single stripe has enough, so take from several under a lock on all of them.
+  // The product lock comes first, so that at most one reservation of a product is on this path.
+  private void takeAcrossStripes(Long productId, int quantity) {
+    // Locks the row without loading the entity, which would put a soon stale stock in the cache
+    em().createQuery("SELECT p.id FROM Product p WHERE p.id = :productId", Long.class)
+        .setParameter("productId", productId)
+        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+        .getResultList();
+    List<ProductStockStripe> all = em().createQuery("FROM ProductStockStripe s"
+            + " WHERE s.productId = :productId ORDER BY s.stripe", ProductStockStripe.class)
+        .setParameter("productId", productId)
+        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+        .getResultList();
+    long total = all.stream().mapToLong(stripe -> Math.max(stripe.available, 0)).sum();
+    if (total < quantity) {
+      rejectedCounter.increment();
+      throw new InsufficientStockException("Only " + total + " units of product " + productId
+          + " are available, " + quantity + " were requested.");
+    }
+    int missing = quantity;
+    for (ProductStockStripe stripe : all) {
+      int take = Math.min(Math.max(stripe.available, 0), missing);
+      stripe.available -= take;
+      missing -= take;
+    }
+  }
+
+  // Deadlocks and lock timeouts, as translated by Hibernate, possibly wrapped by the transaction
+  private static boolean isLockConflict(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof LockAcquisitionException
+          || cause instanceof PessimisticLockException
+          || cause instanceof LockTimeoutException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void spreadOver(List<Long> productIds, int count, int available) {
+    em().createQuery("UPDATE ProductStockStripe s SET s.available = :share"
+            + " + CASE WHEN s.stripe < :rest THEN 1 ELSE 0 END WHERE s.productId IN :productIds")
+        .setParameter("share", Math.floorDiv(available, count))
+        .setParameter("rest", Math.floorMod(available, count))
+        .setParameter("productIds", productIds)
+        .executeUpdate();
+    productIds.forEach(this::stripesChanged);
+  }
+
+  private void giveBack(Long productId, int quantity) {
+    int count = existingStripes(productId);
+    if (count == 0) {
+      // Product deleted meanwhile
+      return;
+    }
+    em().createQuery("UPDATE ProductStockStripe s SET s.available = s.available + :quantity"
+            + " WHERE s.productId = :productId AND s.stripe = :stripe")
+        .setParameter("quantity", quantity)
+        .setParameter("productId", productId)
+        .setParameter("stripe", ThreadLocalRandom.current().nextInt(count))
+        .executeUpdate();
+    stripesChanged(productId);
+  }
+
+  // Stripe count of a product, splitting its stock into stripes on first use
+  private int stripesOf(Long productId) {
+    Integer count = stripeCounts.get(productId);
+    if (count != null) {
+      return count;
+    }
+    // Committed on its own, so the stripes are there for everybody before the first hold is taken
+    int created = QuarkusTransaction.requiringNew().call(() -> spread(productId));
+    stripeCounts.put(productId, created);
+    return created;
+  }
+
+  private int spread(Long productId) {
+    // The product lock makes concurrent first reservations wait for one of them to spread
+    Product product = em().find(Product.class, productId, LockModeType.PESSIMISTIC_WRITE);
+    if (product == null) {
+      throw new IllegalArgumentException("Product with id of " + productId + " does not exist.");
+    }
+    int existing = countStripes(productId);
+    if (existing > 0) {
+      return existing;
+    }
+    for (int i = 0; i < stripes; i++) {
+      int share = Math.floorDiv(product.stock, stripes)
+          + (i < Math.floorMod(product.stock, stripes) ? 1 : 0);
+      em().persist(new ProductStockStripe(productId, i, share));
+    }
+    return stripes;
+  }
+
+  private int existingStripes(Long productId) {
+    Integer count = stripeCounts.get(productId);
+    if (count != null) {
+      return count;
+    }
+    int counted = countStripes(productId);
+    if (counted > 0) {
+      stripeCounts.put(productId, counted);
+    }
+    return counted;
+  }
+
+  private int countStripes(Long productId) {
+    return em().createQuery("SELECT COUNT(s) FROM ProductStockStripe s"
+            + " WHERE s.productId = :productId", Long.class)
+        .setParameter("productId", productId)
+        .getSingleResult()
+        .intValue();
+  }
+
+  // Queues the product for the next roll-up once the transaction has committed
+  private void stripesChanged(Long productId) {
+    @SuppressWarnings("unchecked")
+    Set<Long> products = (Set<Long>) transactions.getResource(ProductStock.class);
+    if (products == null) {
+      products = new HashSet<>();
+      transactions.putResource(ProductStock.class, products);
+      Set<Long> committed = products;
+      transactions.registerInterposedSynchronization(new Synchronization() {
+        @Override
+        public void beforeCompletion() {}
+
+        @Override
+        public void afterCompletion(int status) {
+          if (status == Status.STATUS_COMMITTED) {
+            changed.addAll(committed);
+          }
+        }
+      });
+    }
+    products.add(productId);
+  }
+
+  private EntityManager em() {
+    return productRepository.getEntityManager();
+  }
+}
@@ -0,0 +1,34 @@
+package com.fulfilment.application.monolith.products;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * One share of the reservable stock of a product. A product's stock is split over several
+ * stripes so that concurrent reservations decrement different rows instead of queueing on one.
+ */
+@Entity
+@Table(name = "product_stock_stripe",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"productId", "stripe"}))
+public class ProductStockStripe {
+
+  @Id @GeneratedValue public Long id;
+
+  public Long productId;
+
+  // 0 .. stripes - 1
+  public int stripe;
+
+  public int available;
+
+  public ProductStockStripe() {}
+
+  ProductStockStripe(Long productId, int stripe, int available) {
+    this.productId = productId;
+    this.stripe = stripe;
+    this.available = available;
+  }
+}
@@ -0,0 +1,70 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Stand-in for the legacy store system that adds latency and failures to every call, for load
+ * testing the outbox and {@link LegacyStoreSyncGuard} locally.
+ *
+ * <p>Only built when {@code legacy.store.fault-injection.enabled=true} is set at build time (e.g.
+ * {@code mvn quarkus:dev -Dlegacy.store.fault-injection.enabled=true}). Each call then waits
+ * {@code latency} plus a random share of {@code latency-jitter} and fails with probability
+ * {@code failure-rate}; calls that pass go on to the configured transport.
+ */
+@ApplicationScoped
+@Alternative
+@Priority(1)
+@IfBuildProperty(name = "legacy.store.fault-injection.enabled", stringValue = "true")
+public class FaultInjectingLegacyStoreGateway extends LegacyStoreManagerGateway {
+
+  @ConfigProperty(name = "legacy.store.fault-injection.failure-rate", defaultValue = "0.2")
+  double failureRate;
+
+  @ConfigProperty(name = "legacy.store.fault-injection.latency", defaultValue = "50ms")
+  Duration latency;
+
+  @ConfigProperty(name = "legacy.store.fault-injection.latency-jitter", defaultValue = "200ms")
+  Duration latencyJitter;
+
+  @Override
+  public void createStoreOnLegacySystem(Store store) {
+    injectFaults();
+    super.createStoreOnLegacySystem(store);
+  }
+
+  @Override
+  public void createStoresOnLegacySystem(List<Store> stores) {
+    injectFaults();
+    super.createStoresOnLegacySystem(stores);
+  }
+
+  @Override
+  public void updateStoreOnLegacySystem(Store store) {
+    injectFaults();
+    super.updateStoreOnLegacySystem(store);
+  }
+
+  private void injectFaults() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long delayMillis = latency.toMillis();
+    if (!latencyJitter.isZero()) {
+      delayMillis += random.nextLong(latencyJitter.toMillis() + 1);
+    }
+    try {
+      Thread.sleep(delayMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while emulating the legacy store system", e);
+    }
+    if (random.nextDouble() < failureRate) {
+      throw new IllegalStateException("Injected legacy store failure");
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package com.fulfilment.application.monolith.stores;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * {@link LegacyStoreReader} that plays the legacy side of the journal transport: it reads the
+ * {@link StoreJournal} written by {@link LegacyStoreManagerGateway} and returns the latest state
+ * the journal holds for each of the requested stores.
+ *
+ * <p>A single lookup reads the journal from its start and keeps only the requested stores. A
+ * {@link #openScan() scan} instead reads it once per window of ids: a pass keeps the latest state
+ * of the {@code legacy.store.journal.scan-window} lowest ids from the first one asked for, and
+ * serves every later lookup within them, so a reconciliation run reads the journal once per
+ * window rather than once per chunk, and memory stays bounded by one window.
+ *
+ * <p>Only meaningful with {@code legacy.store.transport=journal}; the temp-file transport leaves
+ * nothing to read back, so {@link #checkReadable()} refuses rather than report every store as
+ * missing.
+ */
+@ApplicationScoped
+public class JournalLegacyStoreReader implements LegacyStoreReader {
+
+  private static final int POLL_SIZE = 10_000;
+
+  @ConfigProperty(name = "legacy.store.transport", defaultValue = "tempfile")
+  String transport;
+
+  @ConfigProperty(name = "legacy.store.journal.directory", defaultValue = "legacy-store-journal")
+  String journalDirectory;
+
+  @ConfigProperty(name = "legacy.store.journal.scan-window", defaultValue = "100000")
+  int scanWindow;
+
+  @Override
+  public void checkReadable() {
+    if (!"journal".equals(transport)) {
+      throw new IllegalStateException("Legacy store state can only be read back with"
+          + " legacy.store.transport=journal, not " + transport);
+    }
+  }
+
+  @Override
+  public Map<Long, StoreSnapshot> findByIds(Collection<Long> storeIds) {
+    checkReadable();
+    Set<Long> wanted = new HashSet<>(storeIds);
+    Map<Long, StoreSnapshot> found = new HashMap<>();
+    readJournal(record -> {
+      if (wanted.contains(record.storeId())) {
+        found.put(record.storeId(), snapshot(record));
+      }
+    });
+    return found;
+  }
+
+  @Override
+  public WindowedScan openScan() {
+    checkReadable();
+    return new WindowedScan(Math.max(scanWindow, 1));
+  }
+
+  /** Serves ascending lookups from the latest state of one window of ids, read in one pass. */
+  final class WindowedScan implements Scan {
+
+    private final int capacity;
+    private final TreeMap<Long, StoreSnapshot> window = new TreeMap<>();
+    // The window holds the latest state of every id in [from, to] the journal knows
+    private long from = Long.MAX_VALUE;
+    private long to = Long.MIN_VALUE;
+    private int passes;
+
+    WindowedScan(int capacity) {
+      this.capacity = capacity;
+    }
+
+    @Override
+    public Map<Long, StoreSnapshot> findByIds(Collection<Long> storeIds) {
+      Map<Long, StoreSnapshot> found = new HashMap<>();
+      for (Long storeId : storeIds.stream().sorted().toList()) {
+        if (storeId < from || storeId > to) {
+          fill(storeId);
+        }
+        StoreSnapshot store = window.get(storeId);
+        if (store != null) {
+          found.put(storeId, store);
+        }
+      }
+      return found;
+    }
+
+    int passes() {
+      return passes;
+    }
+
+    private void fill(long first) {
+      window.clear();
+      from = first;
+      // Lowered whenever the window overflows; ids above it are no longer collected
+      long[] limit = {Long.MAX_VALUE};
+      readJournal(record -> {
+        long storeId = record.storeId();
+        if (storeId < first || storeId > limit[0]) {
+          return;
+        }
+        window.put(storeId, snapshot(record));
+        if (window.size() > capacity) {
+          limit[0] = window.pollLastEntry().getKey() - 1;
+        }
+      });
+      to = limit[0];
+      passes++;
+    }
+  }
+
+  private void readJournal(Consumer<StoreJournalRecord> consumer) {
+    try (StoreJournalReader reader = new StoreJournalReader(Path.of(journalDirectory))) {
+      while (reader.poll(POLL_SIZE, record -> {
+        if (record.storeId() != null) {
+          consumer.accept(record);
+        }
+      }) > 0) {
+        // keep reading until caught up with the writer
+      }
+    }
+  }
+
+  private static StoreSnapshot snapshot(StoreJournalRecord record) {
+    return new StoreSnapshot(record.storeId(), record.name(), record.quantityProductsInStock());
+  }
+}
@@ -0,0 +1,152 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker for calls to the legacy store system.
+ *
+ * <p>The outcomes of the last {@code windowSize} calls are kept in a ring. Once at least
+ * {@code minimumCalls} are recorded, the circuit opens when the share of failed calls or the share
+ * of calls slower than {@code slowCallThreshold} reaches its threshold. While open, calls are
+ * refused; after {@code openDuration} the circuit half-opens and lets {@code halfOpenCalls} probe
+ * calls through. It closes when all of them succeed in time, and opens again on the first one that
+ * does not.
+ */
+final class LegacyStoreCircuitBreaker {
+
+  enum State { CLOSED, OPEN, HALF_OPEN }
+
+  private static final byte FAILED = 1;
+  private static final byte SLOW = 2;
+
+  private final int minimumCalls;
+  private final double failureRateThreshold;
+  private final double slowCallRateThreshold;
+  private final long slowCallNanos;
+  private final long openNanos;
+  private final int halfOpenCalls;
+  private final LongSupplier clock;
+  private final Consumer<State> onTransition;
+
+  private final byte[] outcomes;
+  private int recorded;
+  private int next;
+  private int failures;
+  private int slowCalls;
+
+  private State state = State.CLOSED;
+  private long openedAt;
+  private int halfOpenPermits;
+  private int halfOpenSucceeded;
+
+  LegacyStoreCircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+      double slowCallRateThreshold, Duration slowCallThreshold, Duration openDuration,
+      int halfOpenCalls, LongSupplier clock, Consumer<State> onTransition) {
+    if (windowSize < 1 || minimumCalls < 1 || halfOpenCalls < 1) {
+      throw new IllegalArgumentException("Circuit breaker sizes must be positive");
+    }
+    this.outcomes = new byte[windowSize];
+    this.minimumCalls = Math.min(minimumCalls, windowSize);
+    this.failureRateThreshold = failureRateThreshold;
+    this.slowCallRateThreshold = slowCallRateThreshold;
+    this.slowCallNanos = slowCallThreshold.toNanos();
+    this.openNanos = openDuration.toNanos();
+    this.halfOpenCalls = halfOpenCalls;
+    this.clock = clock;
+    this.onTransition = onTransition;
+  }
+
+  synchronized State state() {
+    return state;
+  }
+
+  /** Whether a call would currently be refused, without claiming a half-open probe. */
+  synchronized boolean isRefusing() {
+    return switch (state) {
+      case CLOSED -> false;
+      case OPEN -> clock.getAsLong() - openedAt < openNanos;
+      case HALF_OPEN -> halfOpenPermits >= halfOpenCalls;
+    };
+  }
+
+  /**
+   * Claims permission for one call; every granted call must end in {@link #onResult} or
+   * {@link #release}.
+   */
+  synchronized boolean tryAcquire() {
+    if (state == State.OPEN) {
+      if (clock.getAsLong() - openedAt < openNanos) {
+        return false;
+      }
+      transition(State.HALF_OPEN);
+    }
+    if (state == State.HALF_OPEN) {
+      if (halfOpenPermits >= halfOpenCalls) {
+        return false;
+      }
+      halfOpenPermits++;
+    }
+    return true;
+  }
+
+  /** Gives back a permission for a call that was not made. */
+  synchronized void release() {
+    if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+      halfOpenPermits--;
+    }
+  }
+
+  synchronized void onResult(boolean failed, long durationNanos) {
+    boolean slow = durationNanos >= slowCallNanos;
+    switch (state) {
+      case HALF_OPEN -> {
+        if (failed || slow) {
+          transition(State.OPEN);
+        } else if (++halfOpenSucceeded >= halfOpenCalls) {
+          transition(State.CLOSED);
+        }
+      }
+      case CLOSED -> {
+        record((byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0)));
+        if (recorded >= minimumCalls
+            && (failures * 100.0 / recorded >= failureRateThreshold
+                || slowCalls * 100.0 / recorded >= slowCallRateThreshold)) {
+          transition(State.OPEN);
+        }
+      }
+      case OPEN -> {
+        // A call that started before the circuit opened; its outcome no longer matters
+      }
+    }
+  }
+
+  private void record(byte outcome) {
+    if (recorded == outcomes.length) {
+      byte evicted = outcomes[next];
+      failures -= evicted & FAILED;
+      slowCalls -= (evicted & SLOW) >> 1;
+    } else {
+      recorded++;
+    }
+    outcomes[next] = outcome;
+    failures += outcome & FAILED;
+    slowCalls += (outcome & SLOW) >> 1;
+    next = (next + 1) % outcomes.length;
+  }
+
+  private void transition(State to) {
+    state = to;
+    recorded = 0;
+    next = 0;
+    failures = 0;
+    slowCalls = 0;
+    halfOpenPermits = 0;
+    halfOpenSucceeded = 0;
+    if (to == State.OPEN) {
+      openedAt = clock.getAsLong();
+    }
+    onTransition.accept(to);
+  }
+}
@@ -1,51 +1,121 @@
 package com.fulfilment.application.monolith.stores;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
+/**
+ * Sends store changes to the legacy store manager.
+ *
+ * <p>With {@code legacy.store.transport=journal} changes are appended to a {@link StoreJournal}
+ * that the legacy side tails; they become durable on {@link #flush()}, which callers invoke once
+ * per batch. The default {@code tempfile} transport emulates the legacy system with one temporary
+ * file per change.
+ */
 @ApplicationScoped
 public class LegacyStoreManagerGateway {
 
+  private static final Logger LOGGER =
+      Logger.getLogger(LegacyStoreManagerGateway.class.getName());
+
+  @ConfigProperty(name = "legacy.store.transport", defaultValue = "tempfile")
+  String transport;
+
+  @ConfigProperty(name = "legacy.store.journal.directory", defaultValue = "legacy-store-journal")
+  String journalDirectory;
+
+  @ConfigProperty(name = "legacy.store.journal.segment-size", defaultValue = "67108864")
+  int journalSegmentSize;
+
+  private StoreJournal journal;
+
   public void createStoreOnLegacySystem(Store store) {
+    if (usesJournal()) {
+      journal().append(StoreJournalRecord.of(StoreJournalRecord.Type.CREATED, store));
+      return;
+    }
     // just to emulate as this would send this to a legacy system, let's write a temp file with the
-    writeToFile(store);
+    writeToFile(store.name, List.of(store));
+  }
+
+  /** Announces several new stores in one legacy call, e.g. a chunk of a bulk import. */
+  public void createStoresOnLegacySystem(List<Store> stores) {
+    if (usesJournal()) {
+      for (Store store : stores) {
+        journal().append(StoreJournalRecord.of(StoreJournalRecord.Type.CREATED, store));
+      }
+      return;
+    }
+    writeToFile("stores", stores);
   }
 
   public void updateStoreOnLegacySystem(Store store) {
+    if (usesJournal()) {
+      journal().append(StoreJournalRecord.of(StoreJournalRecord.Type.UPDATED, store));
+      return;
+    }
     // just to emulate as this would send this to a legacy system, let's write a temp file with the
-    writeToFile(store);
+    writeToFile(store.name, List.of(store));
   }
 
-  private void writeToFile(Store store) {
-    try {
-      // Step 1: Create a temporary file
-      Path tempFile;
+  /** Makes the changes sent so far durable; a no-op for transports that are durable per call. */
+  public void flush() {
+    if (usesJournal()) {
+      journal().flush();
+    }
+  }
+
+  @PreDestroy
+  synchronized void close() {
+    if (journal != null) {
+      journal.close();
+      journal = null;
+    }
+  }
+
+  private boolean usesJournal() {
+    return "journal".equals(transport);
+  }
 
-      tempFile = Files.createTempFile(store.name, ".txt");
+  private synchronized StoreJournal journal() {
+    if (journal == null) {
+      journal = new StoreJournal(Path.of(journalDirectory), journalSegmentSize);
+    }
+    return journal;
+  }
 
-      System.out.println("Temporary file created at: " + tempFile.toString());
+  private void writeToFile(String prefix, List<Store> stores) {
+    try {
+      // Step 1: Create a temporary file
+      Path tempFile = Files.createTempFile(prefix, ".txt");
+      LOGGER.debugf("Temporary file created at: %s", tempFile);
 
       // Step 2: Write data to the temporary file
-      String content =
-          "Store created. [ name ="
-              + store.name
-              + " ] [ items on stock ="
-              + store.quantityProductsInStock
-              + "]";
-      Files.write(tempFile, content.getBytes());
-      System.out.println("Data written to temporary file.");
+      StringBuilder content = new StringBuilder();
+      for (Store store : stores) {
+        content.append("Store created. [ name =")
+            .append(store.name)
+            .append(" ] [ items on stock =")
+            .append(store.quantityProductsInStock)
+            .append("]\n");
+      }
+      Files.write(tempFile, content.toString().getBytes());
 
       // Step 3: Optionally, read the data back to verify
       String readContent = new String(Files.readAllBytes(tempFile));
-      System.out.println("Data read from temporary file: " + readContent);
+      LOGGER.debugf("Data read from temporary file: %s", readContent);
 
       // Step 4: Delete the temporary file when done
       Files.delete(tempFile);
-      System.out.println("Temporary file deleted.");
-
-    } catch (Exception e) {
-      e.printStackTrace();
+    } catch (IOException e) {
+      // Surface the failure so the outbox retries the sync and the circuit breaker sees it
+      throw new UncheckedIOException("Legacy store sync failed for " + prefix, e);
     }
   }
 }
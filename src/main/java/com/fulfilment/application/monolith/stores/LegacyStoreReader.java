@@ -0,0 +1,38 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.util.Collection;
+import java.util.Map;
+
+/** Read access to the stores as the legacy system currently holds them. */
+public interface LegacyStoreReader {
+
+  /** The legacy state of the given stores; stores the legacy system does not know are absent. */
+  Map<Long, StoreSnapshot> findByIds(Collection<Long> storeIds);
+
+  /**
+   * Opens a scan for looking up stores in ascending id order, as a reconciliation run does: every
+   * call asks for ids above those of the call before. Readers that can serve such a pass cheaper
+   * than with independent lookups override this; by default each call is a {@link #findByIds}.
+   */
+  default Scan openScan() {
+    return this::findByIds;
+  }
+
+  /**
+   * Checks that the legacy state can be read in the current configuration.
+   *
+   * @throws IllegalStateException if it cannot
+   */
+  default void checkReadable() {}
+
+  /** Lookups of one pass over the stores in ascending id order; see {@link #openScan()}. */
+  @FunctionalInterface
+  interface Scan extends AutoCloseable {
+
+    /** As {@link LegacyStoreReader#findByIds}; the ids are above those of the previous call. */
+    Map<Long, StoreSnapshot> findByIds(Collection<Long> storeIds);
+
+    @Override
+    default void close() {}
+  }
+}
@@ -0,0 +1,199 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Resilience layer in front of {@link LegacyStoreManagerGateway}: every legacy call passes a
+ * circuit breaker and a bulkhead.
+ *
+ * <ul>
+ *   <li>The bulkhead allows {@code legacy.store.sync.max-concurrent} calls at a time. Further
+ *       callers queue for up to {@code legacy.store.sync.max-wait}, at most
+ *       {@code legacy.store.sync.max-queued} of them.
+ *   <li>Overflow policy: a caller that finds the queue full, or waits too long, is rejected at
+ *       once with {@link LegacyStoreSyncRejectedException} rather than blocking. The change it
+ *       carries stays in the outbox and is sent on a later drain, so nothing is lost.
+ *   <li>The circuit breaker ({@code legacy.store.circuit.*}, see {@link LegacyStoreCircuitBreaker})
+ *       opens on a high error rate or a high share of slow calls and rejects calls while open.
+ * </ul>
+ *
+ * <p>Metrics: {@code legacy.sync.calls} by result, {@code legacy.sync.latency}, one
+ * {@code legacy.sync.circuit.state} gauge per state (1 for the current one), transitions in
+ * {@code legacy.sync.circuit.transitions} and the bulkhead's {@code legacy.sync.bulkhead.active}
+ * and {@code legacy.sync.bulkhead.queued}.
+ */
+@ApplicationScoped
+public class LegacyStoreSyncGuard {
+
+  private static final Logger LOGGER = Logger.getLogger(LegacyStoreSyncGuard.class.getName());
+
+  private final LegacyStoreManagerGateway gateway;
+  private final int maxConcurrent;
+  private final int maxQueued;
+  private final Duration maxWait;
+  private final LegacyStoreCircuitBreaker circuitBreaker;
+
+  private final Semaphore permits;
+  private final AtomicInteger queued = new AtomicInteger();
+
+  private final Counter succeeded;
+  private final Counter failed;
+  private final Counter rejectedOpen;
+  private final Counter rejectedFull;
+  private final Timer latency;
+  private final Map<LegacyStoreCircuitBreaker.State, Counter> transitions =
+      new EnumMap<>(LegacyStoreCircuitBreaker.State.class);
+
+  public LegacyStoreSyncGuard(
+      LegacyStoreManagerGateway gateway,
+      MeterRegistry meterRegistry,
+      @ConfigProperty(name = "legacy.store.sync.max-concurrent", defaultValue = "4")
+          int maxConcurrent,
+      @ConfigProperty(name = "legacy.store.sync.max-queued", defaultValue = "16") int maxQueued,
+      @ConfigProperty(name = "legacy.store.sync.max-wait", defaultValue = "1s") Duration maxWait,
+      @ConfigProperty(name = "legacy.store.circuit.window-size", defaultValue = "20")
+          int windowSize,
+      @ConfigProperty(name = "legacy.store.circuit.minimum-calls", defaultValue = "10")
+          int minimumCalls,
+      @ConfigProperty(name = "legacy.store.circuit.failure-rate-threshold", defaultValue = "50")
+          double failureRateThreshold,
+      @ConfigProperty(name = "legacy.store.circuit.slow-call-threshold", defaultValue = "2s")
+          Duration slowCallThreshold,
+      @ConfigProperty(name = "legacy.store.circuit.slow-call-rate-threshold", defaultValue = "50")
+          double slowCallRateThreshold,
+      @ConfigProperty(name = "legacy.store.circuit.open-duration", defaultValue = "30s")
+          Duration openDuration,
+      @ConfigProperty(name = "legacy.store.circuit.half-open-calls", defaultValue = "3")
+          int halfOpenCalls) {
+    this.gateway = gateway;
+    this.maxConcurrent = maxConcurrent;
+    this.maxQueued = maxQueued;
+    this.maxWait = maxWait;
+    this.permits = new Semaphore(maxConcurrent, true);
+    this.circuitBreaker = new LegacyStoreCircuitBreaker(windowSize, minimumCalls,
+        failureRateThreshold, slowCallRateThreshold, slowCallThreshold, openDuration,
+        halfOpenCalls, System::nanoTime, this::onTransition);
+
+    this.succeeded = Counter.builder("legacy.sync.calls").tag("result", "success")
+        .register(meterRegistry);
+    this.failed = Counter.builder("legacy.sync.calls").tag("result", "failure")
+        .register(meterRegistry);
+    this.rejectedOpen = Counter.builder("legacy.sync.calls").tag("result", "rejected-open")
+        .description("Calls refused because the circuit was open")
+        .register(meterRegistry);
+    this.rejectedFull = Counter.builder("legacy.sync.calls").tag("result", "rejected-full")
+        .description("Calls refused because the bulkhead and its queue were full")
+        .register(meterRegistry);
+    this.latency = Timer.builder("legacy.sync.latency")
+        .description("Latency of calls to the legacy store system")
+        .register(meterRegistry);
+    for (LegacyStoreCircuitBreaker.State state : LegacyStoreCircuitBreaker.State.values()) {
+      String name = state.name().toLowerCase(Locale.ROOT).replace('_', '-');
+      Gauge.builder("legacy.sync.circuit.state", circuitBreaker,
+              breaker -> breaker.state() == state ? 1 : 0)
+          .tag("state", name)
+          .register(meterRegistry);
+      transitions.put(state, Counter.builder("legacy.sync.circuit.transitions").tag("to", name)
+          .register(meterRegistry));
+    }
+    Gauge.builder("legacy.sync.bulkhead.active", permits,
+        p -> maxConcurrent - p.availablePermits()).register(meterRegistry);
+    Gauge.builder("legacy.sync.bulkhead.queued", queued, AtomicInteger::get)
+        .register(meterRegistry);
+  }
+
+  public void createStore(Store store) {
+    call(() -> gateway.createStoreOnLegacySystem(store));
+  }
+
+  public void createStores(List<Store> stores) {
+    call(() -> gateway.createStoresOnLegacySystem(stores));
+  }
+
+  public void updateStore(Store store) {
+    call(() -> gateway.updateStoreOnLegacySystem(store));
+  }
+
+  /**
+   * Makes the calls so far durable. A local write rather than a call to the legacy system, so it
+   * bypasses the circuit breaker and the bulkhead: it is neither rejected nor counted in the
+   * breaker's window or the call metrics.
+   */
+  public void flush() {
+    gateway.flush();
+  }
+
+  /** Whether calls are currently refused by an open circuit, so there is no point trying. */
+  public boolean isOpen() {
+    return circuitBreaker.isRefusing();
+  }
+
+  LegacyStoreCircuitBreaker.State circuitState() {
+    return circuitBreaker.state();
+  }
+
+  private void call(Runnable legacyCall) {
+    if (!circuitBreaker.tryAcquire()) {
+      rejectedOpen.increment();
+      throw new LegacyStoreSyncRejectedException("Legacy store circuit is open");
+    }
+    if (!enterBulkhead()) {
+      circuitBreaker.release();
+      rejectedFull.increment();
+      throw new LegacyStoreSyncRejectedException("Legacy store bulkhead is full");
+    }
+    long start = System.nanoTime();
+    boolean callFailed = true;
+    try {
+      legacyCall.run();
+      callFailed = false;
+    } finally {
+      long duration = System.nanoTime() - start;
+      permits.release();
+      circuitBreaker.onResult(callFailed, duration);
+      latency.record(duration, TimeUnit.NANOSECONDS);
+      (callFailed ? failed : succeeded).increment();
+    }
+  }
+
+  private boolean enterBulkhead() {
+    if (permits.tryAcquire()) {
+      return true;
+    }
+    if (queued.incrementAndGet() > maxQueued) {
+      queued.decrementAndGet();
+      return false;
+    }
+    try {
+      return permits.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } finally {
+      queued.decrementAndGet();
+    }
+  }
+
+  private void onTransition(LegacyStoreCircuitBreaker.State state) {
+    transitions.get(state).increment();
+    if (state == LegacyStoreCircuitBreaker.State.OPEN) {
+      LOGGER.warn("Legacy store circuit opened; pending syncs wait in the outbox");
+    } else {
+      LOGGER.infof("Legacy store circuit is now %s", state);
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.stores;
+
+/**
+ * A legacy store call that was not attempted because the circuit is open or the bulkhead and its
+ * queue are full. The change stays pending and is sent later.
+ */
+public class LegacyStoreSyncRejectedException extends IllegalStateException {
+
+  public LegacyStoreSyncRejectedException(String message) {
+    super(message);
+  }
+}
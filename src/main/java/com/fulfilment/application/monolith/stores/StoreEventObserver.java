@@ -2,25 +2,32 @@ package com.fulfilment.application.monolith.stores;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Observes;
-import jakarta.enterprise.event.TransactionPhase;
 import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
 import org.jboss.logging.Logger;
 
+/**
+ * Records store changes for the legacy system. Runs inside the transaction that fired the event,
+ * so the outbox entry commits or rolls back with the store change; the legacy call itself happens
+ * later on the outbox dispatcher thread or its {@link StoreSyncLanes}, off the request path.
+ */
 @ApplicationScoped
 public class StoreEventObserver {
 
   private static final Logger LOGGER = Logger.getLogger(StoreEventObserver.class.getName());
 
   @Inject
-  LegacyStoreManagerGateway legacyStoreManagerGateway;
+  StoreOutbox storeOutbox;
 
-  public void onStoreCreated(@Observes(during = TransactionPhase.AFTER_SUCCESS) StoreCreatedEvent event) {
-    LOGGER.info("Store created event received, syncing with legacy system: " + event.getStore().id);
-    legacyStoreManagerGateway.createStoreOnLegacySystem(event.getStore());
+  @Transactional
+  public void onStoreCreated(@Observes StoreCreatedEvent event) {
+    LOGGER.debug("Store created event received, queueing legacy sync: " + event.getStore().id);
+    storeOutbox.enqueue(StoreOutboxEntry.Type.CREATED, event.getStore());
   }
 
-  public void onStoreUpdated(@Observes(during = TransactionPhase.AFTER_SUCCESS) StoreUpdatedEvent event) {
-    LOGGER.info("Store updated event received, syncing with legacy system: " + event.getStore().id);
-    legacyStoreManagerGateway.updateStoreOnLegacySystem(event.getStore());
+  @Transactional
+  public void onStoreUpdated(@Observes StoreUpdatedEvent event) {
+    LOGGER.debug("Store updated event received, queueing legacy sync: " + event.getStore().id);
+    storeOutbox.enqueue(StoreOutboxEntry.Type.UPDATED, event.getStore());
   }
 }
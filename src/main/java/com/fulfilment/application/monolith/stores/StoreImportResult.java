@@ -0,0 +1,13 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk store import. {@code errors} lists failed lines up to the importer's
+ * reporting limit; {@code errorsTruncated} tells whether more lines failed than are listed.
+ */
+public record StoreImportResult(
+    long imported, long failed, List<LineError> errors, boolean errorsTruncated) {
+
+  public record LineError(long line, String error) {}
+}
@@ -0,0 +1,293 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.common.BoundedInputStream;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Bulk import of stores from NDJSON or CSV.
+ *
+ * <p>The input is read line by line and inserted in chunks of {@code store.import.chunk-size}
+ * rows, each chunk in its own transaction with batched inserts. Instead of a
+ * {@link StoreCreatedEvent} per row, a chunk records its stores in the outbox together, and the
+ * dispatcher announces them to the legacy system in one call. Only one chunk and at most
+ * {@code store.import.max-reported-errors} line errors are held in memory, whatever the input
+ * size.
+ *
+ * <p>A body is read up to {@code store.import.max-body-size} bytes; past that the import stops
+ * with 413, keeping the chunks it already committed.
+ *
+ * <p>A line that cannot be parsed or whose store name is missing, too long or already taken is
+ * reported and skipped; the other lines are imported. If a chunk still fails to commit (e.g. a
+ * name inserted concurrently), it is retried row by row to find the failing lines.
+ */
+@ApplicationScoped
+public class StoreImporter {
+
+  private static final Logger LOGGER = Logger.getLogger(StoreImporter.class.getName());
+
+  static final int MAX_NAME_LENGTH = 40;
+
+  public enum Format { NDJSON, CSV }
+
+  private final StoreOutbox storeOutbox;
+  private final ObjectMapper objectMapper;
+  private final int chunkSize;
+  private final int maxReportedErrors;
+  private final long maxBodySize;
+
+  private record Row(long line, String name, int quantityProductsInStock) {
+    Store toStore() {
+      Store store = new Store(name);
+      store.quantityProductsInStock = quantityProductsInStock;
+      return store;
+    }
+  }
+
+  // Running totals of an import; keeps only the first maxReportedErrors errors
+  private final class Report {
+    long imported;
+    long failed;
+    final List<StoreImportResult.LineError> errors = new ArrayList<>();
+
+    void fail(long line, String error) {
+      failed++;
+      if (errors.size() < maxReportedErrors) {
+        errors.add(new StoreImportResult.LineError(line, error));
+      }
+    }
+
+    StoreImportResult toResult() {
+      return new StoreImportResult(imported, failed, errors, failed > errors.size());
+    }
+  }
+
+  public StoreImporter(
+      StoreOutbox storeOutbox,
+      ObjectMapper objectMapper,
+      @ConfigProperty(name = "store.import.chunk-size", defaultValue = "100") int chunkSize,
+      @ConfigProperty(name = "store.import.max-reported-errors", defaultValue = "1000")
+          int maxReportedErrors,
+      @ConfigProperty(name = "store.import.max-body-size", defaultValue = "1024M")
+          MemorySize maxBodySize) {
+    this.storeOutbox = storeOutbox;
+    this.objectMapper = objectMapper;
+    this.chunkSize = chunkSize;
+    this.maxReportedErrors = maxReportedErrors;
+    this.maxBodySize = maxBodySize.asLongValue();
+  }
+
+  /**
+   * Imports a UTF-8 request body of the given declared length, -1 if unknown.
+   *
+   * @throws jakarta.ws.rs.WebApplicationException with 413 if the body is, or turns out to be,
+   *     larger than {@code store.import.max-body-size}
+   */
+  public StoreImportResult importStores(InputStream body, long length, Format format)
+      throws IOException {
+    BoundedInputStream.checkDeclaredLength(length, maxBodySize);
+    return importStores(new InputStreamReader(
+        new BoundedInputStream(body, maxBodySize), StandardCharsets.UTF_8), format);
+  }
+
+  public StoreImportResult importStores(Reader input, Format format) throws IOException {
+    BufferedReader reader = new BufferedReader(input);
+    Report report = new Report();
+    List<Row> chunk = new ArrayList<>(chunkSize);
+    long lineNumber = 0;
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (line.isBlank() || (format == Format.CSV && lineNumber == 1 && isCsvHeader(line))) {
+        continue;
+      }
+      try {
+        chunk.add(format == Format.NDJSON
+            ? parseJson(lineNumber, line)
+            : parseCsv(lineNumber, line));
+      } catch (IllegalArgumentException e) {
+        report.fail(lineNumber, e.getMessage());
+      }
+      if (chunk.size() == chunkSize) {
+        importChunk(chunk, report);
+        chunk.clear();
+      }
+    }
+    if (!chunk.isEmpty()) {
+      importChunk(chunk, report);
+    }
+    LOGGER.infof("Store import finished: %d imported, %d failed", report.imported, report.failed);
+    return report.toResult();
+  }
+
+  private void importChunk(List<Row> chunk, Report report) {
+    List<StoreImportResult.LineError> rejected = new ArrayList<>();
+    try {
+      int imported = QuarkusTransaction.requiringNew().call(() -> {
+        rejected.clear();
+        Set<String> taken = existingNames(chunk);
+        List<Store> stores = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+          if (!taken.add(row.name())) {
+            rejected.add(new StoreImportResult.LineError(row.line(), nameTaken(row.name())));
+            continue;
+          }
+          Store store = row.toStore();
+          store.persist();
+          stores.add(store);
+        }
+        storeOutbox.enqueueAll(StoreOutboxEntry.Type.CREATED, stores);
+        return stores.size();
+      });
+      report.imported += imported;
+      rejected.forEach(error -> report.fail(error.line(), error.error()));
+    } catch (RuntimeException e) {
+      LOGGER.debugf("Store import chunk failed, retrying row by row: %s", e.getMessage());
+      for (Row row : chunk) {
+        importRow(row, report);
+      }
+    }
+  }
+
+  private void importRow(Row row, Report report) {
+    try {
+      boolean imported = QuarkusTransaction.requiringNew().call(() -> {
+        if (!existingNames(List.of(row)).isEmpty()) {
+          return false;
+        }
+        Store store = row.toStore();
+        store.persist();
+        storeOutbox.enqueue(StoreOutboxEntry.Type.CREATED, store);
+        return true;
+      });
+      if (imported) {
+        report.imported++;
+      } else {
+        report.fail(row.line(), nameTaken(row.name()));
+      }
+    } catch (RuntimeException e) {
+      report.fail(row.line(), "Store could not be saved: " + rootCause(e).getMessage());
+    }
+  }
+
+  private static Set<String> existingNames(List<Row> rows) {
+    List<String> names = rows.stream().map(Row::name).toList();
+    return new HashSet<>(Store.getEntityManager()
+        .createQuery("SELECT s.name FROM Store s WHERE s.name IN :names", String.class)
+        .setParameter("names", names)
+        .getResultList());
+  }
+
+  private Row parseJson(long line, String text) {
+    JsonNode node;
+    try {
+      node = objectMapper.readTree(text);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+    }
+    if (node == null || !node.isObject()) {
+      throw new IllegalArgumentException("Expected a JSON object");
+    }
+    if (node.hasNonNull("id")) {
+      throw new IllegalArgumentException("Id was invalidly set on request.");
+    }
+    JsonNode name = node.get("name");
+    JsonNode quantity = node.get("quantityProductsInStock");
+    if (quantity != null && !quantity.isNull() && !quantity.canConvertToInt()) {
+      throw new IllegalArgumentException("quantityProductsInStock must be an integer");
+    }
+    return row(line, name != null && name.isTextual() ? name.asText() : null,
+        quantity != null ? quantity.asInt() : 0);
+  }
+
+  // name,quantityProductsInStock with optional RFC 4180 quoting
+  private static Row parseCsv(long line, String text) {
+    List<String> fields = splitCsv(text);
+    if (fields.size() > 2) {
+      throw new IllegalArgumentException("Expected name,quantityProductsInStock");
+    }
+    int quantity = 0;
+    if (fields.size() == 2 && !fields.get(1).isBlank()) {
+      try {
+        quantity = Integer.parseInt(fields.get(1).trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("quantityProductsInStock must be an integer");
+      }
+    }
+    return row(line, fields.get(0), quantity);
+  }
+
+  private static Row row(long line, String name, int quantity) {
+    if (name == null || name.isBlank()) {
+      throw new IllegalArgumentException("Store Name was not set on request.");
+    }
+    if (name.length() > MAX_NAME_LENGTH) {
+      throw new IllegalArgumentException(
+          "Store name is longer than " + MAX_NAME_LENGTH + " characters");
+    }
+    return new Row(line, name, quantity);
+  }
+
+  static List<String> splitCsv(String text) {
+    List<String> fields = new ArrayList<>(2);
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          field.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    if (quoted) {
+      throw new IllegalArgumentException("Unterminated quoted field");
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+
+  private static boolean isCsvHeader(String line) {
+    return splitCsv(line).get(0).trim().equalsIgnoreCase("name");
+  }
+
+  private static String nameTaken(String name) {
+    return "A store named '" + name + "' already exists";
+  }
+
+  private static Throwable rootCause(Throwable e) {
+    Throwable cause = e;
+    while (cause.getCause() != null && cause.getCause() != cause) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+}
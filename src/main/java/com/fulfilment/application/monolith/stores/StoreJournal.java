@@ -0,0 +1,205 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of store syncs, the file transport of {@link LegacyStoreManagerGateway}.
+ *
+ * <p>The journal is a directory of segment files named after the offset of their first byte
+ * ({@code 00000000000000000000.journal}, ...). Each segment is preallocated to the segment size
+ * and filled with records of the form {@code [length:int][crc32c:int][payload]}; the unwritten
+ * rest of a segment reads as length 0. When a record does not fit, the writer moves on to a new
+ * segment.
+ *
+ * <p>{@link #append} only writes to the page cache. {@link #flush} forces everything appended
+ * since the previous flush to disk with one fsync, so a caller that appends a batch and then
+ * flushes pays one disk sync per batch (group commit). Readers follow the journal with
+ * {@link StoreJournalReader}.
+ *
+ * <p>Thread-safe, but a directory must have only one writing {@code StoreJournal} at a time.
+ */
+public class StoreJournal implements Closeable {
+
+  static final String SUFFIX = ".journal";
+  static final int HEADER_SIZE = 8;
+
+  private final Path directory;
+  private final int segmentSize;
+
+  private FileChannel segment;
+  private long segmentBase;
+  private int position;
+  private boolean dirty;
+
+  public StoreJournal(Path directory, int segmentSize) {
+    if (segmentSize < HEADER_SIZE + 64) {
+      throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+    }
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    try {
+      Files.createDirectories(directory);
+      List<Long> bases = segmentBases(directory);
+      if (bases.isEmpty()) {
+        openSegment(0);
+      } else {
+        recover(bases.get(bases.size() - 1));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot open store journal in " + directory, e);
+    }
+  }
+
+  /** Appends a record; it is durable once {@link #flush} returns. */
+  public synchronized void append(StoreJournalRecord record) {
+    byte[] payload = record.encode();
+    int size = HEADER_SIZE + payload.length;
+    if (size > segmentSize) {
+      throw new IllegalArgumentException("Record larger than a journal segment");
+    }
+    try {
+      if (position + size > segmentSize) {
+        rotate();
+      }
+      CRC32C crc = new CRC32C();
+      crc.update(payload);
+      ByteBuffer buffer = ByteBuffer.allocate(size);
+      buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+      while (buffer.hasRemaining()) {
+        segment.write(buffer, position + buffer.position());
+      }
+      position += size;
+      dirty = true;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot append to store journal in " + directory, e);
+    }
+  }
+
+  /** Forces all appended records to disk. */
+  public synchronized void flush() {
+    if (!dirty) {
+      return;
+    }
+    try {
+      segment.force(false);
+      dirty = false;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot sync store journal in " + directory, e);
+    }
+  }
+
+  /** Offset of the next record, counted over all segments. */
+  public synchronized long endOffset() {
+    return segmentBase + position;
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      flush();
+      segment.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void rotate() throws IOException {
+    segment.force(false);
+    segment.close();
+    // The base of the next segment is the logical end of this one, so offsets stay contiguous
+    openSegment(segmentBase + position);
+  }
+
+  private void openSegment(long base) throws IOException {
+    Path file = segmentPath(directory, base);
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.setLength(segmentSize);
+    }
+    segment = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    segmentBase = base;
+    position = 0;
+    dirty = true;
+  }
+
+  // Finds the end of the last segment: the first record that is missing or fails its checksum
+  private void recover(long base) throws IOException {
+    segment = FileChannel.open(segmentPath(directory, base), StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    segmentBase = base;
+    position = 0;
+    while (true) {
+      int length = validRecordLength(segment, position, segmentSize);
+      if (length < 0) {
+        break;
+      }
+      position += HEADER_SIZE + length;
+    }
+    // Zero out a torn record so that readers never mistake its remains for data
+    ByteBuffer zeros = ByteBuffer.allocate(Math.min(HEADER_SIZE, segmentSize - position));
+    segment.write(zeros, position);
+    segment.force(false);
+  }
+
+  /**
+   * Length of the payload of the complete, checksum-valid record at {@code offset}, or -1 if
+   * there is none (end of data, torn write or end of segment).
+   */
+  static int validRecordLength(FileChannel channel, long offset, int segmentSize)
+      throws IOException {
+    if (offset + HEADER_SIZE > segmentSize) {
+      return -1;
+    }
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    readFully(channel, header, offset);
+    header.flip();
+    int length = header.getInt();
+    int crc = header.getInt();
+    if (length <= 0 || offset + HEADER_SIZE + length > segmentSize) {
+      return -1;
+    }
+    ByteBuffer payload = ByteBuffer.allocate(length);
+    readFully(channel, payload, offset + HEADER_SIZE);
+    CRC32C check = new CRC32C();
+    check.update(payload.array());
+    return (int) check.getValue() == crc ? length : -1;
+  }
+
+  static void readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, offset + buffer.position()) < 0) {
+        break;
+      }
+    }
+  }
+
+  static Path segmentPath(Path directory, long base) {
+    return directory.resolve(String.format("%020d", base) + SUFFIX);
+  }
+
+  static List<Long> segmentBases(Path directory) throws IOException {
+    List<Long> bases = new ArrayList<>();
+    if (!Files.isDirectory(directory)) {
+      return bases;
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      files.map(f -> f.getFileName().toString())
+          .filter(name -> name.endsWith(SUFFIX))
+          .map(name -> Long.parseLong(name.substring(0, name.length() - SUFFIX.length())))
+          .sorted()
+          .forEach(bases::add);
+    }
+    return bases;
+  }
+}
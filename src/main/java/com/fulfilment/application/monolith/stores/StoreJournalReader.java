@@ -0,0 +1,122 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Tails a {@link StoreJournal}, the way the legacy side consumes it.
+ *
+ * <p>A reader starts at a journal offset (0 for the beginning, or an offset saved from
+ * {@link #offset()}) and returns the records written since, moving on to the next segment once
+ * the current one has no more records and a newer segment exists. A record that is only partially
+ * written, or not yet written at all, is simply not returned until it is complete.
+ */
+public class StoreJournalReader implements Closeable {
+
+  private final Path directory;
+
+  private FileChannel segment;
+  private long segmentBase = -1;
+  private int segmentSize;
+  private int position;
+
+  public StoreJournalReader(Path directory) {
+    this(directory, 0);
+  }
+
+  public StoreJournalReader(Path directory, long offset) {
+    this.directory = directory;
+    try {
+      List<Long> bases = StoreJournal.segmentBases(directory);
+      long base = 0;
+      for (Long candidate : bases) {
+        if (candidate <= offset) {
+          base = candidate;
+        }
+      }
+      if (bases.contains(base)) {
+        open(base);
+        position = (int) (offset - base);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot open store journal in " + directory, e);
+    }
+  }
+
+  /**
+   * Hands the next available records, at most {@code max}, to {@code consumer} and returns how
+   * many there were; 0 means the reader has caught up with the writer.
+   */
+  public int poll(int max, Consumer<StoreJournalRecord> consumer) {
+    try {
+      int read = 0;
+      while (read < max) {
+        if (segment == null && !openNext()) {
+          return read;
+        }
+        int length = StoreJournal.validRecordLength(segment, position, segmentSize);
+        if (length < 0) {
+          if (!openNext()) {
+            return read;
+          }
+          continue;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        StoreJournal.readFully(segment, payload, position + StoreJournal.HEADER_SIZE);
+        payload.flip();
+        consumer.accept(StoreJournalRecord.decode(payload));
+        position += StoreJournal.HEADER_SIZE + length;
+        read++;
+      }
+      return read;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read store journal in " + directory, e);
+    }
+  }
+
+  /** Journal offset of the next record this reader will return. */
+  public long offset() {
+    return segmentBase < 0 ? 0 : segmentBase + position;
+  }
+
+  @Override
+  public void close() {
+    try {
+      if (segment != null) {
+        segment.close();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // A segment is finished only when the writer has started a later one
+  private boolean openNext() throws IOException {
+    for (Long base : StoreJournal.segmentBases(directory)) {
+      if (base > segmentBase) {
+        if (segment != null) {
+          segment.close();
+        }
+        open(base);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void open(long base) throws IOException {
+    Path file = StoreJournal.segmentPath(directory, base);
+    segment = FileChannel.open(file, StandardOpenOption.READ);
+    segmentBase = base;
+    segmentSize = (int) Files.size(file);
+    position = 0;
+  }
+}
@@ -0,0 +1,50 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One store sync as written to the {@link StoreJournal}.
+ *
+ * <p>Binary layout of the payload: type (1 byte), store id (8 bytes, -1 when unknown), quantity in
+ * stock (4 bytes), name length (2 bytes, -1 for no name) and the UTF-8 name.
+ */
+public record StoreJournalRecord(Type type, Long storeId, String name, int quantityProductsInStock) {
+
+  public enum Type { CREATED, UPDATED }
+
+  static StoreJournalRecord of(Type type, Store store) {
+    return new StoreJournalRecord(type, store.id, store.name, store.quantityProductsInStock);
+  }
+
+  byte[] encode() {
+    byte[] nameBytes = name != null ? name.getBytes(StandardCharsets.UTF_8) : null;
+    int nameLength = nameBytes != null ? nameBytes.length : 0;
+    if (nameLength > Short.MAX_VALUE) {
+      throw new IllegalArgumentException("Store name too long for the journal");
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + 4 + 2 + nameLength);
+    buffer.put((byte) type.ordinal());
+    buffer.putLong(storeId != null ? storeId : -1);
+    buffer.putInt(quantityProductsInStock);
+    buffer.putShort((short) (nameBytes != null ? nameLength : -1));
+    if (nameBytes != null) {
+      buffer.put(nameBytes);
+    }
+    return buffer.array();
+  }
+
+  static StoreJournalRecord decode(ByteBuffer payload) {
+    Type type = Type.values()[payload.get()];
+    long storeId = payload.getLong();
+    int quantity = payload.getInt();
+    short nameLength = payload.getShort();
+    String name = null;
+    if (nameLength >= 0) {
+      byte[] nameBytes = new byte[nameLength];
+      payload.get(nameBytes);
+      name = new String(nameBytes, StandardCharsets.UTF_8);
+    }
+    return new StoreJournalRecord(type, storeId >= 0 ? storeId : null, name, quantity);
+  }
+}
@@ -0,0 +1,66 @@
+package com.fulfilment.application.monolith.stores;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+import java.time.Duration;
+import java.util.List;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Write side of the store outbox: records a store change for the legacy system in the caller's
+ * transaction, so the change and its pending sync commit or roll back together. Delivery happens
+ * later, in the background ({@link StoreOutboxDispatcher}).
+ */
+@ApplicationScoped
+public class StoreOutbox {
+
+  private final StoreOutboxDispatcher dispatcher;
+  private final TransactionSynchronizationRegistry transactions;
+  private final Duration coalesceWindow;
+
+  public StoreOutbox(StoreOutboxDispatcher dispatcher,
+      TransactionSynchronizationRegistry transactions,
+      @ConfigProperty(name = "store.outbox.coalesce-window", defaultValue = "500ms")
+          Duration coalesceWindow) {
+    this.dispatcher = dispatcher;
+    this.transactions = transactions;
+    this.coalesceWindow = coalesceWindow;
+  }
+
+  @Transactional(TxType.MANDATORY)
+  public void enqueue(StoreOutboxEntry.Type type, Store store) {
+    enqueueAll(type, List.of(store));
+  }
+
+  /** Records the same kind of change for several stores, waking the dispatcher once. */
+  @Transactional(TxType.MANDATORY)
+  public void enqueueAll(StoreOutboxEntry.Type type, List<Store> stores) {
+    if (stores.isEmpty()) {
+      return;
+    }
+    // Updates wait out the coalescing window, so later updates of the same store can replace them
+    Duration delay = type == StoreOutboxEntry.Type.UPDATED ? coalesceWindow : Duration.ZERO;
+    for (Store store : stores) {
+      StoreOutboxEntry entry = StoreOutboxEntry.of(type, store);
+      entry.nextAttemptAt = entry.createdAt.plus(delay);
+      entry.persist();
+    }
+
+    // Deliver when due instead of waiting for the next poll
+    transactions.registerInterposedSynchronization(new Synchronization() {
+      @Override
+      public void beforeCompletion() {}
+
+      @Override
+      public void afterCompletion(int status) {
+        if (status == Status.STATUS_COMMITTED) {
+          dispatcher.wakeUpAfter(delay);
+        }
+      }
+    });
+  }
+}
@@ -0,0 +1,351 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.LockMode;
+import org.hibernate.jpa.HibernateHints;
+import org.jboss.logging.Logger;
+
+/**
+ * Drains the store outbox into {@link LegacyStoreManagerGateway} on a background thread, through
+ * the circuit breaker and bulkhead of {@link LegacyStoreSyncGuard}.
+ *
+ * <p>Delivery is at least once: an entry is deleted in the same transaction that delivered it, so
+ * a crash between the legacy call and the commit sends it again. A failed delivery stays in the
+ * outbox and is retried with exponential backoff ({@code store.outbox.backoff-initial} doubling up
+ * to {@code store.outbox.backoff-max}). Entries of one store are delivered in the order they were
+ * written: while an older entry of a store is waiting for a retry, its newer entries wait too.
+ *
+ * <p>Updates are coalesced: of several pending entries of one store, only the newest snapshot is
+ * sent. The new stores of a batch are announced in a single legacy call. Update entries are held
+ * back for {@code store.outbox.coalesce-window}; when the oldest pending entry of a store falls
+ * due, its newer entries are sent with it, so a burst of changes to one store within the window
+ * collapses into a single legacy call.
+ *
+ * <p>With {@link StoreSyncLanes} enabled, the updates of a batch are sent in parallel, each store
+ * on its own ordered lane; otherwise they are sent one after the other on the dispatcher thread.
+ * Either way a store has at most one delivery per batch, and a batch commits before the next one
+ * starts, so the changes of one store reach the legacy system in order.
+ *
+ * <p>Deliveries of a batch are made durable together with one {@link
+ * LegacyStoreManagerGateway#flush()} before the batch commits.
+ *
+ * <p>While the circuit is open nothing is drained. A call the guard rejects ends the batch without
+ * counting as a failed attempt: the rest of the batch stays due and goes out on a later drain.
+ *
+ * <p>Draining starts right after a transaction that wrote to the outbox commits, and otherwise
+ * every {@code store.outbox.poll-interval}, which also picks up entries left behind by a crash.
+ * Rows are claimed with {@code FOR UPDATE SKIP LOCKED} where the database supports it, so several
+ * nodes can drain the same outbox.
+ */
+@ApplicationScoped
+public class StoreOutboxDispatcher {
+
+  private static final Logger LOGGER = Logger.getLogger(StoreOutboxDispatcher.class.getName());
+
+  private final LegacyStoreSyncGuard legacySync;
+  private final StoreSyncLanes lanes;
+  private final int batchSize;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+
+  private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "store-outbox-dispatcher");
+    thread.setDaemon(true);
+    return thread;
+  });
+  // Set while a drain is queued but has not started reading yet; further wake-ups are redundant
+  private final AtomicBoolean drainPending = new AtomicBoolean();
+  private volatile boolean running = true;
+
+  private final Counter delivered;
+  private final Counter failed;
+  private final Counter coalesced;
+
+  // The pending entries of one store, oldest first, sent as one legacy call
+  private static final class Delivery {
+    final List<StoreOutboxEntry> entries = new ArrayList<>();
+
+    Store snapshot() {
+      return entries.get(entries.size() - 1).toStore();
+    }
+  }
+
+  // What a batch got done; paused once the guard refuses a call
+  private static final class Progress {
+    int removed;
+    boolean paused;
+  }
+
+  public StoreOutboxDispatcher(
+      LegacyStoreSyncGuard legacySync,
+      StoreSyncLanes lanes,
+      MeterRegistry meterRegistry,
+      @ConfigProperty(name = "store.outbox.batch-size", defaultValue = "100") int batchSize,
+      @ConfigProperty(name = "store.outbox.backoff-initial", defaultValue = "1s")
+          Duration initialBackoff,
+      @ConfigProperty(name = "store.outbox.backoff-max", defaultValue = "5m") Duration maxBackoff) {
+    this.legacySync = legacySync;
+    this.lanes = lanes;
+    this.batchSize = batchSize;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+
+    this.delivered = Counter.builder("store.outbox.deliveries").tag("result", "delivered")
+        .register(meterRegistry);
+    this.failed = Counter.builder("store.outbox.deliveries").tag("result", "failed")
+        .register(meterRegistry);
+    this.coalesced = Counter.builder("store.outbox.deliveries").tag("result", "coalesced")
+        .description("Entries dropped because a later entry of the same store superseded them")
+        .register(meterRegistry);
+  }
+
+  /** Schedules a drain of the outbox unless one is already waiting to start. */
+  public void wakeUp() {
+    if (running && drainPending.compareAndSet(false, true)) {
+      executor.execute(this::drain);
+    }
+  }
+
+  /** Schedules a drain once {@code delay} has passed, e.g. when a coalescing window closes. */
+  public void wakeUpAfter(Duration delay) {
+    if (delay.isZero() || delay.isNegative()) {
+      wakeUp();
+    } else if (running) {
+      executor.schedule(this::wakeUp, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Scheduled(
+      every = "${store.outbox.poll-interval:1s}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void poll() {
+    wakeUp();
+  }
+
+  void shutdown(@Observes ShutdownEvent event) throws InterruptedException {
+    // Entries not delivered by now stay in the outbox for the next start
+    running = false;
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  private void drain() {
+    drainPending.set(false);
+    try {
+      while (running) {
+        int[] result = QuarkusTransaction.requiringNew().call(this::drainBatch);
+        int fetched = result[0];
+        int removed = result[1];
+        if (fetched < batchSize || removed == 0) {
+          return;
+        }
+      }
+    } catch (RuntimeException e) {
+      LOGGER.error("Draining the store outbox failed; retrying on the next poll", e);
+    }
+  }
+
+  // Returns {entries fetched, entries delivered or coalesced}
+  private int[] drainBatch() {
+    if (legacySync.isOpen()) {
+      return new int[] {0, 0};
+    }
+    List<StoreOutboxEntry> due = StoreOutboxEntry
+        .<StoreOutboxEntry>find("nextAttemptAt <= ?1 ORDER BY id", LocalDateTime.now())
+        .withHint(HibernateHints.HINT_NATIVE_LOCK_MODE, LockMode.UPGRADE_SKIPLOCKED)
+        .page(0, batchSize)
+        .list();
+    if (due.isEmpty()) {
+      return new int[] {0, 0};
+    }
+    List<StoreOutboxEntry> pending = withNewerEntriesOfTheirStores(due);
+
+    Set<Long> blocked = storesWaitingOnOlderEntries(pending);
+
+    // Only the newest state of a store matters to the legacy system: all pending entries of a
+    // store become one delivery of its newest snapshot, sent as a create if the oldest one is
+    List<Delivery> creates = new ArrayList<>();
+    List<Delivery> updates = new ArrayList<>();
+    Map<Long, Delivery> byStore = new HashMap<>();
+    for (StoreOutboxEntry entry : pending) {
+      if (entry.storeId != null && blocked.contains(entry.storeId)) {
+        continue;
+      }
+      Delivery delivery = entry.storeId != null ? byStore.get(entry.storeId) : null;
+      if (delivery == null) {
+        delivery = new Delivery();
+        (entry.type == StoreOutboxEntry.Type.CREATED ? creates : updates).add(delivery);
+        if (entry.storeId != null) {
+          byStore.put(entry.storeId, delivery);
+        }
+      }
+      delivery.entries.add(entry);
+    }
+
+    // New stores go out in one legacy call per batch, e.g. one per chunk of a bulk import
+    Progress progress = new Progress();
+    if (creates.size() == 1) {
+      send(() -> legacySync.createStore(creates.get(0).snapshot()), creates, progress);
+    } else if (!creates.isEmpty()) {
+      List<Store> stores = creates.stream().map(Delivery::snapshot).toList();
+      send(() -> legacySync.createStores(stores), creates, progress);
+    }
+    if (lanes.enabled()) {
+      // Stores in parallel on their lanes; the batch commits once every call has returned
+      Map<Delivery, CompletableFuture<RuntimeException>> calls = new LinkedHashMap<>();
+      for (Delivery update : updates) {
+        Store store = update.snapshot();
+        calls.put(update, submit(store.id, () -> attempt(() -> legacySync.updateStore(store))));
+      }
+      calls.forEach((update, call) -> settle(call.join(), List.of(update), progress));
+    } else {
+      for (Delivery update : updates) {
+        if (progress.paused) {
+          break;
+        }
+        Store store = update.snapshot();
+        settle(attempt(() -> legacySync.updateStore(store)), List.of(update), progress);
+      }
+    }
+    if (progress.removed > 0) {
+      // One durable write for the whole batch; if it fails, the batch rolls back and is resent
+      legacySync.flush();
+    }
+    return new int[] {due.size(), progress.removed};
+  }
+
+  private void send(Runnable legacyCall, List<Delivery> deliveries, Progress progress) {
+    settle(attempt(legacyCall), deliveries, progress);
+  }
+
+  // Makes the legacy call; returns its failure, or null. Touches no entities, so it can run on a
+  // lane thread outside the batch's transaction
+  private static RuntimeException attempt(Runnable legacyCall) {
+    try {
+      legacyCall.run();
+      return null;
+    } catch (RuntimeException e) {
+      return e;
+    }
+  }
+
+  private CompletableFuture<RuntimeException> submit(Long storeId,
+      Supplier<RuntimeException> call) {
+    try {
+      return lanes.submit(storeId, call);
+    } catch (LegacyStoreSyncRejectedException e) {
+      return CompletableFuture.completedFuture(e);
+    }
+  }
+
+  // Applies the outcome of a legacy call to the entries it delivered, on the batch's thread
+  private void settle(RuntimeException error, List<Delivery> deliveries, Progress progress) {
+    if (error instanceof LegacyStoreSyncRejectedException) {
+      // Not an attempt: the rest of the batch waits for the next drain
+      LOGGER.debugf("Legacy sync paused: %s", error.getMessage());
+      progress.paused = true;
+      return;
+    }
+    if (error != null) {
+      for (Delivery delivery : deliveries) {
+        // The oldest entry backs off; the newer ones wait behind it and are coalesced with it
+        scheduleRetry(delivery.entries.get(0), error);
+        failed.increment();
+      }
+      return;
+    }
+    for (Delivery delivery : deliveries) {
+      delivery.entries.forEach(StoreOutboxEntry::delete);
+      delivered.increment();
+      coalesced.increment(delivery.entries.size() - 1);
+      progress.removed += delivery.entries.size();
+    }
+  }
+
+  // The coalescing window of a store runs from its oldest pending entry: once that one is due, the
+  // store's newer entries go out with it, even though their own windows are still open. Only
+  // entries newer than the whole batch are added, so a store's entries are never skipped over.
+  private static List<StoreOutboxEntry> withNewerEntriesOfTheirStores(List<StoreOutboxEntry> due) {
+    Set<Long> storeIds = new HashSet<>();
+    for (StoreOutboxEntry entry : due) {
+      if (entry.storeId != null) {
+        storeIds.add(entry.storeId);
+      }
+    }
+    if (storeIds.isEmpty()) {
+      return due;
+    }
+    List<StoreOutboxEntry> newer = StoreOutboxEntry
+        .<StoreOutboxEntry>find("storeId IN ?1 AND id > ?2 ORDER BY id",
+            storeIds, due.get(due.size() - 1).id)
+        .withHint(HibernateHints.HINT_NATIVE_LOCK_MODE, LockMode.UPGRADE_SKIPLOCKED)
+        .list();
+    if (newer.isEmpty()) {
+      return due;
+    }
+    List<StoreOutboxEntry> pending = new ArrayList<>(due);
+    pending.addAll(newer);
+    return pending;
+  }
+
+  // A store is blocked when its oldest pending entry is not the first of its entries in this batch,
+  // i.e. an older one is backing off or claimed elsewhere
+  private Set<Long> storesWaitingOnOlderEntries(List<StoreOutboxEntry> due) {
+    Map<Long, Long> firstInBatch = new HashMap<>();
+    for (StoreOutboxEntry entry : due) {
+      if (entry.storeId != null) {
+        firstInBatch.putIfAbsent(entry.storeId, entry.id);
+      }
+    }
+    Set<Long> blocked = new HashSet<>();
+    if (firstInBatch.isEmpty()) {
+      return blocked;
+    }
+    List<Object[]> oldest = StoreOutboxEntry.getEntityManager()
+        .createQuery("SELECT e.storeId, MIN(e.id) FROM StoreOutboxEntry e"
+            + " WHERE e.storeId IN :storeIds GROUP BY e.storeId", Object[].class)
+        .setParameter("storeIds", firstInBatch.keySet())
+        .getResultList();
+    for (Object[] row : oldest) {
+      Long storeId = (Long) row[0];
+      if (!Objects.equals(row[1], firstInBatch.get(storeId))) {
+        blocked.add(storeId);
+      }
+    }
+    return blocked;
+  }
+
+  private void scheduleRetry(StoreOutboxEntry entry, RuntimeException error) {
+    entry.attempts++;
+    long backoffMillis = initialBackoff.toMillis() << Math.min(entry.attempts - 1, 20);
+    entry.nextAttemptAt = LocalDateTime.now()
+        .plus(Duration.ofMillis(Math.min(backoffMillis, maxBackoff.toMillis())));
+    String message = String.valueOf(error.getMessage());
+    entry.lastError = message.length() > 500 ? message.substring(0, 500) : message;
+    LOGGER.warnf("Legacy sync of store %s failed (attempt %d), retrying at %s: %s",
+        entry.storeId, entry.attempts, entry.nextAttemptAt, message);
+  }
+}
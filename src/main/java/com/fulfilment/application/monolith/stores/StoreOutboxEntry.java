@@ -0,0 +1,66 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * A store change waiting to be sent to the legacy system. Written in the transaction that changes
+ * the {@link Store}, deleted once {@link StoreOutboxDispatcher} has delivered it. Holds a snapshot
+ * of the store, so delivery sends the state as of that change even if the store changed or was
+ * deleted since.
+ */
+@Entity
+@Table(name = "store_outbox", indexes = @Index(name = "idx_store_outbox_due", columnList = "nextAttemptAt, id"))
+public class StoreOutboxEntry extends PanacheEntity {
+
+  public enum Type { CREATED, UPDATED }
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  public Type type;
+
+  public Long storeId;
+
+  @Column(length = 40)
+  public String name;
+
+  public int quantityProductsInStock;
+
+  public LocalDateTime createdAt;
+
+  // Not delivered before this time; pushed back after every failed attempt
+  @Column(nullable = false)
+  public LocalDateTime nextAttemptAt;
+
+  public int attempts;
+
+  @Column(length = 500)
+  public String lastError;
+
+  public StoreOutboxEntry() {}
+
+  static StoreOutboxEntry of(Type type, Store store) {
+    StoreOutboxEntry entry = new StoreOutboxEntry();
+    entry.type = type;
+    entry.storeId = store.id;
+    entry.name = store.name;
+    entry.quantityProductsInStock = store.quantityProductsInStock;
+    entry.createdAt = LocalDateTime.now();
+    entry.nextAttemptAt = entry.createdAt;
+    return entry;
+  }
+
+  /** The store as it was when this entry was written; not attached to any session. */
+  Store toStore() {
+    Store store = new Store(name);
+    store.id = storeId;
+    store.quantityProductsInStock = quantityProductsInStock;
+    return store;
+  }
+}
@@ -0,0 +1,295 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Compares the {@link Store} table with what the legacy system holds ({@link LegacyStoreReader})
+ * and sends stores that drifted, or that the legacy system lacks, through the outbox again.
+ *
+ * <p>Stores are read in id order, {@code store.reconcile.chunk-size} at a time with a keyset
+ * query, and looked up in one {@link LegacyStoreReader#openScan() scan} of the legacy state in
+ * that same order; chunks are then compared on {@code store.reconcile.parallelism} worker
+ * threads. At most two chunks per worker are in memory at a time, so the table can be of any
+ * size. Stores with a sync still in the outbox are skipped, and a re-sent store carries its state
+ * as of the resend, not of the scan, so a concurrent change is never overwritten with an older
+ * one.
+ *
+ * <p>Runs on demand, in the caller's thread ({@link #reconcile()}) or in the background
+ * ({@link #start()}), and on {@code store.reconcile.cron}, off by default. Progress is logged
+ * every {@code store.reconcile.progress-interval} and available from {@link #progress()} while
+ * running; counts go to {@code store.reconcile.stores}.
+ */
+@ApplicationScoped
+public class StoreReconciler {
+
+  private static final Logger LOGGER = Logger.getLogger(StoreReconciler.class.getName());
+
+  private final LegacyStoreReader legacyStoreReader;
+  private final StoreOutbox storeOutbox;
+  private final int chunkSize;
+  private final int parallelism;
+  private final Duration progressInterval;
+
+  private final AtomicBoolean running = new AtomicBoolean();
+  private volatile Run current;
+  private final ExecutorService background = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "store-reconcile");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final Counter inSyncCounter;
+  private final Counter driftedCounter;
+  private final Counter missingCounter;
+  private final Counter pendingCounter;
+
+  // Counts of one reconciliation run, updated by the worker threads
+  private static final class Run {
+    final long startedAt = System.nanoTime();
+    final AtomicLong scanned = new AtomicLong();
+    final AtomicLong inSync = new AtomicLong();
+    final AtomicLong drifted = new AtomicLong();
+    final AtomicLong missing = new AtomicLong();
+    final AtomicLong pending = new AtomicLong();
+    volatile boolean finished;
+    volatile String failure;
+
+    StoreReconciliationReport report() {
+      long elapsedNanos = System.nanoTime() - startedAt;
+      long count = scanned.get();
+      double perSecond = elapsedNanos > 0 ? count * 1e9 / elapsedNanos : 0;
+      return new StoreReconciliationReport(count, inSync.get(), drifted.get(), missing.get(),
+          pending.get(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos), perSecond, finished,
+          failure);
+    }
+  }
+
+  public StoreReconciler(
+      LegacyStoreReader legacyStoreReader,
+      StoreOutbox storeOutbox,
+      MeterRegistry meterRegistry,
+      @ConfigProperty(name = "store.reconcile.chunk-size", defaultValue = "1000") int chunkSize,
+      @ConfigProperty(name = "store.reconcile.parallelism", defaultValue = "4") int parallelism,
+      @ConfigProperty(name = "store.reconcile.progress-interval", defaultValue = "10s")
+          Duration progressInterval) {
+    this.legacyStoreReader = legacyStoreReader;
+    this.storeOutbox = storeOutbox;
+    this.chunkSize = chunkSize;
+    this.parallelism = Math.max(parallelism, 1);
+    this.progressInterval = progressInterval;
+
+    this.inSyncCounter = Counter.builder("store.reconcile.stores").tag("result", "in-sync")
+        .register(meterRegistry);
+    this.driftedCounter = Counter.builder("store.reconcile.stores").tag("result", "drifted")
+        .register(meterRegistry);
+    this.missingCounter = Counter.builder("store.reconcile.stores").tag("result", "missing")
+        .register(meterRegistry);
+    this.pendingCounter = Counter.builder("store.reconcile.stores").tag("result", "pending")
+        .register(meterRegistry);
+  }
+
+  @Scheduled(cron = "${store.reconcile.cron:off}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void scheduledReconcile() {
+    reconcile();
+  }
+
+  void onStop(@Observes ShutdownEvent event) {
+    background.shutdownNow();
+  }
+
+  public boolean isRunning() {
+    return running.get();
+  }
+
+  /** Progress of the running reconciliation, or the outcome of the last one; null if none ran. */
+  public StoreReconciliationReport progress() {
+    Run run = current;
+    return run != null ? run.report() : null;
+  }
+
+  /** Runs a full reconciliation and returns its outcome. */
+  public StoreReconciliationReport reconcile() {
+    return execute(begin());
+  }
+
+  /**
+   * Starts a full reconciliation in the background and returns its report as of the start; its
+   * progress and outcome are then available from {@link #progress()}.
+   *
+   * @throws IllegalStateException if a reconciliation is already running, or the legacy state
+   *     cannot be read
+   */
+  public StoreReconciliationReport start() {
+    Run run = begin();
+    try {
+      background.execute(() -> {
+        try {
+          execute(run);
+        } catch (RuntimeException e) {
+          LOGGER.error("Store reconciliation failed", e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      running.set(false);
+      throw new IllegalStateException("Store reconciliation is shutting down", e);
+    }
+    return run.report();
+  }
+
+  private Run begin() {
+    legacyStoreReader.checkReadable();
+    if (!running.compareAndSet(false, true)) {
+      throw new IllegalStateException("A store reconciliation is already running");
+    }
+    Run run = new Run();
+    current = run;
+    return run;
+  }
+
+  private StoreReconciliationReport execute(Run run) {
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService workers = Executors.newFixedThreadPool(parallelism, r -> {
+      Thread thread = new Thread(r, "store-reconcile-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    Semaphore inFlight = new Semaphore(parallelism * 2);
+    AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    long nextLog = System.nanoTime() + progressInterval.toNanos();
+    try (LegacyStoreReader.Scan legacyScan = legacyStoreReader.openScan()) {
+      long after = Long.MIN_VALUE;
+      while (failure.get() == null) {
+        List<StoreSnapshot> chunk = readChunk(after);
+        if (chunk.isEmpty()) {
+          break;
+        }
+        after = chunk.get(chunk.size() - 1).id();
+        Map<Long, StoreSnapshot> legacy =
+            legacyScan.findByIds(chunk.stream().map(StoreSnapshot::id).toList());
+        inFlight.acquire();
+        workers.execute(() -> {
+          try {
+            compare(chunk, legacy, run);
+          } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+          } finally {
+            inFlight.release();
+          }
+        });
+        if (System.nanoTime() - nextLog >= 0) {
+          log("Store reconciliation in progress", run.report());
+          nextLog = System.nanoTime() + progressInterval.toNanos();
+        }
+      }
+      workers.shutdown();
+      workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failure.compareAndSet(null, new IllegalStateException("Store reconciliation interrupted", e));
+    } finally {
+      workers.shutdownNow();
+      running.set(false);
+    }
+    if (failure.get() != null) {
+      run.failure = String.valueOf(failure.get().getMessage());
+      log("Store reconciliation failed", run.report());
+      throw failure.get();
+    }
+    run.finished = true;
+    StoreReconciliationReport report = run.report();
+    log("Store reconciliation finished", report);
+    return report;
+  }
+
+  private List<StoreSnapshot> readChunk(long after) {
+    return QuarkusTransaction.requiringNew().call(() -> Store.getEntityManager()
+        .createQuery("SELECT s.id, s.name, s.quantityProductsInStock FROM Store s"
+            + " WHERE s.id > :after ORDER BY s.id", Object[].class)
+        .setParameter("after", after)
+        .setMaxResults(chunkSize)
+        .getResultList()
+        .stream()
+        .map(row -> new StoreSnapshot((Long) row[0], (String) row[1], (Integer) row[2]))
+        .toList());
+  }
+
+  private void compare(List<StoreSnapshot> chunk, Map<Long, StoreSnapshot> legacy, Run run) {
+    List<Long> ids = chunk.stream().map(StoreSnapshot::id).toList();
+    Set<Long> pending = QuarkusTransaction.requiringNew().call(() -> pendingSyncs(ids));
+
+    List<Long> missing = new ArrayList<>();
+    List<Long> drifted = new ArrayList<>();
+    for (StoreSnapshot store : chunk) {
+      StoreSnapshot legacyStore = legacy.get(store.id());
+      if (pending.contains(store.id())) {
+        run.pending.incrementAndGet();
+        pendingCounter.increment();
+      } else if (legacyStore == null) {
+        missing.add(store.id());
+      } else if (!Objects.equals(store.name(), legacyStore.name())
+          || store.quantityProductsInStock() != legacyStore.quantityProductsInStock()) {
+        drifted.add(store.id());
+      } else {
+        run.inSync.incrementAndGet();
+        inSyncCounter.increment();
+      }
+    }
+    if (!missing.isEmpty() || !drifted.isEmpty()) {
+      QuarkusTransaction.requiringNew().run(() -> {
+        resend(StoreOutboxEntry.Type.CREATED, missing);
+        resend(StoreOutboxEntry.Type.UPDATED, drifted);
+      });
+    }
+    run.missing.addAndGet(missing.size());
+    missingCounter.increment(missing.size());
+    run.drifted.addAndGet(drifted.size());
+    driftedCounter.increment(drifted.size());
+    run.scanned.addAndGet(chunk.size());
+  }
+
+  // Sends the stores' current state, which may be newer than what the scan saw
+  private void resend(StoreOutboxEntry.Type type, List<Long> storeIds) {
+    if (!storeIds.isEmpty()) {
+      storeOutbox.enqueueAll(type, Store.list("id in ?1", storeIds));
+    }
+  }
+
+  private static Set<Long> pendingSyncs(List<Long> storeIds) {
+    return new HashSet<>(StoreOutboxEntry.getEntityManager()
+        .createQuery("SELECT DISTINCT e.storeId FROM StoreOutboxEntry e"
+            + " WHERE e.storeId IN :storeIds", Long.class)
+        .setParameter("storeIds", storeIds)
+        .getResultList());
+  }
+
+  private static void log(String message, StoreReconciliationReport report) {
+    LOGGER.infof("%s: %d scanned (%.0f/s), %d in sync, %d drifted, %d missing, %d pending",
+        message, report.scanned(), report.storesPerSecond(), report.inSync(), report.drifted(),
+        report.missing(), report.pending());
+  }
+}
@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.stores;
+
+/**
+ * Progress or outcome of a store reconciliation. {@code drifted} stores differ from the legacy
+ * system and {@code missing} ones are unknown to it; both were sent again. {@code pending} stores
+ * were skipped because a sync for them was still in the outbox. {@code failure} says why a run
+ * stopped before it finished, and is null otherwise.
+ */
+public record StoreReconciliationReport(
+    long scanned,
+    long inSync,
+    long drifted,
+    long missing,
+    long pending,
+    long elapsedMillis,
+    double storesPerSecond,
+    boolean finished,
+    String failure) {}
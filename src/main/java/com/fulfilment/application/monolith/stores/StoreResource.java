@@ -2,6 +2,8 @@ package com.fulfilment.application.monolith.stores;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fulfilment.application.monolith.common.NameCursor;
+import com.fulfilment.application.monolith.common.NameOrderedPages;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Event;
@@ -9,17 +11,24 @@ import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.PATCH;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
 import org.jboss.logging.Logger;
 
 @Path("store")
@@ -34,11 +43,36 @@ public class StoreResource {
   
   @Inject Event<StoreUpdatedEvent> storeUpdatedEvent;
 
+  @Inject StoreImporter storeImporter;
+
+  @Inject StoreReconciler storeReconciler;
+
+  @Inject ObjectMapper objectMapper;
+
   private static final Logger LOGGER = Logger.getLogger(StoreResource.class.getName());
 
+  /**
+   * All stores by name. With {@code cursor} (empty for the first page) this returns one page of at
+   * most {@code pageSize} stores instead, and the cursor of the next page in the {@code
+   * X-Next-Cursor} header; large store lists should be read this way or with {@code GET
+   * /store/export}.
+   */
   @GET
-  public List<Store> get() {
-    return Store.listAll(Sort.by("name"));
+  public Response get(@QueryParam("cursor") String cursor,
+      @QueryParam("pageSize") @DefaultValue("20") int pageSize) {
+    if (cursor == null) {
+      return Response.ok(Store.listAll(Sort.by("name"))).build();
+    }
+    return NameOrderedPages.pageResponse(Store.getEntityManager(), Store.class,
+        store -> new NameCursor(store.name, store.id), cursor, pageSize);
+  }
+
+  /** Streams all stores by name as NDJSON, one store per line. */
+  @GET
+  @Path("export")
+  @Produces(NameOrderedPages.APPLICATION_NDJSON)
+  public StreamingOutput export() {
+    return NameOrderedPages.export(Store.getEntityManager(), Store.class, objectMapper);
   }
 
   @GET
@@ -64,6 +98,48 @@ public class StoreResource {
     return Response.ok(store).status(201).build();
   }
 
+  /**
+   * Creates stores from an NDJSON ({@code application/x-ndjson}) or CSV ({@code text/csv},
+   * {@code name,quantityProductsInStock}) body, streamed line by line. Lines that fail are
+   * reported by line number and do not stop the import.
+   */
+  @POST
+  @Path("import")
+  @Consumes({NameOrderedPages.APPLICATION_NDJSON, "text/csv"})
+  public StoreImportResult importStores(InputStream body, @Context HttpHeaders headers)
+      throws IOException {
+    MediaType mediaType = headers.getMediaType();
+    boolean csv = mediaType != null && "csv".equalsIgnoreCase(mediaType.getSubtype());
+    StoreImporter.Format format = csv ? StoreImporter.Format.CSV : StoreImporter.Format.NDJSON;
+    return storeImporter.importStores(body, headers.getLength(), format);
+  }
+
+  /**
+   * Starts a reconciliation against the legacy system in the background and answers 202 with its
+   * report; {@code GET store/reconcile} follows it to the end.
+   */
+  @POST
+  @Path("reconcile")
+  @Consumes(MediaType.WILDCARD)
+  public Response reconcile() {
+    try {
+      return Response.accepted(storeReconciler.start()).build();
+    } catch (IllegalStateException e) {
+      throw new WebApplicationException(e.getMessage(), 409);
+    }
+  }
+
+  /** Progress of the running reconciliation, or the outcome of the last one. */
+  @GET
+  @Path("reconcile")
+  public StoreReconciliationReport reconcileProgress() {
+    StoreReconciliationReport report = storeReconciler.progress();
+    if (report == null) {
+      throw new WebApplicationException("No store reconciliation has run yet.", 404);
+    }
+    return report;
+  }
+
   @PUT
   @Path("{id}")
   @Transactional
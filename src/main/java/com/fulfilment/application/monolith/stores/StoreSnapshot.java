@@ -0,0 +1,4 @@
+package com.fulfilment.application.monolith.stores;
+
+/** The fields of a store that the legacy system holds, as seen on one side at one point in time. */
+public record StoreSnapshot(Long id, String name, int quantityProductsInStock) {}
@@ -0,0 +1,104 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Ordered lanes for legacy store calls: work for one store always runs on the same lane, one task
+ * at a time and in submission order, while different lanes run in parallel.
+ *
+ * <p>{@code store.sync.lanes} sets the number of lanes, each a single thread; 0 disables the lanes
+ * and callers run their work themselves. On shutdown the lanes stop taking work and finish what is
+ * queued for up to {@code store.sync.drain-timeout}. The number of queued and running tasks is
+ * exported as {@code store.sync.lanes.queued}.
+ */
+@ApplicationScoped
+public class StoreSyncLanes {
+
+  private static final Logger LOGGER = Logger.getLogger(StoreSyncLanes.class.getName());
+
+  private final ExecutorService[] lanes;
+  private final Duration drainTimeout;
+  private final AtomicInteger queued = new AtomicInteger();
+
+  public StoreSyncLanes(
+      MeterRegistry meterRegistry,
+      @ConfigProperty(name = "store.sync.lanes", defaultValue = "0") int laneCount,
+      @ConfigProperty(name = "store.sync.drain-timeout", defaultValue = "10s")
+          Duration drainTimeout) {
+    this.drainTimeout = drainTimeout;
+    this.lanes = new ExecutorService[Math.max(laneCount, 0)];
+    for (int i = 0; i < lanes.length; i++) {
+      String name = "store-sync-lane-" + i;
+      lanes[i] = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, name);
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    Gauge.builder("store.sync.lanes.queued", queued, AtomicInteger::get)
+        .description("Legacy store calls waiting in or running on the sync lanes")
+        .register(meterRegistry);
+  }
+
+  public boolean enabled() {
+    return lanes.length > 0;
+  }
+
+  /**
+   * Runs {@code work} on the lane of {@code storeId}, after everything submitted for that lane
+   * before. Fails with {@link LegacyStoreSyncRejectedException} once the lanes are shutting down.
+   */
+  public <T> CompletableFuture<T> submit(Long storeId, Supplier<T> work) {
+    if (!enabled()) {
+      return CompletableFuture.completedFuture(work.get());
+    }
+    ExecutorService lane = lanes[Math.floorMod(storeId != null ? storeId.hashCode() : 0,
+        lanes.length)];
+    queued.incrementAndGet();
+    try {
+      return CompletableFuture.supplyAsync(work, lane)
+          .whenComplete((result, error) -> queued.decrementAndGet());
+    } catch (RejectedExecutionException e) {
+      queued.decrementAndGet();
+      throw new LegacyStoreSyncRejectedException("Store sync lanes are shut down");
+    }
+  }
+
+  int queued() {
+    return queued.get();
+  }
+
+  void shutdown(@Observes ShutdownEvent event) throws InterruptedException {
+    shutdown();
+  }
+
+  /** Stops taking work and waits for the queued work to finish. */
+  void shutdown() throws InterruptedException {
+    for (ExecutorService lane : lanes) {
+      lane.shutdown();
+    }
+    long deadline = System.nanoTime() + drainTimeout.toNanos();
+    for (ExecutorService lane : lanes) {
+      long remaining = deadline - System.nanoTime();
+      if (!lane.awaitTermination(Math.max(remaining, 0), TimeUnit.NANOSECONDS)) {
+        LOGGER.warnf("Store sync lanes not drained within %s; %d calls abandoned", drainTimeout,
+            queued.get());
+        return;
+      }
+    }
+  }
+}
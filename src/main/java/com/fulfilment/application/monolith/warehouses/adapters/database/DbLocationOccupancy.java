@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "location_occupancy")
+public class DbLocationOccupancy {
+
+  @Id public String location;
+
+  public int warehouseCount;
+
+  public long totalCapacity;
+
+  public DbLocationOccupancy() {}
+}
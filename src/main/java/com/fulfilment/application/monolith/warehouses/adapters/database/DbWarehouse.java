@@ -5,21 +5,37 @@ import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Version;
 import java.time.LocalDateTime;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
+// The search indexes are partial (active rows only), which JPA cannot declare; they are created
+// by db/warehouse-indexes-*.sql
 @Table(name = "warehouse")
+// Entities and the businessUnitCode -> id resolution are both held in the second-level cache, so a
+// warm lookup by code needs no SQL; the regions are sized in application.properties
 @Cacheable
+@NaturalIdCache(region = DbWarehouse.NATURAL_ID_CACHE_REGION)
 public class DbWarehouse {
 
-  @Id @GeneratedValue public Long id;
+  static final String NATURAL_ID_CACHE_REGION = "warehouse-by-business-unit-code";
+
+  // Pooled allocation: one sequence call hands out ids for a whole insert batch
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "warehouse_seq")
+  @SequenceGenerator(name = "warehouse_seq", sequenceName = "warehouse_seq", allocationSize = 50)
+  public Long id;
   
   @Version
   public Long version;
 
+  @NaturalId
   @Column(unique = true, nullable = false)
   public String businessUnitCode;
 
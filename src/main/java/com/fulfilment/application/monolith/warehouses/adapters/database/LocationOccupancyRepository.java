@@ -0,0 +1,107 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationOccupancyStore;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.narayana.jta.QuarkusTransactionException;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceException;
+import org.jboss.logging.Logger;
+
+@ApplicationScoped
+public class LocationOccupancyRepository
+    implements LocationOccupancyStore, PanacheRepositoryBase<DbLocationOccupancy, String> {
+
+  private static final Logger LOGGER = Logger.getLogger(LocationOccupancyRepository.class.getName());
+
+  @Override
+  public boolean tryAllocate(Location location, int capacity) {
+    if (claim(location, capacity)) {
+      return true;
+    }
+    if (initialize(location.identifier())) {
+      return claim(location, capacity);
+    }
+    // The row exists, so the claim failed on the limits
+    return false;
+  }
+
+  @Override
+  public boolean[] tryAllocateAll(Location location, int[] capacities) {
+    DbLocationOccupancy occupancy = findById(location.identifier());
+    if (occupancy == null) {
+      initialize(location.identifier());
+      occupancy = findById(location.identifier());
+    }
+    // Locking read of the latest totals; the session may hold a copy older than earlier claims
+    getEntityManager().refresh(occupancy, LockModeType.PESSIMISTIC_WRITE);
+
+    boolean[] claimed = new boolean[capacities.length];
+    for (int i = 0; i < capacities.length; i++) {
+      if (occupancy.warehouseCount < location.maxNumberOfWarehouses()
+          && occupancy.totalCapacity + capacities[i] <= location.maxCapacity()) {
+        occupancy.warehouseCount++;
+        occupancy.totalCapacity += capacities[i];
+        claimed[i] = true;
+      }
+    }
+    return claimed;
+  }
+
+  @Override
+  public void release(String location, int capacity) {
+    if (!adjust(location, capacity)) {
+      initialize(location);
+      adjust(location, capacity);
+    }
+  }
+
+  // Single conditional UPDATE: the row lock it takes serialises concurrent claims on a location,
+  // and the limits are checked against the latest committed totals
+  private boolean claim(Location location, int capacity) {
+    return update("warehouseCount = warehouseCount + 1, totalCapacity = totalCapacity + ?1"
+            + " where location = ?2 and warehouseCount < ?3 and totalCapacity + ?1 <= ?4",
+        (long) capacity, location.identifier(), location.maxNumberOfWarehouses(),
+        (long) location.maxCapacity()) == 1;
+  }
+
+  // Clamped at zero: a warehouse written outside the use cases may never have been counted
+  private boolean adjust(String location, int capacity) {
+    return update("warehouseCount = case when warehouseCount > 0 then warehouseCount - 1 else 0 end,"
+        + " totalCapacity = case when totalCapacity > ?1 then totalCapacity - ?1 else 0 end"
+        + " where location = ?2", (long) capacity, location) == 1;
+  }
+
+  /**
+   * Creates the totals row for a location from the committed warehouses, the first time the
+   * location is used. Runs in its own transaction so a concurrent first use can win the insert
+   * without failing the caller.
+   *
+   * @return {@code true} if the row had to be created (by us or a concurrent transaction)
+   */
+  private boolean initialize(String location) {
+    if (count("location", location) > 0) {
+      return false;
+    }
+    try {
+      QuarkusTransaction.requiringNew().run(() -> {
+        Object[] totals = getEntityManager()
+            .createQuery("SELECT count(w), coalesce(sum(w.capacity), 0) FROM DbWarehouse w"
+                + " WHERE w.location = :location AND w.archivedAt IS NULL", Object[].class)
+            .setParameter("location", location)
+            .getSingleResult();
+
+        DbLocationOccupancy occupancy = new DbLocationOccupancy();
+        occupancy.location = location;
+        occupancy.warehouseCount = ((Number) totals[0]).intValue();
+        occupancy.totalCapacity = ((Number) totals[1]).longValue();
+        persist(occupancy);
+      });
+    } catch (QuarkusTransactionException | PersistenceException e) {
+      LOGGER.debug("Occupancy of location " + location + " was initialized concurrently", e);
+    }
+    return true;
+  }
+}
@@ -0,0 +1,68 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination: the sort column, the direction and the
+ * (sort value, id) of the last row returned. Tokens are only valid for the sort they were issued
+ * for.
+ */
+final class SearchCursor {
+
+  private static final String SEPARATOR = "|";
+
+  final String sortColumn;
+  final String sortDirection;
+  final String value;
+  final long id;
+
+  private SearchCursor(String sortColumn, String sortDirection, String value, long id) {
+    this.sortColumn = sortColumn;
+    this.sortDirection = sortDirection;
+    this.value = value;
+    this.id = id;
+  }
+
+  static String encode(String sortColumn, String sortDirection, DbWarehouse last) {
+    Object value = switch (sortColumn) {
+      case "capacity" -> last.capacity;
+      case "stock" -> last.stock;
+      default -> last.createdAt;
+    };
+    String raw = sortColumn + SEPARATOR + sortDirection + SEPARATOR + value + SEPARATOR + last.id;
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  static SearchCursor decode(String token, String sortColumn, String sortDirection) {
+    String[] parts;
+    try {
+      parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+          .split("\\" + SEPARATOR, -1);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Search cursor is malformed");
+    }
+    if (parts.length != 4) {
+      throw new IllegalArgumentException("Search cursor is malformed");
+    }
+    if (!parts[0].equals(sortColumn) || !parts[1].equals(sortDirection)) {
+      throw new IllegalArgumentException(
+          "Search cursor was issued for a different sort order");
+    }
+    try {
+      return new SearchCursor(parts[0], parts[1], parts[2], Long.parseLong(parts[3]));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Search cursor is malformed");
+    }
+  }
+
+  Object typedValue() {
+    try {
+      return "createdAt".equals(sortColumn) ? LocalDateTime.parse(value) : Integer.valueOf(value);
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Search cursor is malformed");
+    }
+  }
+}
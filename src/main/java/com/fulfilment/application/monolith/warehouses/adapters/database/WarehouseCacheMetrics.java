@@ -0,0 +1,51 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Publishes the hit ratio of the warehouse second-level cache regions as
+ * {@code warehouse.cache.hit_ratio}, tagged by region. Raw hit, miss and put counts are exported
+ * by Hibernate's own metrics ({@code quarkus.hibernate-orm.metrics.enabled}).
+ */
+@ApplicationScoped
+public class WarehouseCacheMetrics {
+
+  private final Statistics statistics;
+  private final MeterRegistry meterRegistry;
+
+  public WarehouseCacheMetrics(EntityManagerFactory entityManagerFactory,
+      MeterRegistry meterRegistry) {
+    this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    this.meterRegistry = meterRegistry;
+  }
+
+  void register(@Observes StartupEvent event) {
+    register("entity", DbWarehouse.class.getName());
+    register("natural-id", DbWarehouse.NATURAL_ID_CACHE_REGION);
+  }
+
+  /** Hits divided by lookups for {@code region}, or 0 before the first lookup. */
+  public double hitRatio(String region) {
+    CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+    if (stats == null) {
+      return 0;
+    }
+    long lookups = stats.getHitCount() + stats.getMissCount();
+    return lookups == 0 ? 0 : (double) stats.getHitCount() / lookups;
+  }
+
+  private void register(String kind, String region) {
+    Gauge.builder("warehouse.cache.hit_ratio", this, metrics -> metrics.hitRatio(region))
+        .tag("region", kind)
+        .description("Second-level cache hits per lookup")
+        .register(meterRegistry);
+  }
+}
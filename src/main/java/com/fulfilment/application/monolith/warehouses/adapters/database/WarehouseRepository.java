@@ -1,21 +1,124 @@
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutation;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutation.Outcome;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousePage;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSearchFacets;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSearchFacets.CapacityBucket;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
 
 @ApplicationScoped
 public class WarehouseRepository implements WarehouseStore, PanacheRepository<DbWarehouse> {
 
+  // Rows the JDBC driver buffers per round trip while scrolling an export
+  static final int EXPORT_FETCH_SIZE = 500;
+
+  // Constructor projection into the domain model. Rows never become managed entities, so reads
+  // skip dirty-checking snapshots, L2 cache puts and the entity-to-model copy.
+  private static final String PROJECTION = "SELECT new " + Warehouse.class.getName()
+      + "(w.businessUnitCode, w.location, w.capacity, w.stock, w.createdAt, w.archivedAt) ";
+
+  // Rows flushed together by createAll; matches quarkus.hibernate-orm.jdbc.statement-batch-size so
+  // that each flush is one JDBC batch
+  static final int INSERT_BATCH_SIZE = 50;
+
+  // Bound on the IN list of findExistingBusinessUnitCodes
+  static final int LOOKUP_CHUNK_SIZE = 500;
+
+  // Matches counted before searchFacets gives up on an exact total when it may estimate
+  static final int ESTIMATE_THRESHOLD = 10_000;
+
+  // The row estimate in a Postgres plan line, e.g. "Seq Scan on warehouse w  (cost=... rows=42 ..."
+  private static final Pattern PLANNED_ROWS = Pattern.compile("rows=(\\d+)");
+
+  // Observed after commit by in-memory views of the warehouses (e.g. NearestWarehouseLocator)
+  @Inject Event<WarehouseChangedEvent> changes;
+
   @Override
   public List<Warehouse> getAll() {
-    return this.list("archivedAt IS NULL").stream().map(DbWarehouse::toWarehouse).toList();
+    return readOnly(getEntityManager()
+        .createQuery(PROJECTION + "FROM DbWarehouse w WHERE w.archivedAt IS NULL", Warehouse.class))
+        .getResultList();
+  }
+
+  @Override
+  public void forEachActive(Consumer<Warehouse> action) {
+    // Constructor projection: rows never enter the persistence context, so nothing accumulates
+    // in the session while scrolling
+    try (ScrollableResults<Warehouse> rows = getEntityManager().unwrap(Session.class)
+        .createSelectionQuery(
+            PROJECTION + "FROM DbWarehouse w WHERE w.archivedAt IS NULL ORDER BY w.id",
+            Warehouse.class)
+        .setFetchSize(EXPORT_FETCH_SIZE)
+        .setCacheMode(CacheMode.IGNORE)
+        .scroll(ScrollMode.FORWARD_ONLY)) {
+      while (rows.next()) {
+        action.accept(rows.get());
+      }
+    }
   }
 
   @Override
   public void create(Warehouse warehouse) {
+    this.persist(toDbWarehouse(warehouse));
+    changes.fire(WarehouseChangedEvent.of(warehouse));
+  }
+
+  @Override
+  public void createAll(List<Warehouse> warehouses) {
+    var entityManager = getEntityManager();
+    List<DbWarehouse> pending = new ArrayList<>(INSERT_BATCH_SIZE);
+    for (Warehouse warehouse : warehouses) {
+      DbWarehouse dbWarehouse = toDbWarehouse(warehouse);
+      entityManager.persist(dbWarehouse);
+      pending.add(dbWarehouse);
+      if (pending.size() == INSERT_BATCH_SIZE) {
+        flushAndDetach(pending);
+      }
+    }
+    flushAndDetach(pending);
+    warehouses.forEach(warehouse -> changes.fire(WarehouseChangedEvent.of(warehouse)));
+  }
+
+  // Keeps the persistence context from growing with the batch; only our own inserts are detached
+  private void flushAndDetach(List<DbWarehouse> pending) {
+    if (pending.isEmpty()) {
+      return;
+    }
+    var entityManager = getEntityManager();
+    entityManager.flush();
+    pending.forEach(entityManager::detach);
+    pending.clear();
+  }
+
+  private static DbWarehouse toDbWarehouse(Warehouse warehouse) {
     DbWarehouse dbWarehouse = new DbWarehouse();
     dbWarehouse.businessUnitCode = warehouse.businessUnitCode;
     dbWarehouse.location = warehouse.location;
@@ -23,18 +126,21 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
     dbWarehouse.stock = warehouse.stock;
     dbWarehouse.createdAt = warehouse.createdAt;
     dbWarehouse.archivedAt = warehouse.archivedAt;
-
-    this.persist(dbWarehouse);
+    return dbWarehouse;
   }
 
   @Override
   public void update(Warehouse warehouse) {
-    DbWarehouse dbWarehouse = find("businessUnitCode", warehouse.businessUnitCode).firstResult();
+    DbWarehouse dbWarehouse = session().bySimpleNaturalId(DbWarehouse.class)
+        .load(warehouse.businessUnitCode);
     if (dbWarehouse != null) {
+      // May have been loaded read-only by findByBusinessUnitCode earlier in this session
+      session().setReadOnly(dbWarehouse, false);
       dbWarehouse.location = warehouse.location;
       dbWarehouse.capacity = warehouse.capacity;
       dbWarehouse.stock = warehouse.stock;
       dbWarehouse.archivedAt = warehouse.archivedAt;
+      changes.fire(WarehouseChangedEvent.of(warehouse));
     }
   }
 
@@ -43,17 +149,280 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
     throw new UnsupportedOperationException("Unimplemented method 'remove'");
   }
 
+  @Override
+  public WarehouseMutation archive(String buCode, LocalDateTime archivedAt) {
+    WarehouseMutation result = mutate(buCode, List.of("archivedAt"), archivedAt);
+    if (result.outcome() == Outcome.APPLIED) {
+      changes.fire(WarehouseChangedEvent.archived(buCode, result.previousLocation()));
+    }
+    return result;
+  }
+
+  @Override
+  public WarehouseMutation replace(Warehouse replacement) {
+    WarehouseMutation result = mutate(replacement.businessUnitCode,
+        List.of("location", "capacity", "stock"),
+        replacement.location, replacement.capacity, replacement.stock);
+    if (result.outcome() == Outcome.APPLIED) {
+      changes.fire(new WarehouseChangedEvent(replacement.businessUnitCode, replacement.location,
+          replacement.capacity, replacement.stock, true));
+    }
+    return result;
+  }
+
+  /**
+   * Sets {@code columns} to {@code values} on the active warehouse {@code buCode}, bumps its
+   * version and reads its previous location and capacity in the same statement. Native SQL,
+   * because HQL has no equivalent of RETURNING: Postgres returns the pre-update row through a
+   * locking sub-select, H2 through OLD TABLE. Only when nothing matched does a second query find
+   * out why.
+   */
+  private WarehouseMutation mutate(String buCode, List<String> columns, Object... values) {
+    int codeParameter = columns.size() + 1;
+    StringBuilder set = new StringBuilder();
+    for (int i = 0; i < columns.size(); i++) {
+      set.append(columns.get(i)).append(" = ?").append(i + 1).append(", ");
+    }
+    String sql;
+    if (isPostgres()) {
+      // The sub-select joins the table again, so the version being bumped needs its alias
+      sql = "UPDATE warehouse w SET " + set + "version = w.version + 1"
+          + " FROM (SELECT id, location, capacity FROM warehouse"
+          + " WHERE businessUnitCode = ?" + codeParameter + " AND archivedAt IS NULL FOR UPDATE)"
+          + " old WHERE w.id = old.id RETURNING old.id, old.location, old.capacity";
+    } else {
+      sql = "SELECT id, location, capacity FROM OLD TABLE (UPDATE warehouse SET " + set
+          + "version = version + 1"
+          + " WHERE businessUnitCode = ?" + codeParameter + " AND archivedAt IS NULL)";
+    }
+
+    Query query = getEntityManager().createNativeQuery(sql);
+    for (int i = 0; i < values.length; i++) {
+      query.setParameter(i + 1, values[i]);
+    }
+    query.setParameter(codeParameter, buCode);
+
+    List<?> rows = query.getResultList();
+    if (rows.isEmpty()) {
+      return WarehouseMutation.rejected(
+          count("businessUnitCode", buCode) > 0 ? Outcome.ARCHIVED : Outcome.NOT_FOUND);
+    }
+
+    Object[] previous = (Object[]) rows.get(0);
+    long id = ((Number) previous[0]).longValue();
+    // The statement bypassed the session, so both the second-level cache entry and an entity the
+    // session already manages are stale; the next lookup reads the row again
+    getEntityManager().getEntityManagerFactory().getCache().evict(DbWarehouse.class, id);
+    detachIfManaged(id);
+    return WarehouseMutation.applied((String) previous[1],
+        previous[2] != null ? ((Number) previous[2]).intValue() : null);
+  }
+
+  // getReference returns the instance the session manages, or else an uninitialized proxy,
+  // without reading the row; detaching either leaves nothing stale behind
+  private void detachIfManaged(long id) {
+    session().detach(session().getReference(DbWarehouse.class, id));
+  }
+
+  private Session session() {
+    return getEntityManager().unwrap(Session.class);
+  }
+
+  private boolean isPostgres() {
+    return getEntityManager().getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+        .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+  }
+
   @Override
   public Warehouse findByBusinessUnitCode(String buCode) {
-    DbWarehouse dbWarehouse = find("businessUnitCode", buCode).firstResult();
-    return dbWarehouse != null ? dbWarehouse.toWarehouse() : null;
+    // Natural-id load: code -> id and id -> row both come from the second-level cache once warm.
+    // Warehouses created earlier in the transaction are found through the persistence context.
+    // Entities loaded here are read-only (no dirty-check snapshot); an entity the session
+    // already manages keeps its state.
+    Session session = session();
+    boolean defaultReadOnly = session.isDefaultReadOnly();
+    session.setDefaultReadOnly(true);
+    try {
+      DbWarehouse dbWarehouse = session.bySimpleNaturalId(DbWarehouse.class).load(buCode);
+      return dbWarehouse != null ? dbWarehouse.toWarehouse() : null;
+    } finally {
+      session.setDefaultReadOnly(defaultReadOnly);
+    }
+  }
+
+  @Override
+  public Set<String> findExistingBusinessUnitCodes(Collection<String> buCodes) {
+    List<String> codes = new ArrayList<>(buCodes);
+    Set<String> existing = new HashSet<>();
+    for (int from = 0; from < codes.size(); from += LOOKUP_CHUNK_SIZE) {
+      List<String> chunk = codes.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, codes.size()));
+      existing.addAll(getEntityManager()
+          .createQuery("SELECT w.businessUnitCode FROM DbWarehouse w"
+              + " WHERE w.businessUnitCode IN :codes", String.class)
+          .setParameter("codes", chunk)
+          .getResultList());
+    }
+    return existing;
   }
 
   @Override
   public List<Warehouse> search(String location, Integer minCapacity, Integer maxCapacity,
       String sortBy, String sortOrder, int page, int pageSize) {
 
-    StringBuilder jpql = new StringBuilder("FROM DbWarehouse w WHERE w.archivedAt IS NULL");
+    String sortColumn = sortColumn(sortBy);
+    String sortDirection = sortDirection(sortOrder);
+    StringBuilder jpql = searchPredicate(location, minCapacity, maxCapacity);
+    appendOrderBy(jpql, sortColumn, sortDirection);
+
+    int effectiveSize = effectivePageSize(pageSize);
+    int offset = Math.max(page, 0) * effectiveSize;
+
+    var query = readOnly(getEntityManager()
+        .createQuery(PROJECTION + jpql, Warehouse.class))
+        .setFirstResult(offset)
+        .setMaxResults(effectiveSize);
+    bindSearchParameters(query, location, minCapacity, maxCapacity);
+
+    return query.getResultList();
+  }
+
+  @Override
+  public WarehousePage search(String location, Integer minCapacity, Integer maxCapacity,
+      String sortBy, String sortOrder, String cursor, int pageSize) {
+
+    String sortColumn = sortColumn(sortBy);
+    String sortDirection = sortDirection(sortOrder);
+    StringBuilder jpql = searchPredicate(location, minCapacity, maxCapacity);
+
+    SearchCursor after = null;
+    if (cursor != null && !cursor.isBlank()) {
+      after = SearchCursor.decode(cursor, sortColumn, sortDirection);
+      // Seek predicate: the leading range condition lets the (sortColumn, id) index do the work,
+      // the second one breaks ties on the sort value by id.
+      String cmp = "ASC".equals(sortDirection) ? ">" : "<";
+      jpql.append(" AND w.").append(sortColumn).append(' ').append(cmp).append("= :afterValue")
+          .append(" AND (w.").append(sortColumn).append(' ').append(cmp).append(" :afterValue")
+          .append(" OR w.id ").append(cmp).append(" :afterId)");
+    }
+    appendOrderBy(jpql, sortColumn, sortDirection);
+
+    int effectiveSize = effectivePageSize(pageSize);
+
+    // Fetch one extra row to find out whether there is a next page. Entities are needed for the
+    // cursor's id, but they are loaded read-only so no snapshots are kept.
+    var query = readOnly(getEntityManager()
+        .createQuery("SELECT w " + jpql, DbWarehouse.class))
+        .setMaxResults(effectiveSize + 1);
+    bindSearchParameters(query, location, minCapacity, maxCapacity);
+    if (after != null) {
+      query.setParameter("afterValue", after.typedValue());
+      query.setParameter("afterId", after.id);
+    }
+
+    List<DbWarehouse> rows = query.getResultList();
+    String nextCursor = null;
+    if (rows.size() > effectiveSize) {
+      rows = rows.subList(0, effectiveSize);
+      nextCursor = SearchCursor.encode(sortColumn, sortDirection, rows.get(effectiveSize - 1));
+    }
+
+    return new WarehousePage(rows.stream().map(DbWarehouse::toWarehouse).toList(), nextCursor);
+  }
+
+  @Override
+  public WarehouseSearchFacets searchFacets(String location, Integer minCapacity,
+      Integer maxCapacity, int bucketWidth, boolean exactTotal) {
+    // The width is inlined: Postgres only matches a GROUP BY expression against the select list
+    // when the literals are identical.
+    int width = Math.max(bucketWidth, 1);
+
+    if (!exactTotal) {
+      // Groups at most ESTIMATE_THRESHOLD + 1 matches: all of them when there are no more, which
+      // makes the facets exact, or else the first ones the database finds, which are scaled up to
+      // the estimated total. Native SQL: HQL takes no LIMIT without an ORDER BY, and ordering
+      // would defeat the point.
+      String bucket = "(capacity - mod(capacity, " + width + "))";
+      Query sample = getEntityManager().createNativeQuery("SELECT location, " + bucket
+          + ", count(*) FROM (SELECT w.location, w.capacity "
+          + searchPredicate("warehouse", location, minCapacity, maxCapacity)
+          + " LIMIT " + (ESTIMATE_THRESHOLD + 1) + ") matches GROUP BY location, " + bucket);
+      bindSearchParameters(sample, location, minCapacity, maxCapacity);
+      @SuppressWarnings("unchecked")
+      List<Object[]> rows = sample.getResultList();
+      long sampled = rows.stream().mapToLong(row -> ((Number) row[2]).longValue()).sum();
+      if (sampled > ESTIMATE_THRESHOLD) {
+        // H2 has no row estimate to offer; the threshold stands in for it
+        long total = isPostgres()
+            ? Math.max(plannedRows(location, minCapacity, maxCapacity), sampled)
+            : ESTIMATE_THRESHOLD;
+        return facets(rows, width, sampled, total, true);
+      }
+      return facets(rows, width, sampled, sampled, false);
+    }
+
+    // One grouped query yields the total and both facets
+    String bucket = "(w.capacity - mod(w.capacity, " + width + "))";
+    var grouped = getEntityManager()
+        .createQuery("SELECT w.location, " + bucket + ", count(w) "
+            + searchPredicate(location, minCapacity, maxCapacity)
+            + " GROUP BY w.location, " + bucket, Object[].class);
+    bindSearchParameters(grouped, location, minCapacity, maxCapacity);
+    List<Object[]> rows = grouped.getResultList();
+    long total = rows.stream().mapToLong(row -> ((Number) row[2]).longValue()).sum();
+    return facets(rows, width, total, total, false);
+  }
+
+  // The planner's row estimate for the search, from the first line of its EXPLAIN output
+  private long plannedRows(String location, Integer minCapacity, Integer maxCapacity) {
+    Query explain = getEntityManager().createNativeQuery("EXPLAIN SELECT 1 "
+        + searchPredicate("warehouse", location, minCapacity, maxCapacity));
+    bindSearchParameters(explain, location, minCapacity, maxCapacity);
+    Matcher rows = PLANNED_ROWS.matcher(String.valueOf(explain.getResultList().get(0)));
+    return rows.find() ? Long.parseLong(rows.group(1)) : 0;
+  }
+
+  // Rows of (location, capacity bucket, count) adding up to counted matches, scaled to total
+  private static WarehouseSearchFacets facets(
+      List<Object[]> rows, int width, long counted, long total, boolean estimated) {
+    double scale = counted > 0 ? (double) total / counted : 1;
+    Map<String, Long> locations = new TreeMap<>();
+    Map<Integer, Long> buckets = new TreeMap<>();
+    for (Object[] row : rows) {
+      long count = Math.round(((Number) row[2]).longValue() * scale);
+      if (row[0] != null) {
+        locations.merge((String) row[0], count, Long::sum);
+      }
+      if (row[1] != null) {
+        buckets.merge(((Number) row[1]).intValue(), count, Long::sum);
+      }
+    }
+
+    List<CapacityBucket> histogram = buckets.entrySet().stream()
+        .map(e -> new CapacityBucket(e.getKey(), e.getKey() + width, e.getValue()))
+        .toList();
+    return new WarehouseSearchFacets(total, estimated, locations, histogram);
+  }
+
+  // For the listing and search reads, which only run for GET requests: nothing is pending in the
+  // session, so the auto-flush check before the query is skipped
+  private static <T> TypedQuery<T> readOnly(TypedQuery<T> query) {
+    return query
+        .setHint(HibernateHints.HINT_READ_ONLY, true)
+        .setHint(HibernateHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+        .setFlushMode(FlushModeType.COMMIT);
+  }
+
+  private static StringBuilder searchPredicate(
+      String location, Integer minCapacity, Integer maxCapacity) {
+    return searchPredicate("DbWarehouse", location, minCapacity, maxCapacity);
+  }
+
+  // The conditions name DbWarehouse fields, which are also its column names, so the same
+  // predicate serves HQL over the entity and native SQL over the warehouse table
+  private static StringBuilder searchPredicate(
+      String source, String location, Integer minCapacity, Integer maxCapacity) {
+    StringBuilder jpql = new StringBuilder("FROM ").append(source)
+        .append(" w WHERE w.archivedAt IS NULL");
 
     if (location != null && !location.isBlank()) {
       jpql.append(" AND w.location = :location");
@@ -64,20 +433,11 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
     if (maxCapacity != null) {
       jpql.append(" AND w.capacity <= :maxCapacity");
     }
+    return jpql;
+  }
 
-    // Whitelist sort column to prevent injection
-    String sortColumn = "capacity".equalsIgnoreCase(sortBy) ? "capacity" : "createdAt";
-    String sortDirection = "desc".equalsIgnoreCase(sortOrder) ? "DESC" : "ASC";
-    jpql.append(" ORDER BY w.").append(sortColumn).append(" ").append(sortDirection);
-
-    int effectiveSize = Math.min(Math.max(pageSize, 1), 100);
-    int offset = Math.max(page, 0) * effectiveSize;
-
-    var query = getEntityManager()
-        .createQuery("SELECT w " + jpql, DbWarehouse.class)
-        .setFirstResult(offset)
-        .setMaxResults(effectiveSize);
-
+  private static void bindSearchParameters(
+      Query query, String location, Integer minCapacity, Integer maxCapacity) {
     if (location != null && !location.isBlank()) {
       query.setParameter("location", location);
     }
@@ -87,7 +447,27 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
     if (maxCapacity != null) {
       query.setParameter("maxCapacity", maxCapacity);
     }
+  }
+
+  // Whitelist sort column to prevent injection; each one has an (column, id) index on active rows
+  private static String sortColumn(String sortBy) {
+    if ("capacity".equalsIgnoreCase(sortBy)) {
+      return "capacity";
+    }
+    return "stock".equalsIgnoreCase(sortBy) ? "stock" : "createdAt";
+  }
+
+  private static String sortDirection(String sortOrder) {
+    return "desc".equalsIgnoreCase(sortOrder) ? "DESC" : "ASC";
+  }
+
+  // id is the tie-breaker so that the order is total and pages never overlap
+  private static void appendOrderBy(StringBuilder jpql, String sortColumn, String sortDirection) {
+    jpql.append(" ORDER BY w.").append(sortColumn).append(' ').append(sortDirection)
+        .append(", w.id ").append(sortDirection);
+  }
 
-    return query.getResultList().stream().map(DbWarehouse::toWarehouse).toList();
+  private static int effectivePageSize(int pageSize) {
+    return Math.min(Math.max(pageSize, 1), 100);
   }
 }
@@ -0,0 +1,87 @@
+package com.fulfilment.application.monolith.warehouses.adapters.readmodel;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of the active warehouses, indexed by business unit code and by location. Changes
+ * produce a new snapshot; the lists keep database id order, new warehouses go last.
+ */
+final class ReadModelSnapshot {
+
+  private final List<Warehouse> all;
+  private final Map<String, Warehouse> byCode;
+  private final Map<String, List<Warehouse>> byLocation;
+
+  private ReadModelSnapshot(List<Warehouse> all) {
+    Map<String, Warehouse> codes = new HashMap<>(all.size() * 2);
+    Map<String, List<Warehouse>> locations = new HashMap<>();
+    for (Warehouse warehouse : all) {
+      codes.put(warehouse.businessUnitCode, warehouse);
+      locations.computeIfAbsent(warehouse.location, l -> new ArrayList<>()).add(warehouse);
+    }
+    locations.replaceAll((location, warehouses) -> Collections.unmodifiableList(warehouses));
+
+    this.all = Collections.unmodifiableList(all);
+    this.byCode = codes;
+    this.byLocation = locations;
+  }
+
+  static ReadModelSnapshot of(List<Warehouse> active) {
+    return new ReadModelSnapshot(active.stream().map(ReadModelWarehouseStore::copy).toList());
+  }
+
+  List<Warehouse> all() {
+    return all;
+  }
+
+  Warehouse byCode(String businessUnitCode) {
+    return byCode.get(businessUnitCode);
+  }
+
+  List<Warehouse> atLocation(String location) {
+    return byLocation.getOrDefault(location, List.of());
+  }
+
+  ReadModelSnapshot with(Warehouse warehouse) {
+    List<Warehouse> next = new ArrayList<>(all.size() + 1);
+    boolean replaced = false;
+    for (Warehouse existing : all) {
+      if (existing.businessUnitCode.equals(warehouse.businessUnitCode)) {
+        next.add(warehouse);
+        replaced = true;
+      } else {
+        next.add(existing);
+      }
+    }
+    if (!replaced) {
+      next.add(warehouse);
+    }
+    return new ReadModelSnapshot(next);
+  }
+
+  /** Adds warehouses whose codes are not in this snapshot yet, in one copy. */
+  ReadModelSnapshot withAll(List<Warehouse> added) {
+    List<Warehouse> next = new ArrayList<>(all.size() + added.size());
+    next.addAll(all);
+    next.addAll(added);
+    return new ReadModelSnapshot(next);
+  }
+
+  ReadModelSnapshot without(String businessUnitCode) {
+    if (!byCode.containsKey(businessUnitCode)) {
+      return this;
+    }
+    List<Warehouse> next = new ArrayList<>(all.size());
+    for (Warehouse existing : all) {
+      if (!existing.businessUnitCode.equals(businessUnitCode)) {
+        next.add(existing);
+      }
+    }
+    return new ReadModelSnapshot(next);
+  }
+}
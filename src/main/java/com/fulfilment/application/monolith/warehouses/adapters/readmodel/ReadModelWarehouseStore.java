@@ -0,0 +1,388 @@
+package com.fulfilment.application.monolith.warehouses.adapters.readmodel;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutation;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutation.Outcome;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousePage;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSearchFacets;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * {@link WarehouseStore} decorator that serves reads of active warehouses from an in-memory,
+ * location-indexed snapshot and delegates everything else to {@link WarehouseRepository}.
+ *
+ * <p>The snapshot is immutable and replaced as a whole (copy-on-write), so readers never lock and
+ * never see a partially applied change. Writes are applied only after their transaction commits;
+ * a rolled back create or update never becomes visible. Writes that bypass this store (manual SQL,
+ * other nodes) are picked up by {@link #verify()}, which compares the snapshot with the database
+ * and replaces it when they disagree.
+ *
+ * <p>Disabled by default ({@code warehouse.read-model.enabled}); when disabled it is a plain
+ * pass-through.
+ */
+@ApplicationScoped
+@Alternative
+@Priority(1)
+public class ReadModelWarehouseStore implements WarehouseStore {
+
+  private static final Logger LOGGER = Logger.getLogger(ReadModelWarehouseStore.class.getName());
+
+  // Loads discarded because a write raced them before the store gives up
+  private static final int MAX_LOAD_ATTEMPTS = 5;
+
+  private final WarehouseRepository delegate;
+  private final TransactionSynchronizationRegistry transactions;
+  private final boolean enabled;
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter drifts;
+
+  private volatile ReadModelSnapshot snapshot;
+  // Bumped by every applied write; a load that raced with a write is discarded and retried
+  private long generation;
+
+  public ReadModelWarehouseStore(
+      WarehouseRepository delegate,
+      TransactionSynchronizationRegistry transactions,
+      MeterRegistry meterRegistry,
+      @ConfigProperty(name = "warehouse.read-model.enabled", defaultValue = "false")
+          boolean enabled) {
+    this.delegate = delegate;
+    this.transactions = transactions;
+    this.enabled = enabled;
+
+    this.hits = Counter.builder("warehouse.read_model.lookups").tag("result", "hit")
+        .register(meterRegistry);
+    this.misses = Counter.builder("warehouse.read_model.lookups").tag("result", "miss")
+        .register(meterRegistry);
+    this.drifts = Counter.builder("warehouse.read_model.drift")
+        .description("Consistency checks that found the snapshot out of date")
+        .register(meterRegistry);
+    Gauge.builder("warehouse.read_model.size", this, ReadModelWarehouseStore::size)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public List<Warehouse> getAll() {
+    if (!enabled) {
+      return delegate.getAll();
+    }
+    hits.increment();
+    return snapshot().all().stream().map(ReadModelWarehouseStore::copy).toList();
+  }
+
+  @Override
+  public void forEachActive(Consumer<Warehouse> action) {
+    delegate.forEachActive(action);
+  }
+
+  @Override
+  public void create(Warehouse warehouse) {
+    delegate.create(warehouse);
+    Warehouse change = copy(warehouse);
+    afterCommit(() -> apply(change));
+  }
+
+  @Override
+  public void createAll(List<Warehouse> warehouses) {
+    delegate.createAll(warehouses);
+    List<Warehouse> created = warehouses.stream().map(ReadModelWarehouseStore::copy).toList();
+    afterCommit(() -> applyCreated(created));
+  }
+
+  @Override
+  public void update(Warehouse warehouse) {
+    delegate.update(warehouse);
+    Warehouse change = copy(warehouse);
+    afterCommit(() -> apply(change));
+  }
+
+  @Override
+  public WarehouseMutation archive(String buCode, LocalDateTime archivedAt) {
+    WarehouseMutation result = delegate.archive(buCode, archivedAt);
+    if (result.outcome() == Outcome.APPLIED) {
+      afterCommit(() -> applyArchived(buCode));
+    }
+    return result;
+  }
+
+  @Override
+  public WarehouseMutation replace(Warehouse replacement) {
+    WarehouseMutation result = delegate.replace(replacement);
+    if (result.outcome() == Outcome.APPLIED) {
+      Warehouse change = copy(replacement);
+      afterCommit(() -> applyReplaced(change));
+    }
+    return result;
+  }
+
+  @Override
+  public void remove(Warehouse warehouse) {
+    delegate.remove(warehouse);
+  }
+
+  @Override
+  public Warehouse findByBusinessUnitCode(String buCode) {
+    if (!enabled) {
+      return delegate.findByBusinessUnitCode(buCode);
+    }
+    Warehouse cached = snapshot().byCode(buCode);
+    if (cached != null) {
+      hits.increment();
+      return copy(cached);
+    }
+    // Unknown and archived warehouses are not held in memory
+    misses.increment();
+    return delegate.findByBusinessUnitCode(buCode);
+  }
+
+  @Override
+  public Set<String> findExistingBusinessUnitCodes(Collection<String> buCodes) {
+    // Must also see archived warehouses, which the snapshot does not hold
+    return delegate.findExistingBusinessUnitCodes(buCodes);
+  }
+
+  @Override
+  public List<Warehouse> search(String location, Integer minCapacity, Integer maxCapacity,
+      String sortBy, String sortOrder, int page, int pageSize) {
+    if (!enabled) {
+      return delegate.search(location, minCapacity, maxCapacity, sortBy, sortOrder, page, pageSize);
+    }
+    hits.increment();
+
+    List<Warehouse> candidates = location != null && !location.isBlank()
+        ? snapshot().atLocation(location)
+        : snapshot().all();
+    boolean descending = "desc".equalsIgnoreCase(sortOrder);
+    if (descending) {
+      // The database breaks ties by id in the sort direction; candidates are in id order
+      candidates = new ArrayList<>(candidates);
+      Collections.reverse(candidates);
+    }
+
+    Comparator<Warehouse> order;
+    if ("capacity".equalsIgnoreCase(sortBy)) {
+      order = Comparator.comparing(w -> w.capacity, Comparator.nullsLast(Comparator.naturalOrder()));
+    } else if ("stock".equalsIgnoreCase(sortBy)) {
+      order = Comparator.comparing(w -> w.stock, Comparator.nullsLast(Comparator.naturalOrder()));
+    } else {
+      order = Comparator.comparing(w -> w.createdAt, Comparator.nullsLast(Comparator.naturalOrder()));
+    }
+    if (descending) {
+      order = order.reversed();
+    }
+
+    // Same bounds as the repository. Only the sort key is compared and the sort is stable, so
+    // ties keep the candidates' id order, which runs in the sort direction like the database's
+    int effectiveSize = Math.min(Math.max(pageSize, 1), 100);
+    long offset = (long) Math.max(page, 0) * effectiveSize;
+
+    return candidates.stream()
+        .filter(w -> minCapacity == null || (w.capacity != null && w.capacity >= minCapacity))
+        .filter(w -> maxCapacity == null || (w.capacity != null && w.capacity <= maxCapacity))
+        .sorted(order)
+        .skip(offset)
+        .limit(effectiveSize)
+        .map(ReadModelWarehouseStore::copy)
+        .toList();
+  }
+
+  @Override
+  public WarehousePage search(String location, Integer minCapacity, Integer maxCapacity,
+      String sortBy, String sortOrder, String cursor, int pageSize) {
+    // Cursors are keyed on database ids, which the read model does not hold
+    return delegate.search(location, minCapacity, maxCapacity, sortBy, sortOrder, cursor, pageSize);
+  }
+
+  @Override
+  public WarehouseSearchFacets searchFacets(String location, Integer minCapacity,
+      Integer maxCapacity, int bucketWidth, boolean exactTotal) {
+    return delegate.searchFacets(location, minCapacity, maxCapacity, bucketWidth, exactTotal);
+  }
+
+  /**
+   * Compares the snapshot with the active warehouses in the database and swaps in a fresh one if
+   * they differ.
+   *
+   * @return {@code true} if the snapshot was consistent
+   */
+  public boolean verify() {
+    if (!enabled) {
+      return true;
+    }
+    ReadModelSnapshot current;
+    long startGeneration;
+    synchronized (this) {
+      current = snapshot;
+      startGeneration = generation;
+    }
+    if (current == null) {
+      return true;
+    }
+
+    ReadModelSnapshot fromDb = loadFromDatabase();
+    if (sameContent(current, fromDb)) {
+      return true;
+    }
+
+    synchronized (this) {
+      if (generation != startGeneration) {
+        // A write committed while we were reading; let the next check decide
+        return true;
+      }
+      snapshot = fromDb;
+    }
+    drifts.increment();
+    LOGGER.warn("Warehouse read model was out of date and has been reloaded");
+    return false;
+  }
+
+  @Scheduled(
+      every = "${warehouse.read-model.verify-interval:5m}",
+      delayed = "${warehouse.read-model.verify-interval:5m}",
+      concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void scheduledVerify() {
+    verify();
+  }
+
+  /** Number of active warehouses currently held in memory. */
+  public int size() {
+    ReadModelSnapshot current = snapshot;
+    return current == null ? 0 : current.all().size();
+  }
+
+  private ReadModelSnapshot snapshot() {
+    ReadModelSnapshot current = snapshot;
+    return current != null ? current : load();
+  }
+
+  private ReadModelSnapshot load() {
+    for (int attempt = 1; attempt <= MAX_LOAD_ATTEMPTS; attempt++) {
+      long startGeneration;
+      synchronized (this) {
+        if (snapshot != null) {
+          return snapshot;
+        }
+        startGeneration = generation;
+      }
+      ReadModelSnapshot loaded = loadFromDatabase();
+      synchronized (this) {
+        if (generation == startGeneration) {
+          snapshot = loaded;
+          return loaded;
+        }
+      }
+    }
+    throw new IllegalStateException("Warehouse read model could not be loaded: writes raced all "
+        + MAX_LOAD_ATTEMPTS + " attempts");
+  }
+
+  private ReadModelSnapshot loadFromDatabase() {
+    List<Warehouse> active = new ArrayList<>();
+    // Own transaction: only committed rows may end up in the snapshot
+    QuarkusTransaction.requiringNew().run(() -> delegate.forEachActive(active::add));
+    return ReadModelSnapshot.of(active);
+  }
+
+  private void afterCommit(Runnable change) {
+    if (!enabled) {
+      return;
+    }
+    if (transactions.getTransactionStatus() == Status.STATUS_NO_TRANSACTION) {
+      change.run();
+      return;
+    }
+    transactions.registerInterposedSynchronization(new Synchronization() {
+      @Override
+      public void beforeCompletion() {}
+
+      @Override
+      public void afterCompletion(int status) {
+        if (status == Status.STATUS_COMMITTED) {
+          change.run();
+        }
+      }
+    });
+  }
+
+  private synchronized void apply(Warehouse change) {
+    generation++;
+    if (snapshot != null) {
+      snapshot = change.archivedAt == null
+          ? snapshot.with(change)
+          : snapshot.without(change.businessUnitCode);
+    }
+  }
+
+  private synchronized void applyArchived(String buCode) {
+    generation++;
+    if (snapshot != null) {
+      snapshot = snapshot.without(buCode);
+    }
+  }
+
+  // The replacement carries only the replaced fields; createdAt comes from the held entry. A
+  // warehouse missing from the snapshot is left to verify().
+  private synchronized void applyReplaced(Warehouse replacement) {
+    generation++;
+    Warehouse held = snapshot != null ? snapshot.byCode(replacement.businessUnitCode) : null;
+    if (held != null) {
+      snapshot = snapshot.with(new Warehouse(held.businessUnitCode, replacement.location,
+          replacement.capacity, replacement.stock, held.createdAt, null));
+    }
+  }
+
+  private synchronized void applyCreated(List<Warehouse> created) {
+    generation++;
+    if (snapshot != null) {
+      snapshot = snapshot.withAll(created);
+    }
+  }
+
+  private static boolean sameContent(ReadModelSnapshot a, ReadModelSnapshot b) {
+    if (a.all().size() != b.all().size()) {
+      return false;
+    }
+    for (Warehouse expected : b.all()) {
+      Warehouse actual = a.byCode(expected.businessUnitCode);
+      if (actual == null
+          || !Objects.equals(actual.location, expected.location)
+          || !Objects.equals(actual.capacity, expected.capacity)
+          || !Objects.equals(actual.stock, expected.stock)
+          || !Objects.equals(actual.createdAt, expected.createdAt)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Warehouse is mutable, so nothing held by the snapshot is ever handed out directly
+  static Warehouse copy(Warehouse w) {
+    return new Warehouse(w.businessUnitCode, w.location, w.capacity, w.stock, w.createdAt,
+        w.archivedAt);
+  }
+}
@@ -2,7 +2,10 @@ package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
 import java.util.List;
 
+import com.fulfilment.application.monolith.common.NameOrderedPages;
+import com.fulfilment.application.monolith.warehouses.domain.models.NearestWarehouse;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseBatchItemResult;
 
 import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.Consumes;
@@ -15,18 +18,61 @@ import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 
 @Path("warehouse")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public interface WarehouseResource {
 
+    /** Response header carrying the continuation token of a cursor-mode search. */
+    String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /** Largest number of warehouses accepted by one batch create. */
+    int MAX_BATCH_SIZE = 1000;
+
+    /** Largest number of warehouses returned by one nearest-warehouse query. */
+    int MAX_NEAREST = 100;
+
     @GET
     List<Warehouse> listAllWarehousesUnits();
 
+    /**
+     * Streams all active warehouses as NDJSON. Rows are written as they are read from the
+     * database, so the response can be arbitrarily large without buffering it in memory.
+     */
+    @GET
+    @Path("export")
+    @Produces(NameOrderedPages.APPLICATION_NDJSON)
+    StreamingOutput exportWarehouses();
+
     @POST
     Warehouse createANewWarehouseUnit(@NotNull Warehouse data);
 
+    /**
+     * Creates up to {@value #MAX_BATCH_SIZE} warehouses in one transaction. Every item is validated
+     * on its own; the response holds one result per item, in request order, and invalid items do
+     * not prevent the others from being created.
+     */
+    @POST
+    @Path("batch")
+    List<WarehouseBatchItemResult> createWarehouseUnits(@NotNull List<Warehouse> data);
+
+    /**
+     * Returns up to {@code limit} active warehouses with at least {@code minFreeCapacity} free
+     * capacity (capacity minus stock), nearest first. The point is given either by
+     * {@code latitude} and {@code longitude} or by the identifier of a location with coordinates.
+     */
+    @GET
+    @Path("nearest")
+    List<NearestWarehouse> findNearestWarehouses(
+            @QueryParam("latitude") Double latitude,
+            @QueryParam("longitude") Double longitude,
+            @QueryParam("location") String location,
+            @QueryParam("limit") @DefaultValue("5") int limit,
+            @QueryParam("minFreeCapacity") @DefaultValue("0") int minFreeCapacity);
+
     @GET
     @Path("{id}")
     Warehouse getAWarehouseUnitByID(@PathParam("id") String id);
@@ -41,14 +87,28 @@ public interface WarehouseResource {
             @PathParam("businessUnitCode") String businessUnitCode,
             @NotNull Warehouse data);
 
+    /**
+     * Searches active warehouses. Without {@code cursor} this pages by offset; with a cursor
+     * (empty for the first page) it pages by keyset and returns the token of the next page in the
+     * {@value #NEXT_CURSOR_HEADER} header, omitted on the last page. {@code page} is ignored in
+     * cursor mode. {@code sortBy} is one of {@code createdAt}, {@code capacity} or {@code stock}.
+     *
+     * <p>With {@code facets=true} the page is wrapped in a {@link WarehouseSearchResponse} that
+     * also carries the total hit count, per-location counts and a capacity histogram in ranges of
+     * {@code bucketWidth}. {@code total=estimate} skips exact counting of very large result sets.
+     */
     @GET
     @Path("search")
-    List<Warehouse> searchWarehouses(
+    Response searchWarehouses(
             @QueryParam("location") String location,
             @QueryParam("minCapacity") Integer minCapacity,
             @QueryParam("maxCapacity") Integer maxCapacity,
             @QueryParam("sortBy") @DefaultValue("createdAt") String sortBy,
             @QueryParam("sortOrder") @DefaultValue("asc") String sortOrder,
             @QueryParam("page") @DefaultValue("0") int page,
-            @QueryParam("pageSize") @DefaultValue("10") int pageSize);
+            @QueryParam("pageSize") @DefaultValue("10") int pageSize,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("facets") @DefaultValue("false") boolean facets,
+            @QueryParam("total") @DefaultValue("exact") String total,
+            @QueryParam("bucketWidth") @DefaultValue("25") int bucketWidth);
 }
@@ -1,31 +1,86 @@
 package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
-import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseNotFoundException;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.NearestWarehouseFinder;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 // import com.warehouse.api.WarehouseResource;
 // import com.warehouse.api.beans.Warehouse;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.NearestWarehouse;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseBatchItemResult;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RequestScoped
 public class WarehouseResourceImpl implements WarehouseResource {
 
-  @Inject private WarehouseRepository warehouseRepository;
+  @Inject private WarehouseStore warehouseStore;
   @Inject private CreateWarehouseOperation createWarehouseOperation;
   @Inject private ArchiveWarehouseOperation archiveWarehouseOperation;
   @Inject private ReplaceWarehouseOperation replaceWarehouseOperation;
+  @Inject private NearestWarehouseFinder nearestWarehouseFinder;
+  @Inject private LocationResolver locationResolver;
+  @Inject private ObjectMapper objectMapper;
 
   @Override
   public List<Warehouse> listAllWarehousesUnits() {
-    return warehouseRepository.getAll().stream().map(this::toWarehouseResponse).toList();
+    return warehouseStore.getAll().stream().map(WarehouseResourceImpl::asResponse).toList();
+  }
+
+  @Override
+  public StreamingOutput exportWarehouses() {
+    // The body is written after this method returns, so the scroll needs its own transaction
+    return output -> QuarkusTransaction.requiringNew().run(() -> writeNdjson(output));
+  }
+
+  private void writeNdjson(OutputStream output) {
+    try (JsonGenerator json = objectMapper.getFactory().createGenerator(output)) {
+      json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      // Lines are separated by the newline below; the default root separator is a space
+      json.setRootValueSeparator(null);
+      warehouseStore.forEachActive(warehouse -> {
+        try {
+          json.writeStartObject();
+          json.writeStringField("businessUnitCode", warehouse.businessUnitCode);
+          json.writeStringField("location", warehouse.location);
+          writeNumberField(json, "capacity", warehouse.capacity);
+          writeNumberField(json, "stock", warehouse.stock);
+          json.writeEndObject();
+          json.writeRaw('\n');
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void writeNumberField(JsonGenerator json, String name, Integer value)
+      throws IOException {
+    if (value == null) {
+      json.writeNullField(name);
+    } else {
+      json.writeNumberField(name, value);
+    }
   }
 
   @Override
@@ -49,31 +104,77 @@ public class WarehouseResourceImpl implements WarehouseResource {
     }
   }
 
+  @Override
+  public List<WarehouseBatchItemResult> createWarehouseUnits(@NotNull List<Warehouse> data) {
+    if (data.size() > MAX_BATCH_SIZE) {
+      throw new WebApplicationException(
+          "A batch may contain at most " + MAX_BATCH_SIZE + " warehouses", 400);
+    }
+
+    var domainWarehouses = data.stream().map(item -> {
+      var domainWarehouse = new com.fulfilment.application.monolith.warehouses.domain.models.Warehouse();
+      if (item != null) {
+        domainWarehouse.businessUnitCode = item.getBusinessUnitCode();
+        domainWarehouse.location = item.getLocation();
+        domainWarehouse.capacity = item.getCapacity();
+        domainWarehouse.stock = item.getStock() != null ? item.getStock() : 0;
+      }
+      return domainWarehouse;
+    }).toList();
+
+    // Item-level failures are part of the result; only the batch as a whole can fail here
+    return createWarehouseOperation.createAll(domainWarehouses);
+  }
+
   @Override
   public Warehouse getAWarehouseUnitByID(String id) {
     // Find warehouse by business unit code
-    var domainWarehouse = warehouseRepository.findByBusinessUnitCode(id);
+    var domainWarehouse = warehouseStore.findByBusinessUnitCode(id);
     
     if (domainWarehouse == null) {
       throw new WebApplicationException("Warehouse with business unit code '" + id + "' not found", 404);
     }
     
-    return toWarehouseResponse(domainWarehouse);
+    return asResponse(domainWarehouse);
   }
 
   @Override
-  @Transactional
-  public void archiveAWarehouseUnitByID(String id) {
-    // Find warehouse by business unit code
-    var domainWarehouse = warehouseRepository.findByBusinessUnitCode(id);
+  public List<NearestWarehouse> findNearestWarehouses(Double latitude, Double longitude,
+      String location, int limit, int minFreeCapacity) {
+    if (limit < 1 || limit > MAX_NEAREST) {
+      throw new WebApplicationException("limit must be between 1 and " + MAX_NEAREST, 400);
+    }
+    if (location != null) {
+      Location origin = locationResolver.resolveByIdentifier(location);
+      if (origin == null || !origin.hasCoordinates()) {
+        throw new WebApplicationException(
+            "Location '" + location + "' is not valid or has no coordinates", 400);
+      }
+      latitude = origin.latitude();
+      longitude = origin.longitude();
+    } else if (latitude == null || longitude == null) {
+      throw new WebApplicationException("Either location or latitude and longitude are required", 400);
+    }
 
-    if (domainWarehouse == null) {
-      throw new WebApplicationException("Warehouse with business unit code '" + id + "' not found", 404);
+    try {
+      return nearestWarehouseFinder.findNearest(latitude, longitude, limit, minFreeCapacity);
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException(e.getMessage(), 400);
     }
+  }
+
+  @Override
+  @Transactional
+  public void archiveAWarehouseUnitByID(String id) {
+    var domainWarehouse = new com.fulfilment.application.monolith.warehouses.domain.models.Warehouse();
+    domainWarehouse.businessUnitCode = id;
 
     try {
-      // Archive warehouse through use case (includes validations)
+      // Archive warehouse through use case (includes validations); the use case reports a
+      // missing warehouse itself, so there is no lookup beforehand
       archiveWarehouseOperation.archive(domainWarehouse);
+    } catch (WarehouseNotFoundException e) {
+      throw new WebApplicationException("Warehouse with business unit code '" + id + "' not found", 404);
     } catch (IllegalArgumentException e) {
       throw new WebApplicationException(e.getMessage(), 400);
     }
@@ -94,19 +195,60 @@ public class WarehouseResourceImpl implements WarehouseResource {
       // Replace warehouse through use case (includes validations)
       replaceWarehouseOperation.replace(domainWarehouse);
 
-      // Return the updated warehouse
-      var updated = warehouseRepository.findByBusinessUnitCode(businessUnitCode);
-      return toWarehouseResponse(updated);
+      // Return the updated warehouse; every field of the response comes from the request, and
+      // re-reading here could hit a read model that only sees the change after commit
+      return toWarehouseResponse(domainWarehouse);
     } catch (IllegalArgumentException e) {
       throw new WebApplicationException(e.getMessage(), 400);
     }
   }
 
   @Override
-  public List<Warehouse> searchWarehouses(String location, Integer minCapacity, Integer maxCapacity,
-      String sortBy, String sortOrder, int page, int pageSize) {
-    return warehouseRepository.search(location, minCapacity, maxCapacity, sortBy, sortOrder, page, pageSize)
-        .stream().map(this::toWarehouseResponse).toList();
+  public Response searchWarehouses(String location, Integer minCapacity, Integer maxCapacity,
+      String sortBy, String sortOrder, int page, int pageSize, String cursor,
+      boolean facets, String total, int bucketWidth) {
+    if (!"exact".equalsIgnoreCase(total) && !"estimate".equalsIgnoreCase(total)) {
+      throw new WebApplicationException("total must be 'exact' or 'estimate'", 400);
+    }
+    if (bucketWidth < 1) {
+      throw new WebApplicationException("bucketWidth must be positive", 400);
+    }
+
+    List<Warehouse> items;
+    String nextCursor = null;
+    if (cursor == null) {
+      items = warehouseStore.search(location, minCapacity, maxCapacity, sortBy, sortOrder, page, pageSize)
+          .stream().map(WarehouseResourceImpl::asResponse).toList();
+    } else {
+      try {
+        var result = warehouseStore.search(location, minCapacity, maxCapacity, sortBy, sortOrder, cursor, pageSize);
+        items = result.items().stream().map(WarehouseResourceImpl::asResponse).toList();
+        nextCursor = result.nextCursor();
+      } catch (IllegalArgumentException e) {
+        throw new WebApplicationException(e.getMessage(), 400);
+      }
+    }
+
+    Object body = items;
+    if (facets) {
+      var searchFacets = warehouseStore.searchFacets(location, minCapacity, maxCapacity,
+          bucketWidth, "exact".equalsIgnoreCase(total));
+      body = WarehouseSearchResponse.of(items, searchFacets);
+    }
+
+    var response = Response.ok(body);
+    if (nextCursor != null) {
+      response.header(NEXT_CURSOR_HEADER, nextCursor);
+    }
+    return response.build();
+  }
+
+  // Reads hand out objects owned by the caller (see WarehouseStore), so GET responses trim them in
+  // place instead of copying every row once more
+  private static Warehouse asResponse(Warehouse warehouse) {
+    warehouse.createdAt = null;
+    warehouse.archivedAt = null;
+    return warehouse;
   }
 
   private Warehouse toWarehouseResponse(
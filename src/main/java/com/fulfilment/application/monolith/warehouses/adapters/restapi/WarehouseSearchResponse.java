@@ -0,0 +1,21 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSearchFacets;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSearchFacets.CapacityBucket;
+import java.util.List;
+import java.util.Map;
+
+/** Body of {@code GET /warehouse/search?facets=true}: the requested page plus its facets. */
+public record WarehouseSearchResponse(
+    List<Warehouse> items,
+    long total,
+    boolean totalEstimated,
+    Map<String, Long> locations,
+    List<CapacityBucket> capacityHistogram) {
+
+  static WarehouseSearchResponse of(List<Warehouse> items, WarehouseSearchFacets facets) {
+    return new WarehouseSearchResponse(items, facets.total(), facets.totalEstimated(),
+        facets.locations(), facets.capacityHistogram());
+  }
+}
@@ -1,3 +1,18 @@
 package com.fulfilment.application.monolith.warehouses.domain.models;
 
-public record Location(String identifier, int maxNumberOfWarehouses, int maxCapacity) {}
+/**
+ * A place warehouses can be opened at, with its limits and, when known, its coordinates in decimal
+ * degrees (WGS84).
+ */
+public record Location(String identifier, int maxNumberOfWarehouses, int maxCapacity,
+    double latitude, double longitude) {
+
+  /** A location without known coordinates; proximity queries never return it. */
+  public Location(String identifier, int maxNumberOfWarehouses, int maxCapacity) {
+    this(identifier, maxNumberOfWarehouses, maxCapacity, Double.NaN, Double.NaN);
+  }
+
+  public boolean hasCoordinates() {
+    return !Double.isNaN(latitude) && !Double.isNaN(longitude);
+  }
+}
@@ -0,0 +1,10 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/** An active warehouse found by a proximity query, with its free capacity and its distance. */
+public record NearestWarehouse(
+    String businessUnitCode,
+    String location,
+    int capacity,
+    int stock,
+    int freeCapacity,
+    double distanceKm) {}
@@ -0,0 +1,19 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * Outcome of one item of a batch warehouse creation.
+ *
+ * <p>{@code index} is the item's position in the submitted batch; {@code error} explains why the
+ * item was not created and is {@code null} when {@code created} is {@code true}.
+ */
+public record WarehouseBatchItemResult(
+    int index, String businessUnitCode, boolean created, String error) {
+
+  public static WarehouseBatchItemResult created(int index, String businessUnitCode) {
+    return new WarehouseBatchItemResult(index, businessUnitCode, true, null);
+  }
+
+  public static WarehouseBatchItemResult failed(int index, String businessUnitCode, String error) {
+    return new WarehouseBatchItemResult(index, businessUnitCode, false, error);
+  }
+}
@@ -0,0 +1,20 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * Fired by the warehouse store for every created, changed or archived warehouse. Observers that
+ * keep derived state should observe it after the transaction succeeds. {@code active} is
+ * {@code false} once the warehouse is archived; {@code capacity} and {@code stock} are then
+ * {@code null}.
+ */
+public record WarehouseChangedEvent(
+    String businessUnitCode, String location, Integer capacity, Integer stock, boolean active) {
+
+  public static WarehouseChangedEvent of(Warehouse warehouse) {
+    return new WarehouseChangedEvent(warehouse.businessUnitCode, warehouse.location,
+        warehouse.capacity, warehouse.stock, warehouse.archivedAt == null);
+  }
+
+  public static WarehouseChangedEvent archived(String businessUnitCode, String location) {
+    return new WarehouseChangedEvent(businessUnitCode, location, null, null, false);
+  }
+}
@@ -0,0 +1,26 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * Outcome of a conditional, single-statement change to an active warehouse.
+ *
+ * <p>When the change was {@code APPLIED}, {@code previousLocation} and {@code previousCapacity}
+ * hold the values the warehouse had before it; otherwise they are {@code null}.
+ */
+public record WarehouseMutation(Outcome outcome, String previousLocation, Integer previousCapacity) {
+
+  public enum Outcome {
+    APPLIED,
+    /** No warehouse has the business unit code. */
+    NOT_FOUND,
+    /** The warehouse is archived and was left unchanged. */
+    ARCHIVED
+  }
+
+  public static WarehouseMutation applied(String previousLocation, Integer previousCapacity) {
+    return new WarehouseMutation(Outcome.APPLIED, previousLocation, previousCapacity);
+  }
+
+  public static WarehouseMutation rejected(Outcome outcome) {
+    return new WarehouseMutation(outcome, null, null);
+  }
+}
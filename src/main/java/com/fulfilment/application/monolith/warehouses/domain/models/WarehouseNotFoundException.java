@@ -0,0 +1,13 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * Thrown by use cases when the warehouse a request refers to does not exist. Still an
+ * {@link IllegalArgumentException}, so callers that treat every validation failure alike need not
+ * know about it; the REST layer uses it to answer 404 without looking the warehouse up first.
+ */
+public class WarehouseNotFoundException extends IllegalArgumentException {
+
+  public WarehouseNotFoundException(String businessUnitCode) {
+    super("Warehouse with business unit code '" + businessUnitCode + "' does not exist");
+  }
+}
@@ -0,0 +1,11 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated warehouse search.
+ *
+ * <p>{@code nextCursor} is an opaque continuation token for the following page, or {@code null}
+ * when this is the last page.
+ */
+public record WarehousePage(List<Warehouse> items, String nextCursor) {}
@@ -0,0 +1,25 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates over every warehouse matching a search, not just the returned page.
+ *
+ * <p>When {@code totalEstimated} is {@code true} the result set was too large to count exactly:
+ * {@code total} is an estimate, and the facets are counted over a sample of the matches and scaled
+ * to it.
+ *
+ * @param locations number of matches per location
+ * @param capacityHistogram number of matches per capacity range, in ascending order; warehouses
+ *     without a capacity are not counted
+ */
+public record WarehouseSearchFacets(
+    long total,
+    boolean totalEstimated,
+    Map<String, Long> locations,
+    List<CapacityBucket> capacityHistogram) {
+
+  /** Matches with {@code from <= capacity < to}. */
+  public record CapacityBucket(int from, int to, long count) {}
+}
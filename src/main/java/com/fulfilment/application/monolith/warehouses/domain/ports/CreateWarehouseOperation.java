@@ -1,7 +1,17 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseBatchItemResult;
+import java.util.List;
 
 public interface CreateWarehouseOperation {
   void create(Warehouse warehouse);
+
+  /**
+   * Creates every valid warehouse of {@code warehouses} in one transaction. Items are validated
+   * independently; an invalid item is reported and skipped without failing the others.
+   *
+   * @return one result per item, in submission order
+   */
+  List<WarehouseBatchItemResult> createAll(List<Warehouse> warehouses);
 }
@@ -0,0 +1,32 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+
+/**
+ * Maintained per-location totals (number of active warehouses and their summed capacity), so that
+ * location limits can be enforced without counting every warehouse at the location.
+ *
+ * <p>All operations must run in the transaction that performs the warehouse change, so that a
+ * rollback undoes both.
+ */
+public interface LocationOccupancyStore {
+
+  /**
+   * Claims room for one more warehouse of {@code capacity} at {@code location}. Concurrent claims
+   * for the same location are serialised, so the limits can never be overshot.
+   *
+   * @return {@code false} if the location's warehouse count or total capacity would be exceeded
+   */
+  boolean tryAllocate(Location location, int capacity);
+
+  /**
+   * Batch variant of {@link #tryAllocate}: claims room for the warehouses of {@code capacities}
+   * in order, skipping any that would exceed the limits, with a single locked update.
+   *
+   * @return for each capacity, whether it was claimed
+   */
+  boolean[] tryAllocateAll(Location location, int[] capacities);
+
+  /** Gives back the slot and capacity of a warehouse leaving {@code location}. */
+  void release(String location, int capacity);
+}
@@ -1,7 +1,28 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 public interface LocationResolver {
   Location resolveByIdentifier(String identifier);
+
+  /**
+   * Resolves several identifiers at once. The result maps each identifier that is a known location
+   * to that location; unknown identifiers are absent. Implementations backed by a remote source
+   * should override this with a single request.
+   */
+  default Map<String, Location> resolveAll(Collection<String> identifiers) {
+    Map<String, Location> resolved = new HashMap<>();
+    for (String identifier : identifiers) {
+      if (!resolved.containsKey(identifier)) {
+        Location location = resolveByIdentifier(identifier);
+        if (location != null) {
+          resolved.put(identifier, location);
+        }
+      }
+    }
+    return resolved;
+  }
 }
@@ -0,0 +1,15 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.NearestWarehouse;
+import java.util.List;
+
+public interface NearestWarehouseFinder {
+
+  /**
+   * Finds the {@code limit} active warehouses closest to the given point (decimal degrees) that
+   * have at least {@code minFreeCapacity} capacity left, nearest first. Warehouses at the same
+   * location are ordered by free capacity, largest first.
+   */
+  List<NearestWarehouse> findNearest(double latitude, double longitude, int limit,
+      int minFreeCapacity);
+}
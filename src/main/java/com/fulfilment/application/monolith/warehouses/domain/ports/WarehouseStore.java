@@ -1,20 +1,75 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutation;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehousePage;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSearchFacets;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
+/**
+ * Persistence port for warehouses. Every warehouse returned by a read is a new object owned by
+ * the caller, which may modify it freely.
+ */
 public interface WarehouseStore {
 
   List<Warehouse> getAll();
 
+  /**
+   * Streams every active warehouse to {@code action} in id order without materialising the full
+   * result, so memory use does not grow with the table. Must be called inside a transaction.
+   */
+  void forEachActive(Consumer<Warehouse> action);
+
   void create(Warehouse warehouse);
 
+  /** Inserts all {@code warehouses}, sending the rows to the database in batches. */
+  void createAll(List<Warehouse> warehouses);
+
   void update(Warehouse warehouse);
 
   void remove(Warehouse warehouse);
 
+  /**
+   * Archives the active warehouse {@code buCode} in a single conditional statement, bumping its
+   * version so that concurrent optimistic writers fail.
+   */
+  WarehouseMutation archive(String buCode, LocalDateTime archivedAt);
+
+  /**
+   * Overwrites location, capacity and stock of the active warehouse with the business unit code of
+   * {@code replacement} in a single conditional statement, bumping its version so that concurrent
+   * optimistic writers fail.
+   */
+  WarehouseMutation replace(Warehouse replacement);
+
   Warehouse findByBusinessUnitCode(String buCode);
 
+  /** Returns those of {@code buCodes} that are already used by a warehouse, archived or not. */
+  Set<String> findExistingBusinessUnitCodes(Collection<String> buCodes);
+
   List<Warehouse> search(String location, Integer minCapacity, Integer maxCapacity,
       String sortBy, String sortOrder, int page, int pageSize);
+
+  /**
+   * Keyset-paginated variant of {@link #search}: returns the page that follows {@code cursor}
+   * (or the first page when it is {@code null} or blank) together with the cursor of the next one.
+   *
+   * @throws IllegalArgumentException if the cursor is malformed or belongs to another sort order
+   */
+  WarehousePage search(String location, Integer minCapacity, Integer maxCapacity,
+      String sortBy, String sortOrder, String cursor, int pageSize);
+
+  /**
+   * Total hit count, per-location counts and a capacity histogram (ranges of
+   * {@code bucketWidth}) for the warehouses matching the same filters as {@link #search}.
+   *
+   * <p>With {@code exactTotal} unset, large result sets are not counted in full: once more than a
+   * fixed number of rows match, only a lower bound is returned.
+   */
+  WarehouseSearchFacets searchFacets(String location, Integer minCapacity, Integer maxCapacity,
+      int bucketWidth, boolean exactTotal);
 }
@@ -1,40 +1,52 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutation;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutation.Outcome;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseNotFoundException;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationOccupancyStore;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
 
 @ApplicationScoped
 public class ArchiveWarehouseUseCase implements ArchiveWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
+  private final LocationOccupancyStore locationOccupancyStore;
 
-  public ArchiveWarehouseUseCase(WarehouseStore warehouseStore) {
+  public ArchiveWarehouseUseCase(WarehouseStore warehouseStore,
+      LocationOccupancyStore locationOccupancyStore) {
     this.warehouseStore = warehouseStore;
+    this.locationOccupancyStore = locationOccupancyStore;
   }
 
   @Override
   @Transactional
   public void archive(Warehouse warehouse) {
+    // One conditional update: archives the warehouse only if it exists and is still active, and
+    // reports which of the three it found
+    WarehouseMutation result =
+        warehouseStore.archive(warehouse.businessUnitCode, LocalDateTime.now());
+
     // Validation 1: Warehouse must exist
-    Warehouse existing = warehouseStore.findByBusinessUnitCode(warehouse.businessUnitCode);
-    if (existing == null) {
-      throw new IllegalArgumentException(
-          "Warehouse with business unit code '" + warehouse.businessUnitCode + "' does not exist");
+    if (result.outcome() == Outcome.NOT_FOUND) {
+      throw new WarehouseNotFoundException(warehouse.businessUnitCode);
     }
 
     // Validation 2: Warehouse must not already be archived
-    if (existing.archivedAt != null) {
+    if (result.outcome() == Outcome.ARCHIVED) {
       throw new IllegalArgumentException(
           "Warehouse with business unit code '" + warehouse.businessUnitCode + "' is already archived");
     }
 
-    // Set archive timestamp
-    existing.archivedAt = java.time.LocalDateTime.now();
-
-    // Update the warehouse
-    warehouseStore.update(existing);
+    // An archived warehouse no longer counts against its location's limits; a row without a
+    // capacity held none there
+    if (result.previousLocation() != null) {
+      locationOccupancyStore.release(result.previousLocation(),
+          result.previousCapacity() != null ? result.previousCapacity() : 0);
+    }
   }
 }
@@ -2,21 +2,36 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseBatchItemResult;
 import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationOccupancyStore;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class CreateWarehouseUseCase implements CreateWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
   private final LocationResolver locationResolver;
+  private final LocationOccupancyStore locationOccupancyStore;
 
-  public CreateWarehouseUseCase(WarehouseStore warehouseStore, LocationResolver locationResolver) {
+  public CreateWarehouseUseCase(WarehouseStore warehouseStore, LocationResolver locationResolver,
+      LocationOccupancyStore locationOccupancyStore) {
     this.warehouseStore = warehouseStore;
     this.locationResolver = locationResolver;
+    this.locationOccupancyStore = locationOccupancyStore;
   }
 
   @Override
@@ -29,32 +44,122 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
           "Warehouse with business unit code '" + warehouse.businessUnitCode + "' already exists");
     }
 
-    // Validation 2: Location must be valid (must exist)
+    // Validations 2 and 3: location and capacity
     Location location = locationResolver.resolveByIdentifier(warehouse.location);
+    String error = validate(warehouse, location);
+    if (error != null) {
+      throw new IllegalArgumentException(error);
+    }
+
+    // Validation 4: Location limits (number of warehouses and total capacity)
+    if (!locationOccupancyStore.tryAllocate(location, warehouse.capacity)) {
+      throw new IllegalArgumentException(locationFull(location, warehouse));
+    }
+
+    // Set creation timestamp
+    warehouse.createdAt = LocalDateTime.now();
+
+    // All validations passed, create the warehouse
+    warehouseStore.create(warehouse);
+  }
+
+  @Override
+  @Transactional
+  public List<WarehouseBatchItemResult> createAll(List<Warehouse> warehouses) {
+    WarehouseBatchItemResult[] results = new WarehouseBatchItemResult[warehouses.size()];
+
+    // Validation 1: codes must be unique, within the batch and against the store (one query)
+    Set<String> existingCodes = warehouseStore.findExistingBusinessUnitCodes(
+        warehouses.stream().map(w -> w.businessUnitCode).filter(Objects::nonNull).toList());
+    Set<String> batchCodes = new HashSet<>();
+
+    // Validations 2 and 3, resolving all distinct locations in one call; survivors grouped by
+    // location
+    Map<String, Location> locations = locationResolver.resolveAll(
+        warehouses.stream().map(w -> w.location).filter(Objects::nonNull)
+            .collect(Collectors.toSet()));
+    Map<Location, List<Integer>> candidates = new LinkedHashMap<>();
+    for (int i = 0; i < warehouses.size(); i++) {
+      Warehouse warehouse = warehouses.get(i);
+      String code = warehouse.businessUnitCode;
+      if (code == null || code.isBlank()) {
+        results[i] = WarehouseBatchItemResult.failed(i, code, "Business unit code is required");
+        continue;
+      }
+      if (existingCodes.contains(code)) {
+        results[i] = WarehouseBatchItemResult.failed(i, code,
+            "Warehouse with business unit code '" + code + "' already exists");
+        continue;
+      }
+      if (!batchCodes.add(code)) {
+        results[i] = WarehouseBatchItemResult.failed(i, code,
+            "Business unit code '" + code + "' appears more than once in the batch");
+        continue;
+      }
+      if (warehouse.stock == null) {
+        warehouse.stock = 0;
+      }
+
+      Location location = warehouse.location != null ? locations.get(warehouse.location) : null;
+      String error = validate(warehouse, location);
+      if (error != null) {
+        results[i] = WarehouseBatchItemResult.failed(i, code, error);
+        continue;
+      }
+      candidates.computeIfAbsent(location, l -> new ArrayList<>()).add(i);
+    }
+
+    // Validation 4: location limits, one claim per location for all of its warehouses
+    List<Warehouse> accepted = new ArrayList<>();
+    LocalDateTime now = LocalDateTime.now();
+    candidates.forEach((location, indexes) -> {
+      int[] capacities = indexes.stream().mapToInt(i -> warehouses.get(i).capacity).toArray();
+      boolean[] claimed = locationOccupancyStore.tryAllocateAll(location, capacities);
+      for (int k = 0; k < indexes.size(); k++) {
+        int i = indexes.get(k);
+        Warehouse warehouse = warehouses.get(i);
+        if (claimed[k]) {
+          warehouse.createdAt = now;
+          accepted.add(warehouse);
+          results[i] = WarehouseBatchItemResult.created(i, warehouse.businessUnitCode);
+        } else {
+          results[i] = WarehouseBatchItemResult.failed(i, warehouse.businessUnitCode,
+              locationFull(location, warehouse));
+        }
+      }
+    });
+
+    warehouseStore.createAll(accepted);
+    return Arrays.asList(results);
+  }
+
+  // Rules that only need the warehouse and its location; returns the violation, or null
+  private static String validate(Warehouse warehouse, Location location) {
+    // Location must be valid (must exist)
     if (location == null) {
-      throw new IllegalArgumentException(
-          "Location '" + warehouse.location + "' is not valid");
+      return "Location '" + warehouse.location + "' is not valid";
+    }
+    if (warehouse.capacity == null) {
+      return "Warehouse capacity is required";
     }
 
-    // Validation 3: Capacity validation
-    // - Capacity cannot exceed location's max capacity
+    // Capacity cannot exceed location's max capacity
     if (warehouse.capacity > location.maxCapacity()) {
-      throw new IllegalArgumentException(
-          "Warehouse capacity (" + warehouse.capacity + 
-          ") exceeds location max capacity (" + location.maxCapacity() + ")");
+      return "Warehouse capacity (" + warehouse.capacity
+          + ") exceeds location max capacity (" + location.maxCapacity() + ")";
     }
 
-    // - Stock cannot exceed capacity
+    // Stock cannot exceed capacity
     if (warehouse.stock > warehouse.capacity) {
-      throw new IllegalArgumentException(
-          "Warehouse stock (" + warehouse.stock + 
-          ") exceeds warehouse capacity (" + warehouse.capacity + ")");
+      return "Warehouse stock (" + warehouse.stock
+          + ") exceeds warehouse capacity (" + warehouse.capacity + ")";
     }
+    return null;
+  }
 
-    // Set creation timestamp
-    warehouse.createdAt = java.time.LocalDateTime.now();
-
-    // All validations passed, create the warehouse
-    warehouseStore.create(warehouse);
+  private static String locationFull(Location location, Warehouse warehouse) {
+    return "Location '" + location.identifier() + "' cannot take another warehouse of capacity "
+        + warehouse.capacity + " (max " + location.maxNumberOfWarehouses()
+        + " warehouses, max total capacity " + location.maxCapacity() + ")";
   }
 }
@@ -2,38 +2,36 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutation;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutation.Outcome;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseNotFoundException;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationOccupancyStore;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
+import java.util.Objects;
 
 @ApplicationScoped
 public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
   private final LocationResolver locationResolver;
+  private final LocationOccupancyStore locationOccupancyStore;
 
-  public ReplaceWarehouseUseCase(WarehouseStore warehouseStore, LocationResolver locationResolver) {
+  public ReplaceWarehouseUseCase(WarehouseStore warehouseStore, LocationResolver locationResolver,
+      LocationOccupancyStore locationOccupancyStore) {
     this.warehouseStore = warehouseStore;
     this.locationResolver = locationResolver;
+    this.locationOccupancyStore = locationOccupancyStore;
   }
 
   @Override
   @Transactional
   public void replace(Warehouse newWarehouse) {
-    // Validation 1: Warehouse must exist
-    Warehouse existing = warehouseStore.findByBusinessUnitCode(newWarehouse.businessUnitCode);
-    if (existing == null) {
-      throw new IllegalArgumentException(
-          "Warehouse with business unit code '" + newWarehouse.businessUnitCode + "' does not exist");
-    }
-
-    // Validation 2: Warehouse must not be archived
-    if (existing.archivedAt != null) {
-      throw new IllegalArgumentException(
-          "Warehouse with business unit code '" + newWarehouse.businessUnitCode + "' is archived and cannot be replaced");
-    }
+    // Validations 3 and 4 need no database access and run first, so that an invalid request
+    // never touches the warehouse row
 
     // Validation 3: Location must be valid
     Location location = locationResolver.resolveByIdentifier(newWarehouse.location);
@@ -57,12 +55,37 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
           ") exceeds warehouse capacity (" + newWarehouse.capacity + ")");
     }
 
-    // Update warehouse fields (preserve createdAt, businessUnitCode, archivedAt)
-    existing.location = newWarehouse.location;
-    existing.capacity = newWarehouse.capacity;
-    existing.stock = newWarehouse.stock;
+    // Update location, capacity and stock (preserving createdAt and archivedAt) in one conditional
+    // statement that also returns the values it replaced
+    WarehouseMutation result = warehouseStore.replace(newWarehouse);
 
-    // Update the warehouse
-    warehouseStore.update(existing);
+    // Validation 1: Warehouse must exist
+    if (result.outcome() == Outcome.NOT_FOUND) {
+      throw new WarehouseNotFoundException(newWarehouse.businessUnitCode);
+    }
+
+    // Validation 2: Warehouse must not be archived
+    if (result.outcome() == Outcome.ARCHIVED) {
+      throw new IllegalArgumentException(
+          "Warehouse with business unit code '" + newWarehouse.businessUnitCode + "' is archived and cannot be replaced");
+    }
+
+    // Validation 5: Location limits. The old warehouse gives its slot back first, so replacing
+    // in place at a full location still works; a rejected claim rolls back the release and the
+    // update with it.
+    if (!Objects.equals(result.previousLocation(), newWarehouse.location)
+        || !Objects.equals(result.previousCapacity(), newWarehouse.capacity)) {
+      if (result.previousLocation() != null) {
+        // A row without a capacity held none at its location
+        locationOccupancyStore.release(result.previousLocation(),
+            result.previousCapacity() != null ? result.previousCapacity() : 0);
+      }
+      if (!locationOccupancyStore.tryAllocate(location, newWarehouse.capacity)) {
+        throw new IllegalArgumentException(
+            "Location '" + location.identifier() + "' cannot take a warehouse of capacity "
+            + newWarehouse.capacity + " (max " + location.maxNumberOfWarehouses()
+            + " warehouses, max total capacity " + location.maxCapacity() + ")");
+      }
+    }
   }
 }
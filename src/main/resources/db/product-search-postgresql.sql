@@ -0,0 +1,5 @@
+-- Trigram indexes behind ProductSearch: they serve both the name prefix match (ILIKE 'q%') and
+-- the word similarity operator (<%) on name and description.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_product_name_trgm ON product USING gin (name gin_trgm_ops);
+CREATE INDEX idx_product_description_trgm ON product USING gin (description gin_trgm_ops);
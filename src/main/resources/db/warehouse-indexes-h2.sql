@@ -0,0 +1,5 @@
+-- H2 has no partial indexes; same key columns as warehouse-indexes-postgresql.sql
+CREATE INDEX idx_warehouse_active_location_capacity ON warehouse (location, capacity, id);
+CREATE INDEX idx_warehouse_active_created_at_id ON warehouse (createdAt, id);
+CREATE INDEX idx_warehouse_active_capacity_id ON warehouse (capacity, id);
+CREATE INDEX idx_warehouse_active_stock_id ON warehouse (stock, id);
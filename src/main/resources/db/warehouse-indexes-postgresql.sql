@@ -0,0 +1,7 @@
+-- Search and listing access paths of WarehouseRepository. Every warehouse query filters on
+-- archivedAt IS NULL, so the indexes are partial: archived rows are never indexed or scanned.
+-- id is the last key column because it breaks ties in every search order.
+CREATE INDEX idx_warehouse_active_location_capacity ON warehouse (location, capacity, id) WHERE archivedAt IS NULL;
+CREATE INDEX idx_warehouse_active_created_at_id ON warehouse (createdAt, id) WHERE archivedAt IS NULL;
+CREATE INDEX idx_warehouse_active_capacity_id ON warehouse (capacity, id) WHERE archivedAt IS NULL;
+CREATE INDEX idx_warehouse_active_stock_id ON warehouse (stock, id) WHERE archivedAt IS NULL;
@@ -0,0 +1,27 @@
+package com.fulfilment.application.monolith.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class NameCursorTest {
+
+  @Test
+  public void testCursorsRoundTrip() {
+    for (NameCursor cursor : new NameCursor[] {
+        new NameCursor("KALLAX", 2),
+        new NameCursor("a|b|c", 7),
+        new NameCursor("", 1),
+        new NameCursor(null, 42)}) {
+      assertEquals(cursor, NameCursor.decode(cursor.encode()));
+    }
+  }
+
+  @Test
+  public void testMalformedCursorsAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> NameCursor.decode("not a cursor"));
+    assertThrows(IllegalArgumentException.class, () -> NameCursor.decode(
+        new NameCursor("x", 1).encode().substring(1)));
+    assertThrows(IllegalArgumentException.class, () -> NameCursor.decode("eHw"));
+  }
+}
@@ -0,0 +1,140 @@
+package com.fulfilment.application.monolith.location;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class CachingLocationResolverTest {
+
+  @Test
+  public void testResolveAllAsksCatalogOnceForEachDistinctLocation() {
+    CountingGateway gateway = new CountingGateway(Duration.ZERO);
+    CachingLocationResolver resolver = resolver(gateway, Duration.ofSeconds(30));
+
+    Map<String, Location> first = resolver.resolveAll(
+        List.of("ZWOLLE-001", "ZWOLLE-001", "AMSTERDAM-001", "NOWHERE-001"));
+    Map<String, Location> second = resolver.resolveAll(List.of("AMSTERDAM-001", "NOWHERE-001"));
+
+    assertEquals(2, first.size());
+    assertFalse(first.containsKey("NOWHERE-001"));
+    assertEquals(1, second.size());
+    assertEquals(1, gateway.bulkCalls.get(), "Second call must be answered from the cache");
+    assertEquals(3, gateway.identifiersAsked.get());
+  }
+
+  @Test
+  public void testUnknownLocationIsCachedUntilNegativeTtlExpires() throws InterruptedException {
+    CountingGateway gateway = new CountingGateway(Duration.ZERO);
+    CachingLocationResolver resolver = resolver(gateway, Duration.ofMillis(50));
+
+    assertNull(resolver.resolveByIdentifier("NOWHERE-001"));
+    assertNull(resolver.resolveByIdentifier("NOWHERE-001"));
+    assertEquals(1, gateway.identifiersAsked.get());
+
+    Thread.sleep(100);
+    assertNull(resolver.resolveByIdentifier("NOWHERE-001"));
+    assertEquals(2, gateway.identifiersAsked.get());
+  }
+
+  @Test
+  public void testSlowCatalogTimesOutAndIsNotCached() {
+    CountingGateway gateway = new CountingGateway(Duration.ofSeconds(2));
+    CachingLocationResolver resolver = new CachingLocationResolver(gateway, new SimpleMeterRegistry(),
+        true, Duration.ofMinutes(10), Duration.ofSeconds(30), Duration.ofMillis(100), 1000, 4);
+
+    assertThrows(IllegalStateException.class, () -> resolver.resolveByIdentifier("ZWOLLE-001"));
+    assertThrows(IllegalStateException.class, () -> resolver.resolveByIdentifier("ZWOLLE-001"));
+    assertEquals(2, gateway.identifiersAsked.get());
+  }
+
+  @Test
+  public void testConcurrentMissesShareOneCatalogCall() throws Exception {
+    CountingGateway gateway = new CountingGateway(Duration.ofMillis(200));
+    CachingLocationResolver resolver = resolver(gateway, Duration.ofSeconds(30));
+    ExecutorService callers = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Location>> answers = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        answers.add(callers.submit(() -> resolver.resolveByIdentifier("ZWOLLE-001")));
+      }
+      for (Future<Location> answer : answers) {
+        assertEquals("ZWOLLE-001", answer.get().identifier());
+      }
+    } finally {
+      callers.shutdownNow();
+    }
+    assertEquals(1, gateway.identifiersAsked.get());
+  }
+
+  @Test
+  public void testFullCacheEvictsLeastRecentlyUsedEntry() {
+    CountingGateway gateway = new CountingGateway(Duration.ZERO);
+    CachingLocationResolver resolver = new CachingLocationResolver(gateway,
+        new SimpleMeterRegistry(), true, Duration.ofMinutes(10), Duration.ofSeconds(30),
+        Duration.ofSeconds(1), 2, 4);
+
+    resolver.resolveByIdentifier("ZWOLLE-001");
+    resolver.resolveByIdentifier("AMSTERDAM-001");
+    resolver.resolveByIdentifier("ZWOLLE-001");
+    resolver.resolveByIdentifier("TILBURG-001");
+    assertEquals(3, gateway.identifiersAsked.get());
+
+    // ZWOLLE-001 was used more recently than AMSTERDAM-001, so AMSTERDAM-001 made room
+    resolver.resolveByIdentifier("ZWOLLE-001");
+    resolver.resolveByIdentifier("TILBURG-001");
+    assertEquals(3, gateway.identifiersAsked.get());
+    resolver.resolveByIdentifier("AMSTERDAM-001");
+    assertEquals(4, gateway.identifiersAsked.get());
+  }
+
+  // ---- helper ----
+
+  CachingLocationResolver resolver(LocationGateway gateway, Duration negativeTtl) {
+    return new CachingLocationResolver(gateway, new SimpleMeterRegistry(),
+        true, Duration.ofMinutes(10), negativeTtl, Duration.ofSeconds(1), 1000, 4);
+  }
+
+  static class CountingGateway extends LocationGateway {
+    final AtomicInteger bulkCalls = new AtomicInteger();
+    final AtomicInteger identifiersAsked = new AtomicInteger();
+    final Duration delay;
+
+    CountingGateway(Duration delay) {
+      this.delay = delay;
+    }
+
+    @Override
+    public Location resolveByIdentifier(String identifier) {
+      identifiersAsked.incrementAndGet();
+      pause();
+      return super.resolveByIdentifier(identifier);
+    }
+
+    @Override
+    public Map<String, Location> resolveAll(Collection<String> identifiers) {
+      bulkCalls.incrementAndGet();
+      identifiersAsked.addAndGet(identifiers.size());
+      pause();
+      return super.resolveAll(identifiers);
+    }
+
+    private void pause() {
+      try {
+        Thread.sleep(delay.toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -1,18 +1,111 @@
 package com.fulfilment.application.monolith.location;
 
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class LocationGatewayTest {
 
+  @TempDir
+  Path tempDir;
+
   @Test
   public void testWhenResolveExistingLocationShouldReturn() {
     // given
-    // LocationGateway locationGateway = new LocationGateway();
+    LocationGateway locationGateway = new LocationGateway();
 
     // when
-    // Location location = locationGateway.resolveByIdentifier("ZWOLLE-001");
+    Location location = locationGateway.resolveByIdentifier("ZWOLLE-001");
 
     // then
-    // assertEquals(location.identification, "ZWOLLE-001");
+    assertEquals("ZWOLLE-001", location.identifier());
+    assertEquals(1, location.maxNumberOfWarehouses());
+    assertEquals(40, location.maxCapacity());
+  }
+
+  @Test
+  public void testWhenResolveUnknownLocationShouldReturnNull() {
+    LocationGateway locationGateway = new LocationGateway();
+
+    assertNull(locationGateway.resolveByIdentifier("NOWHERE-001"));
+    assertNull(locationGateway.resolveByIdentifier(null));
+  }
+
+  @Test
+  public void testReloadSwapsInChangedFile() throws IOException {
+    Path file = tempDir.resolve("locations.csv");
+    Files.writeString(file, "A-001,1,10\n#end,1\n");
+    LocationGateway locationGateway = new LocationGateway(Optional.of(file.toString()));
+
+    assertFalse(locationGateway.reload(), "Unchanged file must not be reloaded");
+
+    Files.writeString(file, "# two locations\nA-001,2,20\n\nB-001,1,5\n#end,2\n");
+    Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+
+    assertTrue(locationGateway.reload());
+    assertEquals(2, locationGateway.size());
+    assertEquals(20, locationGateway.resolveByIdentifier("A-001").maxCapacity());
+    assertNotNull(locationGateway.resolveByIdentifier("B-001"));
+  }
+
+  @Test
+  public void testReloadKeepsCurrentCatalogWhenFileIsInvalid() throws IOException {
+    Path file = tempDir.resolve("locations.csv");
+    Files.writeString(file, "A-001,1,10\n#end,1\n");
+    LocationGateway locationGateway = new LocationGateway(Optional.of(file.toString()));
+
+    Files.writeString(file, "A-001,1,10\nB-001,not-a-number,5\n#end,2\n");
+    Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+
+    assertFalse(locationGateway.reload());
+    assertEquals(1, locationGateway.size());
+    assertNotNull(locationGateway.resolveByIdentifier("A-001"));
+  }
+
+  @Test
+  public void testReloadKeepsCurrentCatalogWhileFileIsIncomplete() throws IOException {
+    Path file = tempDir.resolve("locations.csv");
+    Files.writeString(file, "A-001,1,10\n#end,1\n");
+    LocationGateway locationGateway = new LocationGateway(Optional.of(file.toString()));
+
+    // Cut off before the trailer, as a copy still in progress would be
+    Files.writeString(file, "A-001,1,10\nB-001,1,5\nC-0");
+    Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+
+    assertFalse(locationGateway.reload());
+    assertEquals(1, locationGateway.size());
+
+    Files.writeString(file, "A-001,1,10\nB-001,1,5\nC-001,1,5\n#end,3\n");
+    Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+
+    assertTrue(locationGateway.reload());
+    assertEquals(3, locationGateway.size());
+  }
+
+  @Test
+  public void testCompleteCatalogRejectsTrailerThatDoesNotMatch() throws IOException {
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+        () -> LocationCatalog.parseComplete(new StringReader("A-001,1,10\n#end,2\n")));
+
+    assertTrue(exception.getMessage().contains("declares 2"));
+    assertThrows(IllegalArgumentException.class,
+        () -> LocationCatalog.parseComplete(new StringReader("A-001,1,10\n#end,1\nB-001,1,5\n")));
+    assertEquals(1, LocationCatalog.parse(new StringReader("A-001,1,10\n")).size());
+  }
+
+  @Test
+  public void testCatalogRejectsDuplicateIdentifiers() {
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+        () -> LocationCatalog.parse(new StringReader("A-001,1,10\nA-001,2,20\n")));
+
+    assertTrue(exception.getMessage().contains("more than once"));
   }
 }
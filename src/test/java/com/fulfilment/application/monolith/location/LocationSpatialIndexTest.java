@@ -0,0 +1,58 @@
+package com.fulfilment.application.monolith.location;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class LocationSpatialIndexTest {
+
+  @Test
+  public void testVisitsLocationsInOrderOfDistance() {
+    Random random = new Random(42);
+    List<Location> locations = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      locations.add(new Location("LOC-" + i, 1, 100,
+          random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180));
+    }
+    LocationSpatialIndex index = LocationCatalog.of(locations).spatialIndex();
+
+    double latitude = 51.44;
+    double longitude = 5.47;
+    List<String> expected = locations.stream()
+        .sorted(Comparator.comparingDouble(l ->
+            LocationSpatialIndex.distanceKm(latitude, longitude, l.latitude(), l.longitude())))
+        .limit(25)
+        .map(Location::identifier)
+        .toList();
+
+    List<String> visited = new ArrayList<>();
+    index.forEachNearest(latitude, longitude, (location, distanceKm) -> {
+      visited.add(location.identifier());
+      return visited.size() < 25;
+    });
+
+    assertEquals(expected, visited);
+  }
+
+  @Test
+  public void testLocationsWithoutCoordinatesAreNotIndexed() {
+    LocationSpatialIndex index = LocationCatalog.of(List.of(
+        new Location("WITH-001", 1, 10, 52.0, 5.0),
+        new Location("WITHOUT-001", 1, 10))).spatialIndex();
+
+    assertEquals(1, index.size());
+  }
+
+  @Test
+  public void testDistanceBetweenKnownCities() {
+    // Amsterdam to Eindhoven is about 110 km
+    double distance = LocationSpatialIndex.distanceKm(52.3676, 4.9041, 51.4416, 5.4697);
+
+    assertEquals(110, distance, 5);
+  }
+}
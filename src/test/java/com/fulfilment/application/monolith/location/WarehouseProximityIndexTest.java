@@ -0,0 +1,53 @@
+package com.fulfilment.application.monolith.location;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.location.WarehouseProximityIndex.Slot;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.NearestWarehouse;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class WarehouseProximityIndexTest {
+
+  private final LocationSpatialIndex locations = LocationCatalog.of(List.of(
+      new Location("NEAR", 5, 500, 51.44, 5.47),
+      new Location("FAR", 5, 500, 52.37, 4.90))).spatialIndex();
+
+  @Test
+  public void testKeepsEachLocationLargestFreeFirstAcrossChanges() {
+    WarehouseProximityIndex index = new WarehouseProximityIndex();
+    index.put(new Slot("W-B", "NEAR", 100, 50));
+    index.put(new Slot("W-A", "NEAR", 100, 50));
+    index.put(new Slot("W-C", "NEAR", 100, 10));
+    index.put(new Slot("W-D", "NEAR", 100, 90));
+    index.put(new Slot("W-E", "FAR", 100, 0));
+
+    assertEquals(List.of("W-C", "W-A", "W-B", "W-D", "W-E"), codes(index, 10, 0));
+
+    // Moves within the location and to another one
+    index.put(new Slot("W-D", "NEAR", 100, 0));
+    index.put(new Slot("W-A", "FAR", 100, 95));
+    index.remove("W-C");
+
+    assertEquals(List.of("W-D", "W-B", "W-E", "W-A"), codes(index, 10, 0));
+    assertEquals(4, index.size());
+  }
+
+  @Test
+  public void testStopsAtWarehousesWithoutEnoughRoom() {
+    WarehouseProximityIndex index = new WarehouseProximityIndex();
+    index.put(new Slot("W-A", "NEAR", 100, 80));
+    index.put(new Slot("W-B", "NEAR", 100, 10));
+    index.put(new Slot("W-C", "FAR", 100, 30));
+
+    assertEquals(List.of("W-B", "W-C"), codes(index, 10, 50));
+    assertEquals(List.of("W-B"), codes(index, 1, 0));
+  }
+
+  private List<String> codes(WarehouseProximityIndex index, int limit, int minFreeCapacity) {
+    return index.nearest(locations, 51.44, 5.47, limit, minFreeCapacity).stream()
+        .map(NearestWarehouse::businessUnitCode)
+        .toList();
+  }
+}
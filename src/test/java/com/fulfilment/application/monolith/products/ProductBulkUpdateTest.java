@@ -0,0 +1,176 @@
+package com.fulfilment.application.monolith.products;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.response.ValidatableResponse;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/** Tests for bulk price and stock updates; chunks are 2 products in the test profile. */
+@QuarkusTest
+public class ProductBulkUpdateTest {
+
+  @Test
+  public void testDryRunPreviewsWithoutChanging() {
+    String prefix = uniquePrefix();
+    int id = createProduct(prefix + "-A", "10.00", 1);
+    createProduct(prefix + "-B", "20.00", 1);
+
+    given()
+        .contentType("application/json")
+        .queryParam("dryRun", true)
+        .body(byPrefix(prefix, "\"pricePercent\": 10"))
+        .when().post("/product/bulk-update")
+        .then()
+        .statusCode(200)
+        .body("matched", is(2))
+        .body("sample.id", hasItem(id))
+        .body("sample.newPrice", contains(11.0f, 22.0f));
+
+    given().when().get("/product/" + id).then().statusCode(200).body("price", is(10.0f));
+  }
+
+  @Test
+  public void testPriceChangeAppliesToFilteredProductsInChunks() {
+    String prefix = uniquePrefix();
+    int a = createProduct(prefix + "-A", "10.00", 1);
+    int b = createProduct(prefix + "-B", "4.00", 1);
+    int c = createProduct(prefix + "-C", "100.00", 1);
+    int other = createProduct(uniquePrefix(), "10.00", 1);
+
+    given()
+        .contentType("application/json")
+        .body(byPrefix(prefix, "\"pricePercent\": -25"))
+        .when().post("/product/bulk-update")
+        .then()
+        .statusCode(200)
+        .body("status", is("FINISHED"))
+        .body("updated", is(3))
+        .body("chunks", is(2));
+
+    given().when().get("/product/" + a).then().body("price", is(7.5f));
+    given().when().get("/product/" + b).then().body("price", is(3.0f));
+    given().when().get("/product/" + c).then().body("price", is(75.0f));
+    given().when().get("/product/" + other).then().body("price", is(10.0f));
+  }
+
+  @Test
+  public void testStockSetHonoursStockBounds() {
+    String prefix = uniquePrefix();
+    int low = createProduct(prefix + "-A", "1.00", 1);
+    int high = createProduct(prefix + "-B", "1.00", 9);
+
+    given()
+        .contentType("application/json")
+        .body("{\"filter\": {\"namePrefix\": \"" + prefix + "\", \"minStock\": 5},"
+            + " \"stock\": 0}")
+        .when().post("/product/bulk-update")
+        .then()
+        .statusCode(200)
+        .body("updated", is(1));
+
+    given().when().get("/product/" + low).then().body("stock", is(1));
+    given().when().get("/product/" + high).then().body("stock", is(0));
+  }
+
+  @Test
+  public void testStockSetReachesReservableStock() {
+    String prefix = uniquePrefix();
+    int id = createProduct(prefix, "1.00", 2);
+    reserve(id, 1).statusCode(201);
+
+    given()
+        .contentType("application/json")
+        .body(byPrefix(prefix, "\"stock\": 6"))
+        .when().post("/product/bulk-update")
+        .then()
+        .statusCode(200)
+        .body("updated", is(1));
+
+    reserve(id, 6).statusCode(201);
+    reserve(id, 1).statusCode(409);
+  }
+
+  @Test
+  public void testAsyncUpdateReportsProgressUntilFinished() throws InterruptedException {
+    String prefix = uniquePrefix();
+    for (int i = 0; i < 5; i++) {
+      createProduct(prefix + "-" + i, "2.00", 1);
+    }
+
+    String location = given()
+        .contentType("application/json")
+        .queryParam("async", true)
+        .body(byPrefix(prefix, "\"price\": 3.50"))
+        .when().post("/product/bulk-update")
+        .then()
+        .statusCode(202)
+        .body("id", notNullValue())
+        .extract().header("Location");
+
+    String status = "RUNNING";
+    for (int i = 0; i < 100 && status.equals("RUNNING"); i++) {
+      Thread.sleep(50);
+      status = given().when().get(location).then().statusCode(200).extract().path("status");
+    }
+
+    given()
+        .when().get(location)
+        .then()
+        .statusCode(200)
+        .body("status", is("FINISHED"))
+        .body("updated", is(5))
+        .body("chunks", is(3));
+  }
+
+  @Test
+  public void testInvalidUpdatesAreRejected() {
+    given()
+        .contentType("application/json")
+        .body("{\"filter\": {\"namePrefix\": \"x\"}}")
+        .when().post("/product/bulk-update")
+        .then()
+        .statusCode(422);
+    given()
+        .contentType("application/json")
+        .body("{\"pricePercent\": 5, \"price\": 1}")
+        .when().post("/product/bulk-update")
+        .then()
+        .statusCode(422);
+    given()
+        .contentType("application/json")
+        .body("{\"stock\": -1}")
+        .when().post("/product/bulk-update")
+        .then()
+        .statusCode(422);
+    given().when().get("/product/bulk-update/unknown").then().statusCode(404);
+  }
+
+  private static String byPrefix(String prefix, String rule) {
+    return "{\"filter\": {\"namePrefix\": \"" + prefix + "\"}, " + rule + "}";
+  }
+
+  private static String uniquePrefix() {
+    return "BULK" + UUID.randomUUID().toString().substring(0, 8);
+  }
+
+  private static ValidatableResponse reserve(int id, int quantity) {
+    return given()
+        .contentType("application/json")
+        .body("{\"quantity\": " + quantity + "}")
+        .when().post("/product/" + id + "/reservation")
+        .then();
+  }
+
+  private static int createProduct(String name, String price, int stock) {
+    return given()
+        .contentType("application/json")
+        .body("{\"name\": \"" + name + "\", \"price\": " + price + ", \"stock\": " + stock + "}")
+        .when().post("/product")
+        .then()
+        .statusCode(201)
+        .extract().path("id");
+  }
+}
@@ -0,0 +1,173 @@
+package com.fulfilment.application.monolith.products;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.response.ValidatableResponse;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+/** Tests for stock reservations on striped product stock. */
+@QuarkusTest
+public class ProductReservationTest {
+
+  @Inject
+  ProductStock productStock;
+
+  @Test
+  public void testReserveAndCommitTakesUnitsFromStock() {
+    int productId = createProduct(10);
+
+    int reservationId = reserve(productId, 3)
+        .statusCode(201)
+        .body("status", is("HELD"))
+        .body("quantity", is(3))
+        .extract().path("id");
+
+    given()
+        .when().post("/product/" + productId + "/reservation/" + reservationId + "/commit")
+        .then()
+        .statusCode(200)
+        .body("status", is("COMMITTED"));
+
+    assertStock(productId, 7);
+  }
+
+  @Test
+  public void testReleaseReturnsUnitsOnlyOnce() {
+    int productId = createProduct(5);
+    int reservationId = reserve(productId, 5).statusCode(201).extract().path("id");
+    reserve(productId, 1).statusCode(409);
+
+    given().when().delete("/product/" + productId + "/reservation/" + reservationId)
+        .then().statusCode(204);
+    given().when().delete("/product/" + productId + "/reservation/" + reservationId)
+        .then().statusCode(409);
+    given().when().post("/product/" + productId + "/reservation/" + reservationId + "/commit")
+        .then().statusCode(409);
+
+    assertStock(productId, 5);
+  }
+
+  @Test
+  public void testStockIsNeverOversold() throws Exception {
+    int productId = createProduct(50);
+    ExecutorService buyers = Executors.newFixedThreadPool(8);
+    try {
+      List<Callable<Boolean>> attempts = new ArrayList<>();
+      for (int i = 0; i < 40; i++) {
+        attempts.add(() -> {
+          try {
+            productStock.reserve((long) productId, 2, null);
+            return true;
+          } catch (InsufficientStockException e) {
+            return false;
+          }
+        });
+      }
+      int held = 0;
+      for (Future<Boolean> attempt : buyers.invokeAll(attempts)) {
+        held += attempt.get() ? 1 : 0;
+      }
+      assertEquals(25, held);
+    } finally {
+      buyers.shutdown();
+    }
+    assertStock(productId, 0);
+  }
+
+  @Test
+  public void testReservationsFragmentedOverStripesStillAddUp() {
+    // 16 stripes of 1 or 2 units: no single stripe can serve 20
+    int productId = createProduct(30);
+    reserve(productId, 20).statusCode(201);
+    reserve(productId, 10).statusCode(201);
+    reserve(productId, 1).statusCode(409);
+    assertStock(productId, 0);
+  }
+
+  @Test
+  public void testExpiredHoldsReturnTheirUnits() throws InterruptedException {
+    int productId = createProduct(4);
+    ProductReservation reservation =
+        productStock.reserve((long) productId, 4, Duration.ofMillis(1));
+    Thread.sleep(10);
+
+    productStock.expireHolds();
+
+    assertEquals(ProductReservation.Status.EXPIRED, productStock.find(reservation.id).status);
+    given()
+        .when().post("/product/" + productId + "/reservation/" + reservation.id + "/commit")
+        .then()
+        .statusCode(409);
+    assertStock(productId, 4);
+  }
+
+  @Test
+  public void testSettingStockSpreadsItOverTheStripes() {
+    int productId = createProduct(10);
+    reserve(productId, 2).statusCode(201);
+
+    given()
+        .contentType("application/json")
+        .body("{\"name\": \"RESERVE-SET-" + productId + "\", \"stock\": 20}")
+        .when().put("/product/" + productId)
+        .then()
+        .statusCode(200);
+
+    reserve(productId, 20).statusCode(201);
+    reserve(productId, 1).statusCode(409);
+    assertStock(productId, 0);
+  }
+
+  @Test
+  public void testInvalidReservationsAreRejected() {
+    int productId = createProduct(1);
+    reserve(productId, 0).statusCode(422);
+    given()
+        .contentType("application/json")
+        .body("{\"quantity\": 1, \"holdSeconds\": 999999}")
+        .when().post("/product/" + productId + "/reservation")
+        .then()
+        .statusCode(422);
+    reserve(99999, 1).statusCode(404);
+    given().when().get("/product/" + productId + "/reservation/99999").then().statusCode(404);
+  }
+
+  private static ValidatableResponse reserve(int productId, int quantity) {
+    return given()
+        .contentType("application/json")
+        .body("{\"quantity\": " + quantity + "}")
+        .when().post("/product/" + productId + "/reservation")
+        .then();
+  }
+
+  // Product.stock follows the stripes on the next roll-up
+  private void assertStock(int productId, int expected) {
+    productStock.rollUp();
+    given()
+        .when().get("/product/" + productId)
+        .then()
+        .statusCode(200)
+        .body("stock", is(expected));
+  }
+
+  private static int createProduct(int stock) {
+    return given()
+        .contentType("application/json")
+        .body("{\"name\": \"RESERVE-" + System.nanoTime() + "\", \"stock\": " + stock + "}")
+        .when().post("/product")
+        .then()
+        .statusCode(201)
+        .extract().path("id");
+  }
+}
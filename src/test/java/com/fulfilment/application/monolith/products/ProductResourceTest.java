@@ -2,8 +2,18 @@ package com.fulfilment.application.monolith.products;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.fulfilment.application.monolith.common.NameOrderedPages;
 import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.response.Response;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -167,4 +177,247 @@ public class ProductResourceTest {
         .then()
         .statusCode(404);
   }
+
+  // ---- CONDITIONAL GET ----
+
+  @Test
+  public void testProductListIsNotModifiedUntilCatalogChanges() {
+    String etag = given()
+        .when().get("/product")
+        .then()
+        .statusCode(200)
+        .header("ETag", notNullValue())
+        .extract().header("ETag");
+
+    given()
+        .header("If-None-Match", etag)
+        .when().get("/product")
+        .then()
+        .statusCode(304);
+
+    createProduct("ETAG-LIST-" + System.nanoTime());
+
+    String newEtag = given()
+        .header("If-None-Match", etag)
+        .when().get("/product")
+        .then()
+        .statusCode(200)
+        .extract().header("ETag");
+    assertNotEquals(etag, newEtag);
+  }
+
+  @Test
+  public void testSingleProductIsNotModifiedUntilItChanges() {
+    String name = "ETAG-ONE-" + System.nanoTime();
+    int id = createProduct(name);
+
+    String etag = given()
+        .when().get("/product/" + id)
+        .then()
+        .statusCode(200)
+        .extract().header("ETag");
+
+    given()
+        .header("If-None-Match", etag)
+        .when().get("/product/" + id)
+        .then()
+        .statusCode(304);
+
+    given()
+        .contentType("application/json")
+        .body("{\"name\": \"" + name + "\", \"stock\": 7}")
+        .when().put("/product/" + id)
+        .then()
+        .statusCode(200);
+
+    given()
+        .header("If-None-Match", etag)
+        .when().get("/product/" + id)
+        .then()
+        .statusCode(200)
+        .body("stock", is(7));
+
+    given().when().delete("/product/" + id).then().statusCode(204);
+
+    given()
+        .header("If-None-Match", etag)
+        .when().get("/product/" + id)
+        .then()
+        .statusCode(404);
+  }
+
+  // ---- SEARCH ----
+
+  @Test
+  public void testSearchReturnsPrefixMatchesInNameOrderAndPages() {
+    String prefix = "SRCH" + randomWord();
+    int first = createProduct(prefix + "-A");
+    int second = createProduct(prefix + "-B");
+
+    given()
+        .queryParam("q", prefix.toLowerCase())
+        .when().get("/product/search")
+        .then()
+        .statusCode(200)
+        .body("hits.id", contains(first, second))
+        .body("hits.score", everyItem(is(1.0f)))
+        .body("hasMore", is(false));
+
+    given()
+        .queryParam("q", prefix)
+        .queryParam("size", 1)
+        .when().get("/product/search")
+        .then()
+        .statusCode(200)
+        .body("hits.id", contains(first))
+        .body("hasMore", is(true));
+
+    given()
+        .queryParam("q", prefix)
+        .queryParam("page", 1)
+        .queryParam("size", 1)
+        .when().get("/product/search")
+        .then()
+        .statusCode(200)
+        .body("hits.id", contains(second))
+        .body("hasMore", is(false));
+  }
+
+  @Test
+  public void testSearchToleratesTypos() {
+    int id = createProduct("QWERTYLAMP " + randomWord());
+
+    given()
+        .queryParam("q", "qwertylmp")
+        .when().get("/product/search")
+        .then()
+        .statusCode(200)
+        .body("hits.id", hasItem(id));
+  }
+
+  @Test
+  public void testSearchMatchesDescription() {
+    // Name and description share no trigram, so only the description can match
+    String word = randomWord();
+    int id = given()
+        .contentType("application/json")
+        .body("{\"name\": \"DESC-" + randomWord() + "\", \"description\": \"lamp " + word
+            + "\", \"stock\": 1}")
+        .when().post("/product")
+        .then()
+        .statusCode(201)
+        .extract().path("id");
+
+    given()
+        .queryParam("q", word)
+        .when().get("/product/search")
+        .then()
+        .statusCode(200)
+        .body("hits.id", contains(id))
+        .body("hits[0].score", is(0.5f));
+  }
+
+  @Test
+  public void testSearchSeesUpdatesAndDeletes() {
+    String name = "SRCHUPD" + randomWord();
+    int id = createProduct(name);
+    given().queryParam("q", name).when().get("/product/search")
+        .then().statusCode(200).body("hits.id", contains(id));
+
+    given()
+        .contentType("application/json")
+        .body("{\"name\": \"RENAMED-" + name + "\", \"stock\": 1}")
+        .when().put("/product/" + id)
+        .then()
+        .statusCode(200);
+    given().queryParam("q", "renamed-" + name).when().get("/product/search")
+        .then().statusCode(200).body("hits.id", contains(id));
+
+    given().when().delete("/product/" + id).then().statusCode(204);
+    given().queryParam("q", "renamed-" + name).when().get("/product/search")
+        .then().statusCode(200).body("hits", empty());
+  }
+
+  @Test
+  public void testSearchWithoutQueryIsRejected() {
+    given()
+        .queryParam("q", " ")
+        .when().get("/product/search")
+        .then()
+        .statusCode(400);
+  }
+
+  // ---- PAGINATION AND EXPORT ----
+
+  @Test
+  public void testCursorPagesCoverTheCatalogInNameOrder() {
+    for (int i = 0; i < 5; i++) {
+      createProduct("PAGE-" + i + "-" + System.nanoTime());
+    }
+    List<Integer> all = given().when().get("/product").then().statusCode(200)
+        .extract().jsonPath().getList("id", Integer.class);
+
+    List<Integer> paged = new ArrayList<>();
+    List<String> names = new ArrayList<>();
+    String cursor = "";
+    while (cursor != null) {
+      Response page = given()
+          .queryParam("cursor", cursor)
+          .queryParam("pageSize", 3)
+          .when().get("/product");
+      page.then().statusCode(200).body("size()", lessThanOrEqualTo(3));
+      paged.addAll(page.jsonPath().getList("id", Integer.class));
+      names.addAll(page.jsonPath().getList("name", String.class));
+      cursor = page.header(NameOrderedPages.NEXT_CURSOR_HEADER);
+    }
+
+    assertEquals(new HashSet<>(all), new HashSet<>(paged));
+    assertEquals(all.size(), paged.size());
+    List<String> named = names.stream().filter(Objects::nonNull).toList();
+    assertEquals(named.stream().sorted().toList(), named);
+  }
+
+  @Test
+  public void testMalformedCursorIsRejected() {
+    given()
+        .queryParam("cursor", "not a cursor")
+        .when().get("/product")
+        .then()
+        .statusCode(400);
+  }
+
+  @Test
+  public void testExportStreamsEveryProductAsOneJsonLine() {
+    String name = "EXPORT-" + System.nanoTime();
+    createProduct(name);
+    int count = given().when().get("/product").then().statusCode(200)
+        .extract().jsonPath().getList("id").size();
+
+    String body = given()
+        .when().get("/product/export")
+        .then()
+        .statusCode(200)
+        .contentType(startsWith(NameOrderedPages.APPLICATION_NDJSON))
+        .extract().asString();
+
+    String[] lines = body.split("\n");
+    assertEquals(count, lines.length);
+    assertTrue(body.contains("\"name\":\"" + name + "\""));
+    assertTrue(lines[0].startsWith("{") && lines[0].endsWith("}"));
+  }
+
+  // Random, so that fuzzy search does not match the products of other tests by accident
+  private static String randomWord() {
+    return UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+  }
+
+  private static int createProduct(String name) {
+    return given()
+        .contentType("application/json")
+        .body("{\"name\": \"" + name + "\", \"stock\": 1}")
+        .when().post("/product")
+        .then()
+        .statusCode(201)
+        .extract().path("id");
+  }
 }
@@ -0,0 +1,82 @@
+package com.fulfilment.application.monolith.products;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ProductSearchIndexTest {
+
+  private final ProductSearchIndex index = new ProductSearchIndex();
+
+  @Test
+  public void testPrefixMatchesComeFirstInNameOrder() {
+    index.put(1, "KALLAX", null);
+    index.put(2, "KALLAX SHELF", null);
+    index.put(3, "KAL", null);
+    index.put(4, "TONSTAD", null);
+
+    List<ProductSearchIndex.Match> matches = index.search("kal", 0, 10, 0.6);
+
+    assertEquals(List.of(3L, 1L, 2L), ids(matches));
+    assertTrue(matches.stream().allMatch(match -> match.score() == 1.0));
+  }
+
+  @Test
+  public void testTypoMatchesBySimilarity() {
+    index.put(1, "KALLAX", null);
+    index.put(2, "TONSTAD", null);
+
+    List<ProductSearchIndex.Match> matches = index.search("kalax", 0, 10, 0.6);
+
+    assertEquals(List.of(1L), ids(matches));
+    assertTrue(matches.get(0).score() < 1.0);
+  }
+
+  @Test
+  public void testDescriptionMatchesRankBelowNameMatches() {
+    index.put(1, "BILLY", "bookcase in white");
+    index.put(2, "BOOKCASE", null);
+    index.put(3, "HEMNES", "a bokcase with doors");
+
+    List<ProductSearchIndex.Match> matches = index.search("bookcase", 0, 10, 0.6);
+
+    assertEquals(List.of(2L, 1L, 3L), ids(matches));
+    assertEquals(ProductSearchIndex.DESCRIPTION_WEIGHT, matches.get(1).score());
+  }
+
+  @Test
+  public void testDissimilarProductsDoNotMatch() {
+    index.put(1, "TONSTAD", "sideboard");
+
+    assertTrue(index.search("kallax", 0, 10, 0.6).isEmpty());
+  }
+
+  @Test
+  public void testPagesContinueFromPrefixIntoSimilarMatches() {
+    index.put(1, "KALLAX", null);
+    index.put(2, "KALLAXX", null);
+    index.put(3, "XKALLAX", null);
+
+    assertEquals(List.of(1L, 2L, 3L), ids(index.search("kallax", 0, 10, 0.6)));
+    assertEquals(List.of(2L), ids(index.search("kallax", 1, 1, 0.6)));
+    assertEquals(List.of(3L), ids(index.search("kallax", 2, 1, 0.6)));
+    assertTrue(index.search("kallax", 3, 1, 0.6).isEmpty());
+  }
+
+  @Test
+  public void testUpdatedAndRemovedProductsLeaveTheIndex() {
+    index.put(1, "KALLAX", null);
+    index.put(1, "TONSTAD", null);
+    index.put(2, "KALLAX SHELF", null);
+    index.remove(2);
+
+    assertTrue(index.search("kallax", 0, 10, 0.6).isEmpty());
+    assertEquals(List.of(1L), ids(index.search("tonstad", 0, 10, 0.6)));
+    assertEquals(1, index.size());
+  }
+
+  private static List<Long> ids(List<ProductSearchIndex.Match> matches) {
+    return matches.stream().map(ProductSearchIndex.Match::id).toList();
+  }
+}
@@ -0,0 +1,42 @@
+package com.fulfilment.application.monolith.stores;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Stand-in for the legacy system's store data in tests; tests put whatever state they need. */
+@ApplicationScoped
+@Alternative
+@Priority(1)
+public class InMemoryLegacyStoreReader implements LegacyStoreReader {
+
+  private final Map<Long, StoreSnapshot> stores = new ConcurrentHashMap<>();
+
+  public void put(StoreSnapshot store) {
+    stores.put(store.id(), store);
+  }
+
+  public void remove(Long storeId) {
+    stores.remove(storeId);
+  }
+
+  public void clear() {
+    stores.clear();
+  }
+
+  @Override
+  public Map<Long, StoreSnapshot> findByIds(Collection<Long> storeIds) {
+    Map<Long, StoreSnapshot> found = new HashMap<>();
+    for (Long storeId : storeIds) {
+      StoreSnapshot store = stores.get(storeId);
+      if (store != null) {
+        found.put(storeId, store);
+      }
+    }
+    return found;
+  }
+}
@@ -0,0 +1,86 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JournalLegacyStoreReaderTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  public void testReturnsLatestStateOfRequestedStoresOnly() {
+    try (StoreJournal journal = new StoreJournal(tempDir, 128)) {
+      for (long id = 1; id <= 10; id++) {
+        journal.append(record(StoreJournalRecord.Type.CREATED, id, "Store-" + id, 1));
+      }
+      journal.append(record(StoreJournalRecord.Type.UPDATED, 3, "Store-3b", 7));
+      journal.append(new StoreJournalRecord(StoreJournalRecord.Type.UPDATED, null, null, 9));
+    }
+
+    Map<Long, StoreSnapshot> found = reader("journal").findByIds(List.of(3L, 5L, 42L));
+
+    assertEquals(Map.of(
+        3L, new StoreSnapshot(3L, "Store-3b", 7),
+        5L, new StoreSnapshot(5L, "Store-5", 1)), found);
+  }
+
+  @Test
+  public void testScanReadsTheJournalOncePerWindow() {
+    try (StoreJournal journal = new StoreJournal(tempDir, 128)) {
+      for (long id = 10; id >= 1; id--) {
+        journal.append(record(StoreJournalRecord.Type.CREATED, id, "Store-" + id, 1));
+      }
+      journal.append(record(StoreJournalRecord.Type.UPDATED, 4, "Store-4b", 7));
+      journal.append(record(StoreJournalRecord.Type.UPDATED, 9, "Store-9b", 7));
+    }
+    JournalLegacyStoreReader reader = reader("journal");
+    reader.scanWindow = 4;
+
+    try (JournalLegacyStoreReader.WindowedScan scan = reader.openScan()) {
+      assertEquals(Map.of(
+          1L, new StoreSnapshot(1L, "Store-1", 1),
+          2L, new StoreSnapshot(2L, "Store-2", 1)), scan.findByIds(List.of(2L, 1L)));
+      assertEquals(Map.of(
+          4L, new StoreSnapshot(4L, "Store-4b", 7)), scan.findByIds(List.of(4L)));
+      assertEquals(1, scan.passes());
+
+      assertEquals(Map.of(
+          5L, new StoreSnapshot(5L, "Store-5", 1),
+          9L, new StoreSnapshot(9L, "Store-9b", 7)), scan.findByIds(List.of(5L, 9L, 42L)));
+      assertEquals(3, scan.passes());
+    }
+  }
+
+  @Test
+  public void testEmptyJournalKnowsNoStores() {
+    assertTrue(reader("journal").findByIds(List.of(1L)).isEmpty());
+  }
+
+  @Test
+  public void testTempFileTransportCannotBeRead() {
+    JournalLegacyStoreReader reader = reader("tempfile");
+
+    assertThrows(IllegalStateException.class, reader::checkReadable);
+    assertThrows(IllegalStateException.class, () -> reader.findByIds(List.of(1L)));
+    assertThrows(IllegalStateException.class, reader::openScan);
+  }
+
+  private JournalLegacyStoreReader reader(String transport) {
+    JournalLegacyStoreReader reader = new JournalLegacyStoreReader();
+    reader.transport = transport;
+    reader.journalDirectory = tempDir.toString();
+    reader.scanWindow = 100;
+    return reader;
+  }
+
+  private static StoreJournalRecord record(StoreJournalRecord.Type type, long id, String name,
+      int stock) {
+    return new StoreJournalRecord(type, id, name, stock);
+  }
+}
@@ -0,0 +1,120 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.stores.LegacyStoreCircuitBreaker.State;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class LegacyStoreCircuitBreakerTest {
+
+  private static final long FAST = Duration.ofMillis(10).toNanos();
+  private static final long SLOW = Duration.ofSeconds(5).toNanos();
+
+  private final AtomicLong clock = new AtomicLong();
+  private final List<State> transitions = new ArrayList<>();
+  private final LegacyStoreCircuitBreaker breaker = new LegacyStoreCircuitBreaker(10, 4, 50, 50,
+      Duration.ofSeconds(1), Duration.ofSeconds(30), 2, clock::get, transitions::add);
+
+  @Test
+  public void testStaysClosedBelowMinimumCalls() {
+    call(true, FAST);
+    call(true, FAST);
+    call(true, FAST);
+
+    assertEquals(State.CLOSED, breaker.state());
+  }
+
+  @Test
+  public void testOpensOnFailureRateAndRefusesCalls() {
+    call(false, FAST);
+    call(true, FAST);
+    call(false, FAST);
+    call(true, FAST);
+
+    assertEquals(State.OPEN, breaker.state());
+    assertTrue(breaker.isRefusing());
+    assertFalse(breaker.tryAcquire());
+  }
+
+  @Test
+  public void testOpensOnSlowCallRate() {
+    call(false, SLOW);
+    call(false, FAST);
+    call(false, SLOW);
+    call(false, FAST);
+
+    assertEquals(State.OPEN, breaker.state());
+  }
+
+  @Test
+  public void testOldOutcomesLeaveTheWindow() {
+    for (int i = 0; i < 4; i++) {
+      call(true, FAST);
+      call(false, FAST);
+      call(false, FAST);
+      call(false, FAST);
+      call(false, FAST);
+    }
+    // Never more than 2 failures among the last 10 calls
+    assertEquals(State.CLOSED, breaker.state());
+  }
+
+  @Test
+  public void testHalfOpensAfterOpenDurationAndClosesOnSuccessfulProbes() {
+    openCircuit();
+    clock.addAndGet(Duration.ofSeconds(30).toNanos());
+
+    assertFalse(breaker.isRefusing());
+    assertTrue(breaker.tryAcquire());
+    assertTrue(breaker.tryAcquire());
+    assertEquals(State.HALF_OPEN, breaker.state());
+    // Only the configured number of probes at a time
+    assertFalse(breaker.tryAcquire());
+
+    breaker.onResult(false, FAST);
+    breaker.onResult(false, FAST);
+
+    assertEquals(State.CLOSED, breaker.state());
+    assertEquals(List.of(State.OPEN, State.HALF_OPEN, State.CLOSED), transitions);
+  }
+
+  @Test
+  public void testFailedProbeOpensAgain() {
+    openCircuit();
+    clock.addAndGet(Duration.ofSeconds(30).toNanos());
+
+    assertTrue(breaker.tryAcquire());
+    breaker.onResult(true, FAST);
+
+    assertEquals(State.OPEN, breaker.state());
+    assertFalse(breaker.tryAcquire());
+  }
+
+  @Test
+  public void testReleasedProbeCanBeRetaken() {
+    openCircuit();
+    clock.addAndGet(Duration.ofSeconds(30).toNanos());
+    assertTrue(breaker.tryAcquire());
+    assertTrue(breaker.tryAcquire());
+
+    breaker.release();
+
+    assertTrue(breaker.tryAcquire());
+  }
+
+  private void openCircuit() {
+    for (int i = 0; i < 4; i++) {
+      call(true, FAST);
+    }
+    assertEquals(State.OPEN, breaker.state());
+  }
+
+  private void call(boolean failed, long durationNanos) {
+    assertTrue(breaker.tryAcquire());
+    breaker.onResult(failed, durationNanos);
+  }
+}
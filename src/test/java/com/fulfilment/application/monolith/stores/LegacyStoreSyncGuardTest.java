@@ -0,0 +1,152 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class LegacyStoreSyncGuardTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final BlockingGateway gateway = new BlockingGateway();
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  public void tearDown() {
+    gateway.release.countDown();
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testFailuresOpenTheCircuitAndLaterCallsAreRejected() {
+    LegacyStoreSyncGuard guard = guard(4, 0, Duration.ZERO);
+    gateway.fail = true;
+
+    for (int i = 0; i < 4; i++) {
+      assertThrows(IllegalStateException.class, () -> guard.createStore(store()));
+    }
+
+    assertTrue(guard.isOpen());
+    assertThrows(LegacyStoreSyncRejectedException.class, () -> guard.createStore(store()));
+    assertEquals(4, gateway.calls);
+    assertEquals(1.0, meterRegistry.get("legacy.sync.circuit.state").tag("state", "open")
+        .gauge().value());
+    assertEquals(1.0, meterRegistry.get("legacy.sync.calls").tag("result", "rejected-open")
+        .counter().count());
+  }
+
+  @Test
+  public void testBulkheadRejectsCallsBeyondConcurrencyAndQueue() throws Exception {
+    LegacyStoreSyncGuard guard = guard(1, 1, Duration.ofSeconds(10));
+    gateway.release = new CountDownLatch(1);
+
+    Future<?> running = executor.submit(() -> guard.updateStore(store()));
+    assertTrue(gateway.entered.await(5, TimeUnit.SECONDS));
+    Future<?> queued = executor.submit(() -> guard.updateStore(store()));
+    awaitQueued(1);
+
+    // Concurrency and queue are both used up: rejected at once instead of blocking
+    assertThrows(LegacyStoreSyncRejectedException.class, () -> guard.updateStore(store()));
+    assertEquals(1.0, meterRegistry.get("legacy.sync.calls").tag("result", "rejected-full")
+        .counter().count());
+
+    gateway.release.countDown();
+    running.get(5, TimeUnit.SECONDS);
+    queued.get(5, TimeUnit.SECONDS);
+    assertEquals(2, gateway.calls);
+  }
+
+  @Test
+  public void testQueuedCallGivesUpAfterMaxWait() throws Exception {
+    LegacyStoreSyncGuard guard = guard(1, 1, Duration.ofMillis(50));
+    gateway.release = new CountDownLatch(1);
+    executor.submit(() -> guard.updateStore(store()));
+    assertTrue(gateway.entered.await(5, TimeUnit.SECONDS));
+
+    assertThrows(LegacyStoreSyncRejectedException.class, () -> guard.updateStore(store()));
+  }
+
+  @Test
+  public void testFlushBypassesOpenCircuitAndIsNotCounted() {
+    LegacyStoreSyncGuard guard = guard(4, 0, Duration.ZERO);
+    gateway.fail = true;
+    for (int i = 0; i < 4; i++) {
+      assertThrows(IllegalStateException.class, () -> guard.createStore(store()));
+    }
+    assertTrue(guard.isOpen());
+
+    guard.flush();
+
+    assertEquals(1, gateway.flushes);
+    assertEquals(0.0, meterRegistry.get("legacy.sync.calls").tag("result", "success")
+        .counter().count());
+    assertEquals(0.0, meterRegistry.get("legacy.sync.calls").tag("result", "rejected-open")
+        .counter().count());
+  }
+
+  private LegacyStoreSyncGuard guard(int maxConcurrent, int maxQueued, Duration maxWait) {
+    return new LegacyStoreSyncGuard(gateway, meterRegistry, maxConcurrent, maxQueued, maxWait,
+        10, 4, 50, Duration.ofSeconds(5), 50, Duration.ofSeconds(30), 1);
+  }
+
+  private void awaitQueued(int expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (meterRegistry.get("legacy.sync.bulkhead.queued").gauge().value() < expected) {
+      assertTrue(System.currentTimeMillis() < deadline, "call was never queued");
+      Thread.sleep(5);
+    }
+  }
+
+  private static Store store() {
+    Store store = new Store("Guarded");
+    store.quantityProductsInStock = 1;
+    return store;
+  }
+
+  static class BlockingGateway extends LegacyStoreManagerGateway {
+    volatile boolean fail;
+    volatile int calls;
+    volatile int flushes;
+    volatile CountDownLatch release = new CountDownLatch(0);
+    final CountDownLatch entered = new CountDownLatch(1);
+
+    @Override
+    public void createStoreOnLegacySystem(Store store) {
+      call();
+    }
+
+    @Override
+    public void updateStoreOnLegacySystem(Store store) {
+      call();
+    }
+
+    @Override
+    public void flush() {
+      flushes++;
+    }
+
+    private synchronized void count() {
+      calls++;
+    }
+
+    private void call() {
+      count();
+      entered.countDown();
+      try {
+        release.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (fail) {
+        throw new IllegalStateException("legacy system down");
+      }
+    }
+  }
+}
@@ -25,34 +25,34 @@ public class StoreEventObserverTest {
   @BeforeEach
   @Transactional
   public void setup() {
+    StoreOutboxEntry.deleteAll();
     Store.deleteAll();
     
     testStore = new Store();
     testStore.name = "Test Store";
     testStore.quantityProductsInStock = 100;
+    // The outbox entry refers to the store by id
+    testStore.persist();
   }
 
   @Test
-  public void testStoreCreatedEventCallsLegacyGateway() throws InterruptedException {
+  public void testStoreCreatedEventCallsLegacyGateway() {
     Mockito.reset(legacyGateway);
 
     StoreCreatedEvent event = new StoreCreatedEvent(testStore);
     storeEventObserver.onStoreCreated(event);
     
-    Thread.sleep(100);
-    
-    verify(legacyGateway, times(1)).createStoreOnLegacySystem(any(Store.class));
+    // Sent by the outbox dispatcher once the entry has committed
+    verify(legacyGateway, timeout(5000)).createStoreOnLegacySystem(any(Store.class));
   }
 
   @Test
-  public void testStoreUpdatedEventCallsLegacyGateway() throws InterruptedException {
+  public void testStoreUpdatedEventCallsLegacyGateway() {
     Mockito.reset(legacyGateway);
 
     StoreUpdatedEvent event = new StoreUpdatedEvent(testStore);
     storeEventObserver.onStoreUpdated(event);
     
-    Thread.sleep(100);
-    
-    verify(legacyGateway, times(1)).updateStoreOnLegacySystem(any(Store.class));
+    verify(legacyGateway, timeout(5000)).updateStoreOnLegacySystem(any(Store.class));
   }
 }
@@ -0,0 +1,201 @@
+package com.fulfilment.application.monolith.stores;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Tests for the streaming bulk store import: NDJSON and CSV input, per-line errors and one legacy
+ * notification for the stores of a chunk.
+ */
+@QuarkusTest
+public class StoreImportTest {
+
+  @InjectMock
+  LegacyStoreManagerGateway legacyGateway;
+
+  @Inject
+  StoreImporter storeImporter;
+
+  @BeforeEach
+  public void setup() {
+    Mockito.reset(legacyGateway);
+    QuarkusTransaction.requiringNew().run(() -> StoreOutboxEntry.deleteAll());
+  }
+
+  @Test
+  public void testNdjsonImportCreatesStoresAndNotifiesLegacyOnce() {
+    String prefix = "ImportJson_" + System.nanoTime();
+    String body = "{\"name\": \"" + prefix + "_a\", \"quantityProductsInStock\": 1}\n"
+        + "{\"name\": \"" + prefix + "_b\", \"quantityProductsInStock\": 2}\n"
+        + "\n"
+        + "{\"name\": \"" + prefix + "_c\"}\n";
+
+    given()
+        .contentType("application/x-ndjson")
+        .body(body.getBytes(StandardCharsets.UTF_8))
+        .when().post("/store/import")
+        .then()
+        .statusCode(200)
+        .body("imported", is(3))
+        .body("failed", is(0))
+        .body("errors", empty());
+
+    verify(legacyGateway, timeout(5000)).createStoresOnLegacySystem(
+        argThat(stores -> stores.size() == 3
+            && stores.stream().allMatch(store -> store.name.startsWith(prefix))));
+    verify(legacyGateway, never()).createStoreOnLegacySystem(any(Store.class));
+    assertEquals(2, storeNamed(prefix + "_b").quantityProductsInStock);
+  }
+
+  @Test
+  public void testCsvImportSkipsHeaderAndHandlesQuotes() {
+    String prefix = "ImportCsv_" + System.nanoTime();
+    String body = "name,quantityProductsInStock\n"
+        + prefix + "_a,5\n"
+        + "\"" + prefix + ", quoted\",7\n";
+
+    given()
+        .contentType("text/csv")
+        .body(body)
+        .when().post("/store/import")
+        .then()
+        .statusCode(200)
+        .body("imported", is(2))
+        .body("failed", is(0));
+
+    assertEquals(5, storeNamed(prefix + "_a").quantityProductsInStock);
+    assertEquals(7, storeNamed(prefix + ", quoted").quantityProductsInStock);
+  }
+
+  @Test
+  public void testInvalidLinesAreReportedAndOthersImported() {
+    String prefix = "ImportErr_" + System.nanoTime();
+    String body = "{\"name\": \"" + prefix + "_ok\", \"quantityProductsInStock\": 1}\n"
+        + "{not json\n"
+        + "{\"quantityProductsInStock\": 3}\n"
+        + "{\"id\": 5, \"name\": \"" + prefix + "_id\"}\n"
+        + "{\"name\": \"" + prefix + "_ok\", \"quantityProductsInStock\": 4}\n"
+        + "{\"name\": \"" + "x".repeat(41) + "\"}\n";
+
+    given()
+        .contentType("application/x-ndjson")
+        .body(body.getBytes(StandardCharsets.UTF_8))
+        .when().post("/store/import")
+        .then()
+        .statusCode(200)
+        .body("imported", is(1))
+        .body("failed", is(5))
+        .body("errors.line", contains(2, 3, 4, 6, 5))
+        .body("errorsTruncated", is(false));
+
+    assertEquals(1, storeNamed(prefix + "_ok").quantityProductsInStock);
+  }
+
+  @Test
+  public void testNameTakenByExistingStoreIsReported() {
+    String name = "ImportDup_" + System.nanoTime();
+    given()
+        .contentType("application/json")
+        .body("{\"name\": \"" + name + "\", \"quantityProductsInStock\": 1}")
+        .when().post("/store")
+        .then()
+        .statusCode(201);
+
+    given()
+        .contentType("text/csv")
+        .body(name + ",2\n")
+        .when().post("/store/import")
+        .then()
+        .statusCode(200)
+        .body("imported", is(0))
+        .body("failed", is(1))
+        .body("errors[0].line", is(1))
+        .body("errors[0].error", containsString("already exists"));
+  }
+
+  @Test
+  public void testUnsupportedContentTypeIsRejected() {
+    given()
+        .contentType("application/xml")
+        .body("<stores/>")
+        .when().post("/store/import")
+        .then()
+        .statusCode(415);
+  }
+
+  @Test
+  public void testImportTakesBodiesPastTheRegularLimit() {
+    // 384 KB of empty lines, past http.max-body-size of the test profile
+    byte[] body = "\n".repeat(384 * 1024).getBytes(StandardCharsets.UTF_8);
+
+    given()
+        .contentType("application/x-ndjson")
+        .body(body)
+        .when().post("/store/import")
+        .then()
+        .statusCode(200)
+        .body("imported", is(0))
+        .body("failed", is(0));
+  }
+
+  @Test
+  public void testImportRejectsBodiesPastItsLimit() {
+    // 768 KB, past store.import.max-body-size of the test profile
+    byte[] body = "\n".repeat(768 * 1024).getBytes(StandardCharsets.UTF_8);
+
+    given()
+        .contentType("application/x-ndjson")
+        .body(body)
+        .when().post("/store/import")
+        .then()
+        .statusCode(413);
+  }
+
+  @Test
+  public void testImportStopsBodiesWithoutLengthAtItsLimit() {
+    byte[] body = "\n".repeat(768 * 1024).getBytes(StandardCharsets.UTF_8);
+
+    WebApplicationException exception = assertThrows(WebApplicationException.class, () ->
+        storeImporter.importStores(
+            new ByteArrayInputStream(body), -1, StoreImporter.Format.NDJSON));
+
+    assertEquals(413, exception.getResponse().getStatus());
+  }
+
+  @Test
+  public void testOtherEndpointsRejectBodiesPastTheGlobalLimit() {
+    // 384 KB, past http.max-body-size of the test profile
+    byte[] body = ("{\"name\": \"" + "x".repeat(384 * 1024) + "\"}")
+        .getBytes(StandardCharsets.UTF_8);
+
+    given()
+        .contentType("application/json")
+        .body(body)
+        .when().post("/store")
+        .then()
+        .statusCode(413);
+  }
+
+  private static Store storeNamed(String name) {
+    List<Store> stores = QuarkusTransaction.requiringNew()
+        .call(() -> Store.<Store>list("name", name));
+    assertEquals(1, stores.size());
+    return stores.get(0);
+  }
+}
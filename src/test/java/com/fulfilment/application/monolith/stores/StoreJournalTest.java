@@ -0,0 +1,134 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StoreJournalTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  public void testReaderReturnsAppendedRecordsInOrder() {
+    try (StoreJournal journal = new StoreJournal(tempDir, 4096);
+        StoreJournalReader reader = new StoreJournalReader(tempDir)) {
+      journal.append(record(StoreJournalRecord.Type.CREATED, 1, "Amsterdam", 10));
+      journal.append(new StoreJournalRecord(StoreJournalRecord.Type.UPDATED, null, null, 3));
+      journal.flush();
+
+      List<StoreJournalRecord> read = new ArrayList<>();
+      assertEquals(2, reader.poll(10, read::add));
+      assertEquals(record(StoreJournalRecord.Type.CREATED, 1, "Amsterdam", 10), read.get(0));
+      assertEquals(new StoreJournalRecord(StoreJournalRecord.Type.UPDATED, null, null, 3),
+          read.get(1));
+      assertEquals(0, reader.poll(10, read::add));
+    }
+  }
+
+  @Test
+  public void testReaderTailsNewRecords() {
+    try (StoreJournal journal = new StoreJournal(tempDir, 4096);
+        StoreJournalReader reader = new StoreJournalReader(tempDir)) {
+      List<StoreJournalRecord> read = new ArrayList<>();
+      assertEquals(0, reader.poll(10, read::add));
+
+      journal.append(record(StoreJournalRecord.Type.CREATED, 1, "Rotterdam", 1));
+      assertEquals(1, reader.poll(10, read::add));
+      journal.append(record(StoreJournalRecord.Type.UPDATED, 1, "Rotterdam", 2));
+      assertEquals(1, reader.poll(10, read::add));
+
+      assertEquals(List.of(1, 2),
+          read.stream().map(StoreJournalRecord::quantityProductsInStock).toList());
+    }
+  }
+
+  @Test
+  public void testRotatesSegmentsAndReaderFollows() {
+    List<StoreJournalRecord> written = new ArrayList<>();
+    try (StoreJournal journal = new StoreJournal(tempDir, 128)) {
+      for (int i = 0; i < 20; i++) {
+        StoreJournalRecord record = record(StoreJournalRecord.Type.UPDATED, i, "Store-" + i, i);
+        journal.append(record);
+        written.add(record);
+      }
+    }
+    assertTrue(segmentCount() > 1);
+
+    List<StoreJournalRecord> read = new ArrayList<>();
+    try (StoreJournalReader reader = new StoreJournalReader(tempDir)) {
+      while (reader.poll(3, read::add) > 0) {
+        // drain
+      }
+    }
+    assertEquals(written, read);
+  }
+
+  @Test
+  public void testReaderResumesFromSavedOffset() {
+    long offset;
+    try (StoreJournal journal = new StoreJournal(tempDir, 128)) {
+      for (int i = 0; i < 10; i++) {
+        journal.append(record(StoreJournalRecord.Type.UPDATED, i, "Store-" + i, i));
+      }
+      try (StoreJournalReader reader = new StoreJournalReader(tempDir)) {
+        reader.poll(7, r -> {});
+        offset = reader.offset();
+      }
+    }
+
+    List<StoreJournalRecord> read = new ArrayList<>();
+    try (StoreJournalReader reader = new StoreJournalReader(tempDir, offset)) {
+      reader.poll(10, read::add);
+    }
+    assertEquals(List.of(7, 8, 9),
+        read.stream().map(StoreJournalRecord::quantityProductsInStock).toList());
+  }
+
+  @Test
+  public void testReopenDiscardsTornRecordAndContinuesAfterLastValidOne() throws IOException {
+    long end;
+    try (StoreJournal journal = new StoreJournal(tempDir, 4096)) {
+      journal.append(record(StoreJournalRecord.Type.CREATED, 1, "Utrecht", 1));
+      end = journal.endOffset();
+    }
+    // A crash in the middle of a write leaves a header whose payload does not match its checksum
+    try (FileChannel channel = FileChannel.open(StoreJournal.segmentPath(tempDir, 0),
+        StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.allocate(12).putInt(20).putInt(12345).putInt(7).flip(), end);
+    }
+
+    try (StoreJournal journal = new StoreJournal(tempDir, 4096)) {
+      assertEquals(end, journal.endOffset());
+      journal.append(record(StoreJournalRecord.Type.UPDATED, 1, "Utrecht", 2));
+    }
+
+    List<StoreJournalRecord> read = new ArrayList<>();
+    try (StoreJournalReader reader = new StoreJournalReader(tempDir)) {
+      reader.poll(10, read::add);
+    }
+    assertEquals(List.of(1, 2),
+        read.stream().map(StoreJournalRecord::quantityProductsInStock).toList());
+  }
+
+  private static StoreJournalRecord record(StoreJournalRecord.Type type, long id, String name,
+      int stock) {
+    return new StoreJournalRecord(type, id, name, stock);
+  }
+
+  private long segmentCount() {
+    try {
+      return StoreJournal.segmentBases(tempDir).size();
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package com.fulfilment.application.monolith.stores;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import jakarta.inject.Inject;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Tests for the store outbox: entries are written with the store change and delivered to the
+ * legacy system in the background, retried on failure, kept in order per store and coalesced
+ * so that only the newest state of a store is sent.
+ */
+@QuarkusTest
+public class StoreOutboxDispatcherTest {
+
+  @InjectMock
+  LegacyStoreManagerGateway legacyGateway;
+
+  @Inject
+  StoreOutboxDispatcher dispatcher;
+
+  @Inject
+  TransactionSynchronizationRegistry transactions;
+
+  @BeforeEach
+  public void setup() {
+    Mockito.reset(legacyGateway);
+    QuarkusTransaction.requiringNew().run(() -> StoreOutboxEntry.deleteAll());
+  }
+
+  @Test
+  public void testCreatedStoreIsDeliveredAndRemovedFromOutbox() {
+    String name = "Outbox_" + System.nanoTime();
+
+    createStore(name, 5);
+
+    verify(legacyGateway, timeout(5000)).createStoreOnLegacySystem(
+        argThat(store -> name.equals(store.name) && store.quantityProductsInStock == 5));
+    awaitEmptyOutbox();
+  }
+
+  @Test
+  public void testFailedDeliveryIsRetried() {
+    doThrow(new IllegalStateException("legacy system down"))
+        .doNothing()
+        .when(legacyGateway).createStoreOnLegacySystem(any(Store.class));
+    String name = "OutboxRetry_" + System.nanoTime();
+
+    createStore(name, 1);
+
+    verify(legacyGateway, timeout(5000).times(2)).createStoreOnLegacySystem(any(Store.class));
+    awaitEmptyOutbox();
+  }
+
+  @Test
+  public void testUpdatesOfOneStoreWaitForFailedOlderUpdate() {
+    List<Integer> deliveredStock = Collections.synchronizedList(new ArrayList<>());
+    doThrow(new IllegalStateException("legacy system down"))
+        .doAnswer(invocation -> {
+          deliveredStock.add(invocation.<Store>getArgument(0).quantityProductsInStock);
+          return null;
+        })
+        .when(legacyGateway).updateStoreOnLegacySystem(any(Store.class));
+    String name = "OutboxOrder_" + System.nanoTime();
+    int id = createStore(name, 1);
+    verify(legacyGateway, timeout(5000)).createStoreOnLegacySystem(any(Store.class));
+
+    updateStore(id, name, 10);
+    updateStore(id, name, 20);
+
+    awaitEmptyOutbox();
+    // The retried update is either sent on its own before the newer one, or superseded by it;
+    // the newer one never overtakes it
+    assertEquals(20, deliveredStock.get(deliveredStock.size() - 1));
+    assertTrue(deliveredStock.equals(List.of(20)) || deliveredStock.equals(List.of(10, 20)),
+        "Unexpected delivery order " + deliveredStock);
+  }
+
+  // ---- COALESCING ----
+
+  @Test
+  public void testBurstOfUpdatesIsCoalescedIntoLatestSnapshot() {
+    List<Integer> deliveredStock = Collections.synchronizedList(new ArrayList<>());
+    doAnswer(invocation -> {
+      // A slow first call lets the rest of the burst pile up in the outbox
+      Thread.sleep(deliveredStock.isEmpty() ? 500 : 0);
+      deliveredStock.add(invocation.<Store>getArgument(0).quantityProductsInStock);
+      return null;
+    }).when(legacyGateway).updateStoreOnLegacySystem(any(Store.class));
+    String name = "OutboxBurst_" + System.nanoTime();
+    int id = createStore(name, 0);
+    verify(legacyGateway, timeout(5000)).createStoreOnLegacySystem(any(Store.class));
+
+    for (int stock = 1; stock <= 5; stock++) {
+      updateStore(id, name, stock);
+    }
+
+    awaitEmptyOutbox();
+    assertEquals(5, deliveredStock.get(deliveredStock.size() - 1));
+    assertTrue(deliveredStock.size() < 5, "Expected coalesced deliveries, got " + deliveredStock);
+  }
+
+  @Test
+  public void testUpdatesWithinCoalescingWindowAreSentOnce() throws InterruptedException {
+    List<Integer> deliveredStock = Collections.synchronizedList(new ArrayList<>());
+    doAnswer(invocation -> {
+      deliveredStock.add(invocation.<Store>getArgument(0).quantityProductsInStock);
+      return null;
+    }).when(legacyGateway).updateStoreOnLegacySystem(any(Store.class));
+    String name = "OutboxWindow_" + System.nanoTime();
+    long id = createStore(name, 0);
+    verify(legacyGateway, timeout(5000)).createStoreOnLegacySystem(any(Store.class));
+    // The tests run with no window; this outbox holds updates back for a second
+    StoreOutbox outbox = new StoreOutbox(dispatcher, transactions, Duration.ofSeconds(1));
+
+    for (int stock = 1; stock <= 5; stock++) {
+      int next = stock;
+      QuarkusTransaction.requiringNew().run(() -> {
+        Store store = Store.findById(id);
+        store.quantityProductsInStock = next;
+        outbox.enqueue(StoreOutboxEntry.Type.UPDATED, store);
+      });
+      Thread.sleep(100);
+    }
+
+    awaitEmptyOutbox();
+    verify(legacyGateway, times(1)).updateStoreOnLegacySystem(any(Store.class));
+    assertEquals(List.of(5), deliveredStock);
+  }
+
+  // ---- helper ----
+
+  int createStore(String name, int stock) {
+    return given()
+        .contentType("application/json")
+        .body("{\"name\": \"" + name + "\", \"quantityProductsInStock\": " + stock + "}")
+        .when().post("/store")
+        .then()
+        .statusCode(201)
+        .extract().path("id");
+  }
+
+  void updateStore(int id, String name, int stock) {
+    given()
+        .contentType("application/json")
+        .body("{\"name\": \"" + name + "\", \"quantityProductsInStock\": " + stock + "}")
+        .when().put("/store/" + id)
+        .then()
+        .statusCode(200);
+  }
+
+  void awaitEmptyOutbox() {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (QuarkusTransaction.requiringNew().call(() -> StoreOutboxEntry.count()) > 0) {
+      assertTrue(System.currentTimeMillis() < deadline, "Outbox was not drained");
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package com.fulfilment.application.monolith.stores;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectMock;
+import jakarta.inject.Inject;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Tests for the reconciliation of the Store table against the legacy system, with the legacy
+ * side played by {@link InMemoryLegacyStoreReader}.
+ */
+@QuarkusTest
+public class StoreReconcilerTest {
+
+  @InjectMock
+  LegacyStoreManagerGateway legacyGateway;
+
+  @Inject
+  InMemoryLegacyStoreReader legacyStores;
+
+  @Inject
+  StoreReconciler reconciler;
+
+  private final Set<String> resent = ConcurrentHashMap.newKeySet();
+
+  @BeforeEach
+  public void setup() {
+    Mockito.reset(legacyGateway);
+    legacyStores.clear();
+    QuarkusTransaction.requiringNew().run(() -> StoreOutboxEntry.deleteAll());
+    doAnswer(invocation -> resent.add(invocation.<Store>getArgument(0).name))
+        .when(legacyGateway).createStoreOnLegacySystem(any(Store.class));
+    doAnswer(invocation -> resent.add(invocation.<Store>getArgument(0).name))
+        .when(legacyGateway).updateStoreOnLegacySystem(any(Store.class));
+    doAnswer(invocation -> {
+      invocation.<List<Store>>getArgument(0).forEach(store -> resent.add(store.name));
+      return null;
+    }).when(legacyGateway).createStoresOnLegacySystem(any());
+  }
+
+  @Test
+  public void testOnlyDriftedAndMissingStoresAreSentAgain() {
+    String prefix = "Reconcile_" + System.nanoTime();
+    Store inSync = insertStore(prefix + "_same", 5);
+    Store drifted = insertStore(prefix + "_drift", 7);
+    Store missing = insertStore(prefix + "_missing", 9);
+    // Everything else in the table is in sync, so only our two stores need a resend
+    QuarkusTransaction.requiringNew().run(() -> Store.<Store>streamAll().forEach(store ->
+        legacyStores.put(new StoreSnapshot(store.id, store.name, store.quantityProductsInStock))));
+    legacyStores.put(new StoreSnapshot(drifted.id, drifted.name, 6));
+    legacyStores.remove(missing.id);
+
+    StoreReconciliationReport report = reconciler.reconcile();
+
+    assertTrue(report.finished());
+    assertEquals(1, report.drifted());
+    assertEquals(1, report.missing());
+    assertEquals(report.scanned() - 2, report.inSync());
+    verify(legacyGateway, timeout(5000)).updateStoreOnLegacySystem(
+        argThat(store -> drifted.name.equals(store.name) && store.quantityProductsInStock == 7));
+    verify(legacyGateway, timeout(5000)).createStoreOnLegacySystem(
+        argThat(store -> missing.name.equals(store.name)));
+    assertFalse(resent.contains(inSync.name));
+  }
+
+  @Test
+  public void testStoresWithPendingSyncAreSkipped() {
+    Store store = insertStore("ReconcilePending_" + System.nanoTime(), 1);
+    QuarkusTransaction.requiringNew().run(() -> Store.<Store>streamAll().forEach(s ->
+        legacyStores.put(new StoreSnapshot(s.id, s.name, s.quantityProductsInStock))));
+    legacyStores.put(new StoreSnapshot(store.id, store.name, 0));
+    // A sync the dispatcher has not picked up yet, far in the future
+    QuarkusTransaction.requiringNew().run(() -> {
+      StoreOutboxEntry entry = StoreOutboxEntry.of(StoreOutboxEntry.Type.UPDATED, store);
+      entry.nextAttemptAt = entry.createdAt.plusHours(1);
+      entry.persist();
+    });
+
+    StoreReconciliationReport report = reconciler.reconcile();
+
+    assertEquals(1, report.pending());
+    assertEquals(0, report.drifted());
+  }
+
+  @Test
+  public void testReconcileEndpointReportsProgress() throws InterruptedException {
+    given()
+        .when().post("/store/reconcile")
+        .then()
+        .statusCode(202)
+        .body("scanned", notNullValue());
+
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (reconciler.isRunning() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+
+    given()
+        .when().get("/store/reconcile")
+        .then()
+        .statusCode(200)
+        .body("finished", is(true))
+        .body("failure", nullValue())
+        .body("scanned", greaterThan(0));
+  }
+
+  private static Store insertStore(String name, int stock) {
+    return QuarkusTransaction.requiringNew().call(() -> {
+      Store store = new Store(name);
+      store.quantityProductsInStock = stock;
+      store.persist();
+      return store;
+    });
+  }
+}
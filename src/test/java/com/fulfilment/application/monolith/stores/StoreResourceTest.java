@@ -2,8 +2,15 @@ package com.fulfilment.application.monolith.stores;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import com.fulfilment.application.monolith.common.NameOrderedPages;
 import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.response.Response;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -26,6 +33,54 @@ public class StoreResourceTest {
         .body("$", instanceOf(java.util.List.class));
   }
 
+  @Test
+  public void testCursorPagesCoverAllStoresInNameOrder() {
+    for (int i = 0; i < 5; i++) {
+      given()
+          .contentType("application/json")
+          .body("{\"name\": \"StorePage_" + i + "_" + System.nanoTime() + "\"}")
+          .when().post("/store")
+          .then()
+          .statusCode(201);
+    }
+    List<Integer> all = given().when().get("/store").then().statusCode(200)
+        .extract().jsonPath().getList("id", Integer.class);
+
+    List<Integer> paged = new ArrayList<>();
+    List<String> names = new ArrayList<>();
+    String cursor = "";
+    while (cursor != null) {
+      Response page = given()
+          .queryParam("cursor", cursor)
+          .queryParam("pageSize", 2)
+          .when().get("/store");
+      page.then().statusCode(200).body("size()", lessThanOrEqualTo(2));
+      paged.addAll(page.jsonPath().getList("id", Integer.class));
+      names.addAll(page.jsonPath().getList("name", String.class));
+      cursor = page.header(NameOrderedPages.NEXT_CURSOR_HEADER);
+    }
+
+    assertEquals(new HashSet<>(all), new HashSet<>(paged));
+    assertEquals(all.size(), paged.size());
+    List<String> named = names.stream().filter(Objects::nonNull).toList();
+    assertEquals(named.stream().sorted().toList(), named);
+  }
+
+  @Test
+  public void testExportStreamsEveryStoreAsOneJsonLine() {
+    int count = given().when().get("/store").then().statusCode(200)
+        .extract().jsonPath().getList("id").size();
+
+    String body = given()
+        .when().get("/store/export")
+        .then()
+        .statusCode(200)
+        .contentType(startsWith(NameOrderedPages.APPLICATION_NDJSON))
+        .extract().asString();
+
+    assertEquals(count, body.isEmpty() ? 0 : body.split("\n").length);
+  }
+
   // ---- GET single ----
 
   @Test
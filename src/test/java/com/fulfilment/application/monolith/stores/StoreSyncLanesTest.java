@@ -0,0 +1,102 @@
+package com.fulfilment.application.monolith.stores;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class StoreSyncLanesTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final StoreSyncLanes lanes = new StoreSyncLanes(meterRegistry, 4, Duration.ofSeconds(5));
+
+  @AfterEach
+  public void tearDown() throws InterruptedException {
+    lanes.shutdown();
+  }
+
+  @Test
+  public void testWorkOfOneStoreRunsInSubmissionOrder() {
+    List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+    List<CompletableFuture<Integer>> calls = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      int value = i;
+      calls.add(lanes.submit(7L, () -> {
+        seen.add(value);
+        return value;
+      }));
+    }
+
+    calls.forEach(CompletableFuture::join);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, seen.get(i));
+    }
+  }
+
+  @Test
+  public void testOtherStoresAreNotHeldUpByABlockedStore() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Boolean> blocked = lanes.submit(1L, () -> await(release));
+
+    // Store 2 hashes to another lane and completes while store 1 is still blocked
+    assertEquals("done", lanes.submit(2L, () -> "done").get(5, TimeUnit.SECONDS));
+    assertFalse(blocked.isDone());
+    assertEquals(1.0, meterRegistry.get("store.sync.lanes.queued").gauge().value());
+
+    release.countDown();
+    assertTrue(blocked.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testShutdownDrainsQueuedWorkAndRejectsNewWork() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Boolean> first = lanes.submit(3L, () -> await(release));
+    CompletableFuture<String> queued = lanes.submit(3L, () -> "queued");
+
+    Thread releaser = new Thread(() -> {
+      sleep(100);
+      release.countDown();
+    });
+    releaser.start();
+    lanes.shutdown();
+
+    assertTrue(first.isDone());
+    assertEquals("queued", queued.getNow(null));
+    assertEquals(0, lanes.queued());
+    assertThrows(LegacyStoreSyncRejectedException.class, () -> lanes.submit(3L, () -> "late"));
+  }
+
+  @Test
+  public void testWithoutLanesWorkRunsOnTheCaller() {
+    StoreSyncLanes inline = new StoreSyncLanes(meterRegistry, 0, Duration.ofSeconds(1));
+    Thread caller = Thread.currentThread();
+
+    assertFalse(inline.enabled());
+    assertSame(caller, inline.submit(1L, Thread::currentThread).join());
+  }
+
+  private static boolean await(CountDownLatch latch) {
+    try {
+      return latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
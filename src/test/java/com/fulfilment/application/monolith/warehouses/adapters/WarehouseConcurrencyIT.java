@@ -49,6 +49,7 @@ public class WarehouseConcurrencyIT {
   public void setup() {
     // Clean slate before every test to prevent cross-test interference
     em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+    em.createQuery("DELETE FROM DbLocationOccupancy").executeUpdate();
   }
 
   /**
@@ -57,7 +58,8 @@ public class WarehouseConcurrencyIT {
    */
   @Test
   public void testConcurrentWarehouseCreationWithUniqueCodesSucceeds() throws InterruptedException {
-    int threadCount = 10;
+    // AMSTERDAM-001 takes 5 warehouses with a total capacity of 100
+    int threadCount = 5;
     ExecutorService executor = Executors.newFixedThreadPool(threadCount);
     CountDownLatch latch = new CountDownLatch(threadCount);
 
@@ -70,7 +72,7 @@ public class WarehouseConcurrencyIT {
           Warehouse warehouse = new Warehouse();
           warehouse.businessUnitCode = "CONCURRENT-" + index;
           warehouse.location = "AMSTERDAM-001";
-          warehouse.capacity = 50;
+          warehouse.capacity = 20;
           warehouse.stock = 10;
 
           // createWarehouseUseCase is a CDI proxy: @Transactional interceptor
@@ -144,6 +146,46 @@ public class WarehouseConcurrencyIT {
     assertEquals(threadCount - 1, failureCount.get(), "Other attempts should fail");
   }
 
+  /**
+   * Test concurrent creation at the same location.
+   * The location limits must hold: AMSTERDAM-001 takes 5 warehouses and a total
+   * capacity of 100, so exactly 5 of 10 creates of capacity 20 may succeed.
+   */
+  @Test
+  public void testConcurrentCreationCannotOvershootLocationLimits() throws InterruptedException {
+    int threadCount = 10;
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    CountDownLatch latch = new CountDownLatch(threadCount);
+
+    AtomicInteger successCount = new AtomicInteger(0);
+
+    for (int i = 0; i < threadCount; i++) {
+      final int index = i;
+      executor.submit(() -> {
+        try {
+          Warehouse warehouse = new Warehouse();
+          warehouse.businessUnitCode = "LIMIT-" + index;
+          warehouse.location = "AMSTERDAM-001";
+          warehouse.capacity = 20;
+          warehouse.stock = 5;
+
+          createWarehouseUseCase.create(warehouse);
+          successCount.incrementAndGet();
+        } catch (Exception e) {
+          // Expected: location limits reached
+        } finally {
+          latch.countDown();
+        }
+      });
+    }
+
+    latch.await(10, TimeUnit.SECONDS);
+    executor.shutdown();
+
+    assertEquals(5, successCount.get(), "Exactly the location's max number of warehouses should be created");
+    assertEquals(5L, countActiveAt("AMSTERDAM-001"), "Stored warehouses must not exceed the location limit");
+  }
+
   /**
    * Test concurrent reads don't block each other (read scalability).
    */
@@ -196,6 +238,14 @@ public class WarehouseConcurrencyIT {
     createWarehouseUseCase.create(warehouse);
   }
 
+  @Transactional(TxType.REQUIRES_NEW)
+  long countActiveAt(String location) {
+    return em.createQuery("SELECT count(w) FROM DbWarehouse w"
+            + " WHERE w.location = :location AND w.archivedAt IS NULL", Long.class)
+        .setParameter("location", location)
+        .getSingleResult();
+  }
+
   @Transactional(TxType.REQUIRES_NEW)
   Warehouse readWarehouseInNewTransaction(String code) {
     return warehouseRepository.findByBusinessUnitCode(code);
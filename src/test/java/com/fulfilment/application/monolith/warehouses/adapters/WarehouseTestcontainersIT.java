@@ -2,6 +2,7 @@ package com.fulfilment.application.monolith.warehouses.adapters;
 
 import com.fulfilment.application.monolith.location.LocationGateway;
 import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import com.fulfilment.application.monolith.warehouses.adapters.database.LocationOccupancyRepository;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase;
@@ -34,6 +35,9 @@ public class WarehouseTestcontainersIT {
   @Inject
   LocationGateway locationResolver;
 
+  @Inject
+  LocationOccupancyRepository locationOccupancyRepository;
+
   @Inject
   EntityManager em;
 
@@ -44,8 +48,10 @@ public class WarehouseTestcontainersIT {
   public void setup() {
     // Clean database
     em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+    em.createQuery("DELETE FROM DbLocationOccupancy").executeUpdate();
     
-    createWarehouseUseCase = new CreateWarehouseUseCase(warehouseRepository, locationResolver);
+    createWarehouseUseCase = new CreateWarehouseUseCase(warehouseRepository, locationResolver,
+        locationOccupancyRepository);
   }
 
   /**
@@ -0,0 +1,34 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Keeps the SQL that Hibernate prepares on the calling thread while {@link #record} runs, so a
+ * test can look at the statements a repository method actually sends.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+  private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+  @Override
+  public String inspect(String sql) {
+    List<String> recorded = RECORDED.get();
+    if (recorded != null) {
+      recorded.add(sql);
+    }
+    return sql;
+  }
+
+  static List<String> record(Runnable action) {
+    List<String> recorded = new ArrayList<>();
+    RECORDED.set(recorded);
+    try {
+      action.run();
+    } finally {
+      RECORDED.remove();
+    }
+    return recorded;
+  }
+}
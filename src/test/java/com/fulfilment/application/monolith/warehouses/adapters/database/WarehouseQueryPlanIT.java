@@ -0,0 +1,224 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSearchFacets;
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the access paths of {@link WarehouseRepository} are served by the partial indexes
+ * of db/warehouse-indexes-postgresql.sql on a real Postgres with a million warehouses, a tenth of
+ * them archived.
+ *
+ * Each test calls the repository and EXPLAINs the SQL Hibernate generated for that call, as
+ * captured by {@link RecordingStatementInspector}, with the values the call bound.
+ */
+@QuarkusTest
+@TestProfile(WarehouseQueryPlanIT.OnPostgres.class)
+@Testcontainers(disabledWithoutDocker = true)
+public class WarehouseQueryPlanIT {
+
+  static final int ROWS = 1_000_000;
+
+  // Ids and codes of the generated rows stay clear of the ones in import.sql
+  static final int ID_OFFSET = 1_000;
+
+  private static boolean loaded;
+
+  @Inject
+  WarehouseRepository warehouseRepository;
+
+  @Inject
+  DataSource dataSource;
+
+  public static class OnPostgres implements QuarkusTestProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      return Map.of(
+          "quarkus.datasource.db-kind", "postgresql",
+          "quarkus.hibernate-orm.sql-load-script", "import.sql,db/warehouse-indexes-postgresql.sql",
+          "quarkus.hibernate-orm.unsupported-properties."
+              + "\"hibernate.session_factory.statement_inspector\"",
+          RecordingStatementInspector.class.getName());
+    }
+
+    @Override
+    public List<TestResourceEntry> testResources() {
+      return List.of(new TestResourceEntry(PostgresResource.class));
+    }
+  }
+
+  public static class PostgresResource implements QuarkusTestResourceLifecycleManager {
+    private final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Override
+    public Map<String, String> start() {
+      postgres.start();
+      return Map.of(
+          "quarkus.datasource.jdbc.url", postgres.getJdbcUrl(),
+          "quarkus.datasource.username", postgres.getUsername(),
+          "quarkus.datasource.password", postgres.getPassword());
+    }
+
+    @Override
+    public void stop() {
+      postgres.stop();
+    }
+  }
+
+  @BeforeEach
+  public void loadWarehouses() throws SQLException {
+    if (loaded) {
+      return;
+    }
+    try (Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute("INSERT INTO warehouse"
+          + " (id, version, businessUnitCode, location, capacity, stock, createdAt, archivedAt)"
+          + " SELECT g + " + ID_OFFSET + ", 0, 'MWH.' || g, 'LOC-' || (g % 1000), g % 100,"
+          + " g % 50, timestamp '2020-01-01' + g * interval '1 minute',"
+          + " CASE WHEN g % 10 = 0 THEN now() END"
+          + " FROM generate_series(1, " + ROWS + ") g");
+      statement.execute("ANALYZE warehouse");
+    }
+    loaded = true;
+  }
+
+  @Test
+  @Transactional
+  public void testSearchByLocationAndCapacityUsesLocationCapacityIndex() throws SQLException {
+    String sql = single(RecordingStatementInspector.record(() -> warehouseRepository
+        .search("LOC-7", 10, 20, "capacity", "asc", null, 10)));
+
+    String plan = explain(sql, "LOC-7", 10, 20, 11);
+
+    assertTrue(plan.contains("idx_warehouse_active_location_capacity"), plan);
+  }
+
+  @Test
+  @Transactional
+  public void testSearchSortedByCreatedAtUsesCreatedAtIndex() throws SQLException {
+    String sql = single(RecordingStatementInspector.record(() -> warehouseRepository
+        .search(null, null, null, "createdAt", "asc", null, 10)));
+
+    String plan = explain(sql, 11);
+
+    assertTrue(plan.contains("idx_warehouse_active_created_at_id"), plan);
+    assertFalse(plan.contains("Seq Scan"), plan);
+  }
+
+  @Test
+  @Transactional
+  public void testKeysetPageSortedByCapacityUsesCapacityIndex() throws SQLException {
+    DbWarehouse last = new DbWarehouse();
+    last.capacity = 50;
+    last.id = 123_456L;
+    String cursor = SearchCursor.encode("capacity", "ASC", last);
+
+    String sql = single(RecordingStatementInspector.record(() -> warehouseRepository
+        .search(null, 50, null, "capacity", "asc", cursor, 10)));
+
+    String plan = explain(sql, 50, 50, 50, 123_456L, 11);
+
+    assertTrue(plan.contains("idx_warehouse_active_capacity_id"), plan);
+    assertFalse(plan.contains("Seq Scan"), plan);
+  }
+
+  @Test
+  @Transactional
+  public void testSearchSortedByStockDescUsesStockIndexBackwards() throws SQLException {
+    String sql = single(RecordingStatementInspector.record(() -> warehouseRepository
+        .search(null, null, null, "stock", "desc", null, 10)));
+
+    String plan = explain(sql, 11);
+
+    assertTrue(plan.contains("Index Scan Backward using idx_warehouse_active_stock_id"), plan);
+  }
+
+  @Test
+  @Transactional
+  public void testFacetsOfLocationAndCapacityUseLocationCapacityIndex() throws SQLException {
+    // The sampled count behind total=estimate, and the grouped count behind total=exact
+    String samplePlan = explain(single(RecordingStatementInspector.record(() ->
+        warehouseRepository.searchFacets("LOC-7", 10, 20, 10, false))), "LOC-7", 10, 20);
+    String groupedPlan = explain(single(RecordingStatementInspector.record(() ->
+        warehouseRepository.searchFacets("LOC-7", 10, 20, 10, true))), "LOC-7", 10, 20);
+
+    assertTrue(samplePlan.contains("idx_warehouse_active_location_capacity"), samplePlan);
+    assertTrue(groupedPlan.contains("idx_warehouse_active_location_capacity"), groupedPlan);
+  }
+
+  @Test
+  @Transactional
+  public void testEstimatedFacetsOfLargeResultTakeTheTotalFromThePlanner() {
+    WarehouseSearchFacets facets = warehouseRepository.searchFacets(null, null, null, 10, false);
+
+    // 900,000 active rows; the planner's estimate is close, not exact
+    assertTrue(facets.totalEstimated());
+    assertTrue(facets.total() > 800_000 && facets.total() < 1_000_000, facets::toString);
+    assertFalse(facets.locations().isEmpty());
+    assertFalse(facets.capacityHistogram().isEmpty());
+  }
+
+  @Test
+  @Transactional
+  public void testLookupByBusinessUnitCodeUsesUniqueIndex() throws SQLException {
+    List<String> statements = RecordingStatementInspector.record(() ->
+        assertNotNull(warehouseRepository.findByBusinessUnitCode("MWH.424242")));
+
+    // Natural-id resolution; the row itself may then be loaded by id
+    List<String> byCode = statements.stream()
+        .filter(sql -> sql.contains("businessUnitCode=?"))
+        .toList();
+    assertFalse(byCode.isEmpty(), statements::toString);
+    for (String sql : byCode) {
+      String plan = explain(sql, "MWH.424242");
+
+      assertTrue(plan.contains("Index Scan"), plan);
+      assertFalse(plan.contains("Seq Scan"), plan);
+    }
+  }
+
+  // ---- helpers ----
+
+  static String single(List<String> statements) {
+    assertEquals(1, statements.size(), statements::toString);
+    return statements.get(0);
+  }
+
+  // Binds the values to the statement's placeholders in order, as the repository did
+  String explain(String sql, Object... values) throws SQLException {
+    assertEquals(sql.chars().filter(c -> c == '?').count(), values.length, sql);
+    StringBuilder plan = new StringBuilder();
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+      for (int i = 0; i < values.length; i++) {
+        statement.setObject(i + 1, values[i]);
+      }
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          plan.append(rows.getString(1)).append('\n');
+        }
+      }
+    }
+    return plan.toString();
+  }
+}
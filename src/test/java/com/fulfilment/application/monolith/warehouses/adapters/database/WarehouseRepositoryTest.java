@@ -0,0 +1,222 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutation;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMutation.Outcome;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseSearchFacets;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for WarehouseRepository.
+ *
+ * The listing and search reads project straight into the domain model and must
+ * leave nothing behind in the persistence context; lookups by business unit code
+ * are natural-id loads served from the second-level cache once warm. Archive and replace
+ * are single conditional statements that report what they found.
+ */
+@QuarkusTest
+public class WarehouseRepositoryTest {
+
+  @Inject
+  WarehouseRepository warehouseRepository;
+
+  @Inject
+  EntityManager em;
+
+  @BeforeEach
+  @Transactional
+  public void setup() {
+    em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+    em.createQuery("DELETE FROM DbLocationOccupancy").executeUpdate();
+
+    createDb("REPO-001", "AMSTERDAM-001", 80, 20, null);
+    createDb("REPO-002", "ZWOLLE-001", 30, 5, null);
+    createDb("REPO-ARC", "TILBURG-001", 40, 5, LocalDateTime.now());
+  }
+
+  @Test
+  @Transactional
+  public void testReadsDoNotLoadManagedEntities() {
+    List<Warehouse> all = warehouseRepository.getAll();
+    List<Warehouse> found = warehouseRepository.search("AMSTERDAM-001", null, null, "capacity", "asc", 0, 10);
+
+    assertEquals(2, all.size());
+    assertEquals(1, found.size());
+    assertEquals(0, em.unwrap(Session.class).getStatistics().getEntityCount(),
+        "Read projections must not populate the persistence context");
+  }
+
+  @Test
+  @Transactional
+  public void testFindByBusinessUnitCodeReturnsAllFields() {
+    Warehouse archived = warehouseRepository.findByBusinessUnitCode("REPO-ARC");
+
+    assertEquals("TILBURG-001", archived.location);
+    assertEquals(40, archived.capacity);
+    assertEquals(5, archived.stock);
+    assertNotNull(archived.createdAt);
+    assertNotNull(archived.archivedAt);
+  }
+
+  @Test
+  @Transactional
+  public void testFindByBusinessUnitCodeSeesWarehouseCreatedInSameTransaction() {
+    Warehouse warehouse = new Warehouse("REPO-NEW", "AMSTERDAM-001", 10, 1, LocalDateTime.now(), null);
+    warehouseRepository.create(warehouse);
+
+    assertNotNull(warehouseRepository.findByBusinessUnitCode("REPO-NEW"));
+  }
+
+  @Test
+  public void testFindByBusinessUnitCodeIsServedFromSecondLevelCacheWhenWarm() {
+    Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    warehouseRepository.findByBusinessUnitCode("REPO-001"); // warm-up
+
+    long statementsBefore = statistics.getPrepareStatementCount();
+    Warehouse warm = warehouseRepository.findByBusinessUnitCode("REPO-001");
+
+    assertEquals("AMSTERDAM-001", warm.location);
+    assertEquals(statementsBefore, statistics.getPrepareStatementCount(),
+        "A warm lookup by business unit code must not run SQL");
+  }
+
+  @Test
+  @Transactional
+  public void testUpdateAfterLookupInSameTransactionIsFlushed() {
+    Warehouse warehouse = warehouseRepository.findByBusinessUnitCode("REPO-001");
+    warehouse.stock = 7;
+    warehouseRepository.update(warehouse);
+    em.flush();
+
+    Integer stock = em.createQuery("SELECT w.stock FROM DbWarehouse w WHERE w.businessUnitCode = 'REPO-001'", Integer.class)
+        .getSingleResult();
+    assertEquals(7, stock, "The read-only lookup must not stop update from being flushed");
+  }
+
+  @Test
+  public void testFindByBusinessUnitCodeReturnsNullWhenUnknown() {
+    assertNull(warehouseRepository.findByBusinessUnitCode("NOPE"));
+  }
+
+  // ---- FACETS ----
+
+  @Test
+  @Transactional
+  public void testEstimatedFacetsStopCountingPastTheThreshold() {
+    em.createNativeQuery("INSERT INTO warehouse"
+            + " (id, version, businessUnitCode, location, capacity, stock, createdAt)"
+            + " SELECT 100000 + X, 0, 'REPO-EST-' || X, 'AMSTERDAM-001', 10, 0, CURRENT_TIMESTAMP"
+            + " FROM SYSTEM_RANGE(1, " + WarehouseRepository.ESTIMATE_THRESHOLD + ")")
+        .executeUpdate();
+
+    WarehouseSearchFacets estimated = warehouseRepository.searchFacets(null, null, null, 10, false);
+    WarehouseSearchFacets belowThreshold =
+        warehouseRepository.searchFacets("ZWOLLE-001", null, null, 10, false);
+
+    assertTrue(estimated.totalEstimated());
+    assertEquals(WarehouseRepository.ESTIMATE_THRESHOLD, estimated.total());
+    assertTrue(estimated.locations().get("AMSTERDAM-001") > 0);
+    assertTrue(estimated.capacityHistogram().stream().anyMatch(bucket -> bucket.from() == 10));
+    assertFalse(belowThreshold.totalEstimated());
+    assertEquals(1, belowThreshold.total());
+    assertEquals(Map.of("ZWOLLE-001", 1L), belowThreshold.locations());
+  }
+
+  // ---- CONDITIONAL UPDATES ----
+
+  @Test
+  @Transactional
+  public void testArchiveReturnsPreviousValuesAndBumpsVersion() {
+    long versionBefore = versionOf("REPO-001");
+
+    WarehouseMutation result = warehouseRepository.archive("REPO-001", LocalDateTime.now());
+
+    assertEquals(Outcome.APPLIED, result.outcome());
+    assertEquals("AMSTERDAM-001", result.previousLocation());
+    assertEquals(80, result.previousCapacity());
+    assertEquals(versionBefore + 1, versionOf("REPO-001"));
+    assertNotNull(warehouseRepository.findByBusinessUnitCode("REPO-001").archivedAt);
+  }
+
+  @Test
+  @Transactional
+  public void testArchiveDetachesTheEntityTheSessionManages() {
+    DbWarehouse managed = warehouseRepository.find("businessUnitCode", "REPO-001").firstResult();
+
+    warehouseRepository.archive("REPO-001", LocalDateTime.now());
+
+    assertFalse(em.contains(managed));
+    assertNotNull(warehouseRepository.findByBusinessUnitCode("REPO-001").archivedAt);
+  }
+
+  @Test
+  @Transactional
+  public void testArchiveReportsArchivedAndNotFound() {
+    assertEquals(Outcome.ARCHIVED, warehouseRepository.archive("REPO-ARC", LocalDateTime.now()).outcome());
+    assertEquals(Outcome.NOT_FOUND, warehouseRepository.archive("NOPE", LocalDateTime.now()).outcome());
+  }
+
+  @Test
+  @Transactional
+  public void testReplaceUpdatesFieldsAndReturnsPreviousValues() {
+    long versionBefore = versionOf("REPO-002");
+
+    WarehouseMutation result = warehouseRepository.replace(
+        new Warehouse("REPO-002", "ZWOLLE-002", 45, 10, null, null));
+
+    assertEquals(Outcome.APPLIED, result.outcome());
+    assertEquals("ZWOLLE-001", result.previousLocation());
+    assertEquals(30, result.previousCapacity());
+    assertEquals(versionBefore + 1, versionOf("REPO-002"));
+
+    Warehouse replaced = warehouseRepository.findByBusinessUnitCode("REPO-002");
+    assertEquals("ZWOLLE-002", replaced.location);
+    assertEquals(45, replaced.capacity);
+    assertEquals(10, replaced.stock);
+    assertNotNull(replaced.createdAt, "createdAt must be preserved");
+    assertNull(replaced.archivedAt);
+  }
+
+  @Test
+  @Transactional
+  public void testReplaceDoesNotTouchArchivedWarehouse() {
+    WarehouseMutation result = warehouseRepository.replace(
+        new Warehouse("REPO-ARC", "ZWOLLE-001", 10, 1, null, null));
+
+    assertEquals(Outcome.ARCHIVED, result.outcome());
+    assertEquals("TILBURG-001", warehouseRepository.findByBusinessUnitCode("REPO-ARC").location);
+  }
+
+  // ---- helper ----
+
+  long versionOf(String code) {
+    return em.createQuery("SELECT w.version FROM DbWarehouse w WHERE w.businessUnitCode = :code", Long.class)
+        .setParameter("code", code)
+        .getSingleResult();
+  }
+
+  void createDb(String code, String location, int capacity, int stock, LocalDateTime archivedAt) {
+    DbWarehouse w = new DbWarehouse();
+    w.businessUnitCode = code;
+    w.location = location;
+    w.capacity = capacity;
+    w.stock = stock;
+    w.createdAt = LocalDateTime.now();
+    w.archivedAt = archivedAt;
+    em.persist(w);
+  }
+}
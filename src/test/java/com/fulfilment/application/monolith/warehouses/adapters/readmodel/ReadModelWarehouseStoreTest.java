@@ -0,0 +1,188 @@
+package com.fulfilment.application.monolith.warehouses.adapters.readmodel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the in-memory warehouse read model.
+ *
+ * Covers serving lookups from memory, applying writes only after commit,
+ * in-memory search filters and the consistency check against the database.
+ */
+@QuarkusTest
+public class ReadModelWarehouseStoreTest {
+
+  @Inject
+  WarehouseRepository warehouseRepository;
+
+  @Inject
+  TransactionSynchronizationRegistry transactions;
+
+  @Inject
+  EntityManager em;
+
+  private SimpleMeterRegistry meterRegistry;
+  private ReadModelWarehouseStore readModel;
+
+  @BeforeEach
+  @Transactional
+  public void setup() {
+    em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+    em.createQuery("DELETE FROM DbLocationOccupancy").executeUpdate();
+    createDb("RM-001", "AMSTERDAM-001", 80, 20);
+    createDb("RM-002", "AMSTERDAM-001", 40, 10);
+    createDb("RM-003", "ZWOLLE-001", 30, 5);
+
+    meterRegistry = new SimpleMeterRegistry();
+    readModel = new ReadModelWarehouseStore(warehouseRepository, transactions, meterRegistry, true);
+  }
+
+  @Test
+  public void testLookupsAreServedFromMemoryOnceLoaded() {
+    assertEquals(3, readModel.getAll().size());
+
+    deleteDirectly("RM-001");
+
+    assertNotNull(readModel.findByBusinessUnitCode("RM-001"), "should still be served from memory");
+    assertEquals(2.0, lookups("hit"));
+    assertEquals(0.0, lookups("miss"));
+  }
+
+  @Test
+  public void testReturnedWarehousesAreCopies() {
+    readModel.findByBusinessUnitCode("RM-001").capacity = 1;
+
+    assertEquals(80, readModel.findByBusinessUnitCode("RM-001").capacity);
+  }
+
+  @Test
+  public void testCommittedCreateBecomesVisible() {
+    readModel.getAll();
+
+    QuarkusTransaction.requiringNew().run(() -> readModel.create(
+        buildWarehouse("RM-NEW-001", "TILBURG-001", 20, 5)));
+
+    assertNotNull(readModel.findByBusinessUnitCode("RM-NEW-001"));
+    assertEquals(4, readModel.getAll().size());
+  }
+
+  @Test
+  public void testRolledBackCreateIsNeverVisible() {
+    readModel.getAll();
+
+    assertThrows(IllegalStateException.class, () -> QuarkusTransaction.requiringNew().run(() -> {
+      readModel.create(buildWarehouse("RM-ROLLBACK-001", "TILBURG-001", 20, 5));
+      throw new IllegalStateException("fail after create");
+    }));
+
+    assertNull(readModel.findByBusinessUnitCode("RM-ROLLBACK-001"));
+    assertEquals(3, readModel.getAll().size());
+  }
+
+  @Test
+  public void testArchivedWarehouseLeavesTheReadModel() {
+    Warehouse existing = readModel.findByBusinessUnitCode("RM-002");
+    existing.archivedAt = LocalDateTime.now();
+
+    QuarkusTransaction.requiringNew().run(() -> readModel.update(existing));
+
+    assertEquals(2, readModel.getAll().size());
+    assertTrue(readModel.search("AMSTERDAM-001", null, null, "capacity", "asc", 0, 10).stream()
+        .noneMatch(w -> w.businessUnitCode.equals("RM-002")));
+    // Archived warehouses are looked up in the database
+    assertNotNull(readModel.findByBusinessUnitCode("RM-002").archivedAt);
+    assertEquals(1.0, lookups("miss"));
+  }
+
+  @Test
+  public void testSearchFiltersAndSortsInMemory() {
+    List<Warehouse> result =
+        readModel.search("AMSTERDAM-001", 30, null, "capacity", "desc", 0, 10);
+
+    assertEquals(List.of("RM-001", "RM-002"),
+        result.stream().map(w -> w.businessUnitCode).toList());
+    assertEquals(
+        warehouseRepository.search(null, 35, 90, "capacity", "asc", 0, 10).stream()
+            .map(w -> w.businessUnitCode).toList(),
+        readModel.search(null, 35, 90, "capacity", "asc", 0, 10).stream()
+            .map(w -> w.businessUnitCode).toList());
+  }
+
+  @Test
+  public void testDescendingSearchBreaksTiesLikeTheDatabase() {
+    QuarkusTransaction.requiringNew().run(() -> {
+      createDb("RM-TIE-1", "ZWOLLE-002", 40, 1);
+      createDb("RM-TIE-2", "ZWOLLE-002", 40, 2);
+    });
+
+    for (String direction : List.of("asc", "desc")) {
+      assertEquals(
+          warehouseRepository.search(null, null, null, "capacity", direction, 0, 10).stream()
+              .map(w -> w.businessUnitCode).toList(),
+          readModel.search(null, null, null, "capacity", direction, 0, 10).stream()
+              .map(w -> w.businessUnitCode).toList(),
+          direction);
+    }
+  }
+
+  @Test
+  public void testVerifyDetectsDriftAndReloads() {
+    readModel.getAll();
+    assertTrue(readModel.verify());
+
+    deleteDirectly("RM-003");
+
+    assertFalse(readModel.verify());
+    assertEquals(1.0, meterRegistry.get("warehouse.read_model.drift").counter().count());
+    assertEquals(2, readModel.size());
+    assertTrue(readModel.verify());
+  }
+
+  // ---- helpers ----
+
+  private double lookups(String result) {
+    return meterRegistry.get("warehouse.read_model.lookups").tag("result", result).counter()
+        .count();
+  }
+
+  private void deleteDirectly(String code) {
+    QuarkusTransaction.requiringNew().run(() -> em
+        .createQuery("DELETE FROM DbWarehouse w WHERE w.businessUnitCode = :code")
+        .setParameter("code", code)
+        .executeUpdate());
+  }
+
+  private Warehouse buildWarehouse(String code, String location, int capacity, int stock) {
+    Warehouse w = new Warehouse();
+    w.businessUnitCode = code;
+    w.location = location;
+    w.capacity = capacity;
+    w.stock = stock;
+    w.createdAt = LocalDateTime.now();
+    return w;
+  }
+
+  private void createDb(String code, String location, int capacity, int stock) {
+    DbWarehouse w = new DbWarehouse();
+    w.businessUnitCode = code;
+    w.location = location;
+    w.capacity = capacity;
+    w.stock = stock;
+    w.createdAt = LocalDateTime.now();
+    em.persist(w);
+  }
+}
@@ -2,7 +2,10 @@ package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
 
+import com.fulfilment.application.monolith.common.NameOrderedPages;
+import com.fulfilment.application.monolith.location.NearestWarehouseLocator;
 import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
@@ -16,7 +19,7 @@ import java.time.LocalDateTime;
 /**
  * Integration tests for the Warehouse REST API endpoints.
  *
- * Covers list, create, getById, replace, and archive operations,
+ * Covers list, create, batch create, getById, replace, archive and nearest operations,
  * including validation error scenarios (400/404).
  */
 @QuarkusTest
@@ -25,10 +28,14 @@ public class WarehouseResourceTest {
   @Inject
   EntityManager em;
 
+  @Inject
+  NearestWarehouseLocator nearestWarehouseLocator;
+
   @BeforeEach
   @Transactional
   public void setup() {
     em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+    em.createQuery("DELETE FROM DbLocationOccupancy").executeUpdate();
 
     // Seed a couple of active warehouses
     createDb("WH-RESOURCE-001", "AMSTERDAM-001", 80, 20);
@@ -52,6 +59,26 @@ public class WarehouseResourceTest {
         .body("businessUnitCode", not(hasItem("WH-RESOURCE-ARC")));
   }
 
+  // ---- EXPORT ----
+
+  @Test
+  public void testExportStreamsActiveWarehousesAsNdjson() {
+    String body = given()
+        .when().get("/warehouse/export")
+        .then()
+        .statusCode(200)
+        .contentType(startsWith(NameOrderedPages.APPLICATION_NDJSON))
+        .extract().asString();
+
+    // One object per line, nothing between the lines
+    assertEquals(
+        "{\"businessUnitCode\":\"WH-RESOURCE-001\",\"location\":\"AMSTERDAM-001\","
+            + "\"capacity\":80,\"stock\":20}\n"
+            + "{\"businessUnitCode\":\"WH-RESOURCE-002\",\"location\":\"ZWOLLE-001\","
+            + "\"capacity\":30,\"stock\":10}\n",
+        body);
+  }
+
   // ---- CREATE ----
 
   @Test
@@ -59,7 +86,7 @@ public class WarehouseResourceTest {
     String body = """
         {
           "businessUnitCode": "WH-NEW-001",
-          "location": "AMSTERDAM-001",
+          "location": "EINDHOVEN-001",
           "capacity": 60,
           "stock": 10
         }
@@ -72,7 +99,7 @@ public class WarehouseResourceTest {
         .then()
         .statusCode(200)
         .body("businessUnitCode", is("WH-NEW-001"))
-        .body("location", is("AMSTERDAM-001"))
+        .body("location", is("EINDHOVEN-001"))
         .body("capacity", is(60))
         .body("stock", is(10));
   }
@@ -159,7 +186,7 @@ public class WarehouseResourceTest {
     String body = """
         {
           "businessUnitCode": "WH-NO-STOCK",
-          "location": "AMSTERDAM-001",
+          "location": "EINDHOVEN-001",
           "capacity": 50
         }
         """;
@@ -173,6 +200,61 @@ public class WarehouseResourceTest {
         .body("stock", is(0));
   }
 
+  // ---- BATCH CREATE ----
+
+  @Test
+  public void testCreateWarehouseBatchReportsEachItem() {
+    // EINDHOVEN-001 takes 2 warehouses with a total capacity of 70
+    String body = """
+        [
+          { "businessUnitCode": "WH-BATCH-001", "location": "EINDHOVEN-001", "capacity": 30, "stock": 5 },
+          { "businessUnitCode": "WH-BATCH-002", "location": "EINDHOVEN-001", "capacity": 30 },
+          { "businessUnitCode": "WH-BATCH-003", "location": "EINDHOVEN-001", "capacity": 5, "stock": 1 },
+          { "businessUnitCode": "WH-RESOURCE-001", "location": "AMSTERDAM-001", "capacity": 10, "stock": 1 },
+          { "businessUnitCode": "WH-BATCH-001", "location": "VETSBY-001", "capacity": 10, "stock": 1 },
+          { "businessUnitCode": "WH-BATCH-004", "location": "NOWHERE-001", "capacity": 10, "stock": 1 }
+        ]
+        """;
+
+    given()
+        .contentType("application/json")
+        .body(body)
+        .when().post("/warehouse/batch")
+        .then()
+        .statusCode(200)
+        .body("index", contains(0, 1, 2, 3, 4, 5))
+        .body("created", contains(true, true, false, false, false, false))
+        .body("[2].error", containsString("cannot take another warehouse"))
+        .body("[3].error", containsString("already exists"))
+        .body("[4].error", containsString("more than once"))
+        .body("[5].error", containsString("not valid"));
+
+    given()
+        .when().get("/warehouse/WH-BATCH-002")
+        .then()
+        .statusCode(200)
+        .body("location", is("EINDHOVEN-001"))
+        .body("stock", is(0));
+  }
+
+  @Test
+  public void testCreateWarehouseBatchRejectsOversizedBatch() {
+    StringBuilder body = new StringBuilder("[");
+    for (int i = 0; i <= WarehouseResource.MAX_BATCH_SIZE; i++) {
+      body.append(i == 0 ? "" : ",")
+          .append("{\"businessUnitCode\": \"WH-BIG-").append(i)
+          .append("\", \"location\": \"AMSTERDAM-001\", \"capacity\": 1}");
+    }
+    body.append(']');
+
+    given()
+        .contentType("application/json")
+        .body(body.toString())
+        .when().post("/warehouse/batch")
+        .then()
+        .statusCode(400);
+  }
+
   // ---- GET BY ID ----
 
   @Test
@@ -200,7 +282,7 @@ public class WarehouseResourceTest {
   public void testReplaceWarehouseSuccess() {
     String body = """
         {
-          "location": "ZWOLLE-001",
+          "location": "EINDHOVEN-001",
           "capacity": 30,
           "stock": 5
         }
@@ -213,7 +295,7 @@ public class WarehouseResourceTest {
         .then()
         .statusCode(200)
         .body("businessUnitCode", is("WH-RESOURCE-001"))
-        .body("location", is("ZWOLLE-001"))
+        .body("location", is("EINDHOVEN-001"))
         .body("capacity", is(30))
         .body("stock", is(5));
   }
@@ -305,6 +387,80 @@ public class WarehouseResourceTest {
         .statusCode(400);
   }
 
+  // ---- NEAREST ----
+
+  @Test
+  public void testNearestReturnsClosestWarehousesFirst() {
+    nearestWarehouseLocator.rebuild();
+
+    given()
+        .queryParam("location", "AMSTERDAM-002")
+        .queryParam("limit", 5)
+        .when().get("/warehouse/nearest")
+        .then()
+        .statusCode(200)
+        .body("size()", is(2))
+        .body("[0].businessUnitCode", is("WH-RESOURCE-001"))
+        .body("[0].freeCapacity", is(60))
+        .body("[1].businessUnitCode", is("WH-RESOURCE-002"))
+        .body("businessUnitCode", not(hasItem("WH-RESOURCE-ARC")));
+  }
+
+  @Test
+  public void testNearestSkipsWarehousesWithoutEnoughFreeCapacity() {
+    nearestWarehouseLocator.rebuild();
+
+    given()
+        .queryParam("latitude", 52.52)
+        .queryParam("longitude", 6.08)
+        .queryParam("minFreeCapacity", 30)
+        .when().get("/warehouse/nearest")
+        .then()
+        .statusCode(200)
+        .body("size()", is(1))
+        .body("[0].businessUnitCode", is("WH-RESOURCE-001"));
+  }
+
+  @Test
+  public void testNearestFollowsCreatesAndArchives() {
+    nearestWarehouseLocator.rebuild();
+
+    given()
+        .contentType("application/json")
+        .body("""
+            {
+              "businessUnitCode": "WH-NEAREST-NEW",
+              "location": "ZWOLLE-002",
+              "capacity": 50,
+              "stock": 0
+            }
+            """)
+        .when().post("/warehouse")
+        .then()
+        .statusCode(200);
+    given()
+        .when().delete("/warehouse/WH-RESOURCE-002")
+        .then()
+        .statusCode(204);
+
+    given()
+        .queryParam("location", "ZWOLLE-001")
+        .when().get("/warehouse/nearest")
+        .then()
+        .statusCode(200)
+        .body("[0].businessUnitCode", is("WH-NEAREST-NEW"))
+        .body("businessUnitCode", not(hasItem("WH-RESOURCE-002")));
+  }
+
+  @Test
+  public void testNearestWithoutPointReturns400() {
+    given()
+        .queryParam("latitude", 52.0)
+        .when().get("/warehouse/nearest")
+        .then()
+        .statusCode(400);
+  }
+
   // ---- helper ----
 
   @Transactional
@@ -17,7 +17,7 @@ import java.time.LocalDateTime;
  * Integration tests for GET /warehouse/search endpoint.
  *
  * Covers filtering by location, capacity range, sorting, pagination,
- * and exclusion of archived warehouses.
+ * facets, and exclusion of archived warehouses.
  */
 @QuarkusTest
 public class WarehouseSearchTest {
@@ -29,6 +29,7 @@ public class WarehouseSearchTest {
   @Transactional
   public void setup() {
     em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+    em.createQuery("DELETE FROM DbLocationOccupancy").executeUpdate();
 
     // Active warehouses
     createWarehouse("SEARCH-001", "AMSTERDAM-001", 80, 20);
@@ -109,6 +110,29 @@ public class WarehouseSearchTest {
         .body("capacity[3]", is(30));
   }
 
+  @Test
+  public void testSearchSortByStockWithCursor() {
+    String next = given()
+        .queryParam("sortBy", "stock")
+        .queryParam("pageSize", 2)
+        .queryParam("cursor", "")
+        .when().get("/warehouse/search")
+        .then()
+        .statusCode(200)
+        .body("stock", contains(5, 10))
+        .extract().header(WarehouseResource.NEXT_CURSOR_HEADER);
+
+    given()
+        .queryParam("sortBy", "stock")
+        .queryParam("pageSize", 2)
+        .queryParam("cursor", next)
+        .when().get("/warehouse/search")
+        .then()
+        .statusCode(200)
+        .body("stock", contains(15, 20))
+        .header(WarehouseResource.NEXT_CURSOR_HEADER, nullValue());
+  }
+
   @Test
   public void testSearchPagination() {
     given()
@@ -144,8 +168,174 @@ public class WarehouseSearchTest {
         .body("size()", is(0));
   }
 
+  @Test
+  public void testCursorPaginationWalksAllPagesWithoutOverlap() {
+    String next = given()
+        .queryParam("sortBy", "capacity")
+        .queryParam("pageSize", 2)
+        .queryParam("cursor", "")
+        .when().get("/warehouse/search")
+        .then()
+        .statusCode(200)
+        .body("capacity", contains(30, 40))
+        .header(WarehouseResource.NEXT_CURSOR_HEADER, notNullValue())
+        .extract().header(WarehouseResource.NEXT_CURSOR_HEADER);
+
+    given()
+        .queryParam("sortBy", "capacity")
+        .queryParam("pageSize", 2)
+        .queryParam("cursor", next)
+        .when().get("/warehouse/search")
+        .then()
+        .statusCode(200)
+        .body("capacity", contains(50, 80))
+        .header(WarehouseResource.NEXT_CURSOR_HEADER, nullValue());
+  }
+
+  @Test
+  public void testCursorPaginationDescendingWithFilter() {
+    String next = given()
+        .queryParam("sortBy", "capacity")
+        .queryParam("sortOrder", "desc")
+        .queryParam("minCapacity", 35)
+        .queryParam("pageSize", 1)
+        .queryParam("cursor", "")
+        .when().get("/warehouse/search")
+        .then()
+        .statusCode(200)
+        .body("businessUnitCode", contains("SEARCH-001"))
+        .extract().header(WarehouseResource.NEXT_CURSOR_HEADER);
+
+    given()
+        .queryParam("sortBy", "capacity")
+        .queryParam("sortOrder", "desc")
+        .queryParam("minCapacity", 35)
+        .queryParam("pageSize", 1)
+        .queryParam("cursor", next)
+        .when().get("/warehouse/search")
+        .then()
+        .statusCode(200)
+        .body("businessUnitCode", contains("SEARCH-002"));
+  }
+
+  @Test
+  public void testCursorPaginationByCreatedAtBreaksTiesById() {
+    LocalDateTime sameInstant = LocalDateTime.of(2024, 1, 1, 0, 0);
+    setCreatedAt(sameInstant);
+
+    String next = given()
+        .queryParam("pageSize", 3)
+        .queryParam("cursor", "")
+        .when().get("/warehouse/search")
+        .then()
+        .statusCode(200)
+        .body("size()", is(3))
+        .extract().header(WarehouseResource.NEXT_CURSOR_HEADER);
+
+    given()
+        .queryParam("pageSize", 3)
+        .queryParam("cursor", next)
+        .when().get("/warehouse/search")
+        .then()
+        .statusCode(200)
+        .body("size()", is(1))
+        .body("businessUnitCode", contains("SEARCH-004"));
+  }
+
+  @Test
+  public void testCursorFromAnotherSortOrderIsRejected() {
+    String next = given()
+        .queryParam("sortBy", "capacity")
+        .queryParam("pageSize", 1)
+        .queryParam("cursor", "")
+        .when().get("/warehouse/search")
+        .then()
+        .statusCode(200)
+        .extract().header(WarehouseResource.NEXT_CURSOR_HEADER);
+
+    given()
+        .queryParam("sortBy", "createdAt")
+        .queryParam("cursor", next)
+        .when().get("/warehouse/search")
+        .then()
+        .statusCode(400);
+  }
+
+  @Test
+  public void testMalformedCursorIsRejected() {
+    given()
+        .queryParam("cursor", "not-a-cursor")
+        .when().get("/warehouse/search")
+        .then()
+        .statusCode(400);
+  }
+
+  // ---- FACETS ----
+
+  @Test
+  public void testSearchWithFacetsReturnsEnvelope() {
+    given()
+        .queryParam("facets", true)
+        .queryParam("pageSize", 2)
+        .when().get("/warehouse/search")
+        .then()
+        .statusCode(200)
+        .body("items.size()", is(2))
+        .body("total", is(4))
+        .body("totalEstimated", is(false))
+        .body("locations.'AMSTERDAM-001'", is(2))
+        .body("locations.'ZWOLLE-001'", is(1))
+        .body("locations.'TILBURG-001'", is(1))
+        .body("capacityHistogram.from", contains(25, 50, 75))
+        .body("capacityHistogram.to", contains(50, 75, 100))
+        .body("capacityHistogram.count", contains(2, 1, 1));
+  }
+
+  @Test
+  public void testSearchFacetsShareTheSearchFilters() {
+    given()
+        .queryParam("facets", true)
+        .queryParam("location", "AMSTERDAM-001")
+        .queryParam("bucketWidth", 100)
+        .when().get("/warehouse/search")
+        .then()
+        .statusCode(200)
+        .body("total", is(2))
+        .body("locations.size()", is(1))
+        .body("capacityHistogram.count", contains(2));
+  }
+
+  @Test
+  public void testSearchFacetsWithEstimatedTotalCountsSmallResultsExactly() {
+    given()
+        .queryParam("facets", true)
+        .queryParam("total", "estimate")
+        .when().get("/warehouse/search")
+        .then()
+        .statusCode(200)
+        .body("total", is(4))
+        .body("totalEstimated", is(false));
+  }
+
+  @Test
+  public void testSearchFacetsRejectUnknownTotalMode() {
+    given()
+        .queryParam("facets", true)
+        .queryParam("total", "approximate")
+        .when().get("/warehouse/search")
+        .then()
+        .statusCode(400);
+  }
+
   // ---- helper ----
 
+  @Transactional
+  void setCreatedAt(LocalDateTime createdAt) {
+    em.createQuery("UPDATE DbWarehouse w SET w.createdAt = :createdAt")
+        .setParameter("createdAt", createdAt)
+        .executeUpdate();
+  }
+
   @Transactional
   DbWarehouse createWarehouse(String code, String location, int capacity, int stock) {
     DbWarehouse w = new DbWarehouse();
@@ -1,11 +1,13 @@
 package com.fulfilment.application.monolith.warehouses.domain;
 
 import com.fulfilment.application.monolith.location.LocationGateway;
+import com.fulfilment.application.monolith.warehouses.adapters.database.LocationOccupancyRepository;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.usecases.CreateWarehouseUseCase;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -32,12 +34,23 @@ public class WarehouseValidationTest {
   @Inject
   LocationGateway locationResolver;
 
+  @Inject
+  LocationOccupancyRepository locationOccupancyRepository;
+
+  @Inject
+  EntityManager em;
+
   private CreateWarehouseUseCase createWarehouseUseCase;
 
   @BeforeEach
   @Transactional
   public void setup() {
-    createWarehouseUseCase = new CreateWarehouseUseCase(warehouseRepository, locationResolver);
+    // ZWOLLE-001 only allows one warehouse, so every scenario needs an empty location
+    em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+    em.createQuery("DELETE FROM DbLocationOccupancy").executeUpdate();
+
+    createWarehouseUseCase = new CreateWarehouseUseCase(warehouseRepository, locationResolver,
+        locationOccupancyRepository);
   }
 
   /**
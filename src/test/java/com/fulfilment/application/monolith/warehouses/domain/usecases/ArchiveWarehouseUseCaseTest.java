@@ -42,6 +42,7 @@ public class ArchiveWarehouseUseCaseTest {
   public void setup() {
     // Clean slate
     em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+    em.createQuery("DELETE FROM DbLocationOccupancy").executeUpdate();
   }
 
   /**
@@ -62,6 +63,23 @@ public class ArchiveWarehouseUseCaseTest {
     assertNotNull(archived.archivedAt);
   }
 
+  /**
+   * A warehouse without a capacity is archived too; it held no capacity at its location
+   */
+  @Test
+  @Transactional
+  public void testArchiveWarehouseWithoutCapacity() {
+    Warehouse warehouse = createWarehouse("ARCHIVE-TEST-003", "AMSTERDAM-001");
+    em.createQuery("UPDATE DbWarehouse w SET w.capacity = null WHERE w.businessUnitCode = :code")
+        .setParameter("code", "ARCHIVE-TEST-003")
+        .executeUpdate();
+
+    archiveWarehouseUseCase.archive(warehouse);
+
+    Warehouse archived = warehouseRepository.findByBusinessUnitCode("ARCHIVE-TEST-003");
+    assertNotNull(archived.archivedAt);
+  }
+
   /**
    * Cannot archive non-existent warehouse
    */
@@ -1,8 +1,11 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.location.LocationGateway;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbLocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.adapters.database.LocationOccupancyRepository;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseBatchItemResult;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
@@ -10,13 +13,15 @@ import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Tests for the Create Warehouse use case.
  *
  * Covers successful creation, duplicate code rejection,
- * invalid location, and capacity/stock validations.
+ * invalid location, capacity/stock validations, location limits and batch creation.
  */
 @QuarkusTest
 public class CreateWarehouseUseCaseTest {
@@ -27,6 +32,9 @@ public class CreateWarehouseUseCaseTest {
   @Inject
   LocationGateway locationResolver;
 
+  @Inject
+  LocationOccupancyRepository locationOccupancyRepository;
+
   @Inject
   EntityManager em;
 
@@ -36,7 +44,9 @@ public class CreateWarehouseUseCaseTest {
   @Transactional
   public void setup() {
     em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
-    createWarehouseUseCase = new CreateWarehouseUseCase(warehouseRepository, locationResolver);
+    em.createQuery("DELETE FROM DbLocationOccupancy").executeUpdate();
+    createWarehouseUseCase = new CreateWarehouseUseCase(warehouseRepository, locationResolver,
+        locationOccupancyRepository);
   }
 
   @Test
@@ -137,6 +147,112 @@ public class CreateWarehouseUseCaseTest {
     assertEquals(45, saved.capacity);
   }
 
+  @Test
+  @Transactional
+  public void testCannotCreateBeyondLocationMaxNumberOfWarehouses() {
+    // HELMOND-001 allows a single warehouse
+    createWarehouseUseCase.create(buildWarehouse("CREATE-NUM-001", "HELMOND-001", 20, 0));
+
+    Warehouse second = buildWarehouse("CREATE-NUM-002", "HELMOND-001", 20, 0);
+
+    IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+        () -> createWarehouseUseCase.create(second));
+
+    assertTrue(ex.getMessage().contains("cannot take another warehouse"));
+  }
+
+  @Test
+  @Transactional
+  public void testCannotCreateBeyondLocationTotalCapacity() {
+    // EINDHOVEN-001 allows two warehouses with a total capacity of 70
+    createWarehouseUseCase.create(buildWarehouse("CREATE-SUM-001", "EINDHOVEN-001", 40, 0));
+
+    Warehouse second = buildWarehouse("CREATE-SUM-002", "EINDHOVEN-001", 40, 0);
+
+    IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+        () -> createWarehouseUseCase.create(second));
+
+    assertTrue(ex.getMessage().contains("cannot take another warehouse"));
+  }
+
+  @Test
+  @Transactional
+  public void testCreateFillsLocationExactly() {
+    createWarehouseUseCase.create(buildWarehouse("CREATE-FILL-001", "EINDHOVEN-001", 40, 0));
+    createWarehouseUseCase.create(buildWarehouse("CREATE-FILL-002", "EINDHOVEN-001", 30, 0));
+
+    DbLocationOccupancy occupancy = locationOccupancyRepository.findById("EINDHOVEN-001");
+    assertEquals(2, occupancy.warehouseCount);
+    assertEquals(70, occupancy.totalCapacity);
+  }
+
+  @Test
+  @Transactional
+  public void testArchivingFreesLocationSlot() {
+    Warehouse first = buildWarehouse("CREATE-ARC-001", "HELMOND-001", 45, 0);
+    createWarehouseUseCase.create(first);
+
+    new ArchiveWarehouseUseCase(warehouseRepository, locationOccupancyRepository).archive(first);
+    createWarehouseUseCase.create(buildWarehouse("CREATE-ARC-002", "HELMOND-001", 45, 0));
+
+    assertNotNull(warehouseRepository.findByBusinessUnitCode("CREATE-ARC-002"));
+  }
+
+  @Test
+  @Transactional
+  public void testCreateAllInsertsValidItemsAndReportsTheRest() {
+    List<WarehouseBatchItemResult> results = createWarehouseUseCase.createAll(List.of(
+        buildWarehouse("BATCH-001", "AMSTERDAM-001", 30, 10),
+        buildWarehouse("BATCH-002", "AMSTERDAM-001", 150, 10),
+        buildWarehouse("BATCH-003", "ZWOLLE-001", 20, 30),
+        buildWarehouse("BATCH-001", "TILBURG-001", 20, 5),
+        buildWarehouse("BATCH-004", "AMSTERDAM-001", 70, 0)));
+
+    assertEquals(5, results.size());
+    assertTrue(results.get(0).created());
+    assertTrue(results.get(1).error().contains("exceeds location max capacity"));
+    assertTrue(results.get(2).error().contains("exceeds warehouse capacity"));
+    assertTrue(results.get(3).error().contains("more than once"));
+    assertTrue(results.get(4).created());
+
+    assertNotNull(warehouseRepository.findByBusinessUnitCode("BATCH-001").createdAt);
+    assertEquals("AMSTERDAM-001", warehouseRepository.findByBusinessUnitCode("BATCH-001").location);
+    assertEquals(70, warehouseRepository.findByBusinessUnitCode("BATCH-004").capacity);
+    assertNull(warehouseRepository.findByBusinessUnitCode("BATCH-002"));
+  }
+
+  @Test
+  @Transactional
+  public void testCreateAllEnforcesLocationLimitsAcrossTheBatch() {
+    // EINDHOVEN-001 allows two warehouses with a total capacity of 70
+    List<WarehouseBatchItemResult> results = createWarehouseUseCase.createAll(List.of(
+        buildWarehouse("BATCH-LIM-001", "EINDHOVEN-001", 50, 0),
+        buildWarehouse("BATCH-LIM-002", "EINDHOVEN-001", 30, 0),
+        buildWarehouse("BATCH-LIM-003", "EINDHOVEN-001", 20, 0),
+        buildWarehouse("BATCH-LIM-004", "EINDHOVEN-001", 10, 0)));
+
+    assertTrue(results.get(0).created());
+    assertFalse(results.get(1).created(), "would exceed the total capacity");
+    assertTrue(results.get(2).created());
+    assertFalse(results.get(3).created(), "would exceed the number of warehouses");
+
+    DbLocationOccupancy occupancy = locationOccupancyRepository.findById("EINDHOVEN-001");
+    assertEquals(2, occupancy.warehouseCount);
+    assertEquals(70, occupancy.totalCapacity);
+  }
+
+  @Test
+  @Transactional
+  public void testCreateAllRejectsExistingCode() {
+    createWarehouseUseCase.create(buildWarehouse("BATCH-DUP-001", "AMSTERDAM-001", 10, 0));
+
+    List<WarehouseBatchItemResult> results = createWarehouseUseCase.createAll(List.of(
+        buildWarehouse("BATCH-DUP-001", "AMSTERDAM-001", 10, 0)));
+
+    assertFalse(results.get(0).created());
+    assertTrue(results.get(0).error().contains("already exists"));
+  }
+
   // ---- helper ----
 
   private Warehouse buildWarehouse(String code, String location, int capacity, int stock) {
@@ -2,6 +2,7 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.location.LocationGateway;
 import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import com.fulfilment.application.monolith.warehouses.adapters.database.LocationOccupancyRepository;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import io.quarkus.test.junit.QuarkusTest;
@@ -39,6 +40,9 @@ public class ReplaceWarehouseUseCaseTest {
   @Inject
   LocationGateway locationResolver;
 
+  @Inject
+  LocationOccupancyRepository locationOccupancyRepository;
+
   @Inject
   EntityManager em;
 
@@ -49,9 +53,11 @@ public class ReplaceWarehouseUseCaseTest {
   public void setup() {
     // Clean slate
     em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+    em.createQuery("DELETE FROM DbLocationOccupancy").executeUpdate();
 
     // Initialize use case
-    replaceWarehouseUseCase = new ReplaceWarehouseUseCase(warehouseRepository, locationResolver);
+    replaceWarehouseUseCase = new ReplaceWarehouseUseCase(warehouseRepository, locationResolver,
+        locationOccupancyRepository);
   }
 
   /**
@@ -124,6 +130,37 @@ public class ReplaceWarehouseUseCaseTest {
     assertTrue(exception.getMessage().contains("archived"));
   }
 
+  /**
+   * Replacing in place at a full location reuses the warehouse's own slot
+   */
+  @Test
+  @Transactional
+  public void testReplaceInPlaceAtFullLocation() {
+    // HELMOND-001 allows a single warehouse with capacity 45
+    newCreateWarehouseUseCase().create(buildWarehouse("REPLACE-FULL-001", "HELMOND-001", 45, 10));
+
+    replaceWarehouseUseCase.replace(buildWarehouse("REPLACE-FULL-001", "HELMOND-001", 40, 20));
+
+    assertEquals(40, warehouseRepository.findByBusinessUnitCode("REPLACE-FULL-001").capacity);
+  }
+
+  /**
+   * Cannot move a warehouse into a location that is already full
+   */
+  @Test
+  @Transactional
+  public void testCannotReplaceIntoFullLocation() {
+    CreateWarehouseUseCase createWarehouseUseCase = newCreateWarehouseUseCase();
+    createWarehouseUseCase.create(buildWarehouse("REPLACE-MOVE-001", "AMSTERDAM-001", 40, 10));
+    createWarehouseUseCase.create(buildWarehouse("REPLACE-MOVE-002", "HELMOND-001", 40, 10));
+
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+      replaceWarehouseUseCase.replace(buildWarehouse("REPLACE-MOVE-001", "HELMOND-001", 30, 10));
+    });
+
+    assertTrue(exception.getMessage().contains("cannot take a warehouse"));
+  }
+
   /**
    * Capacity and stock validations (parameterized)
    */
@@ -233,6 +270,19 @@ public class ReplaceWarehouseUseCaseTest {
 
   // Helper methods
 
+  CreateWarehouseUseCase newCreateWarehouseUseCase() {
+    return new CreateWarehouseUseCase(warehouseRepository, locationResolver, locationOccupancyRepository);
+  }
+
+  Warehouse buildWarehouse(String businessUnitCode, String location, int capacity, int stock) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = businessUnitCode;
+    warehouse.location = location;
+    warehouse.capacity = capacity;
+    warehouse.stock = stock;
+    return warehouse;
+  }
+
   @Transactional(TxType.REQUIRES_NEW)
   Warehouse createWarehouse(String businessUnitCode, String location, int capacity, int stock) {
     Warehouse warehouse = new Warehouse();